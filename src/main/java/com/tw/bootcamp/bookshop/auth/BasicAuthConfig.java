@@ -4,13 +4,21 @@ import com.tw.bootcamp.bookshop.user.Role;
 import com.tw.bootcamp.bookshop.user.User;
 import com.tw.bootcamp.bookshop.user.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.config.annotation.authentication.builders.AuthenticationManagerBuilder;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.annotation.web.configuration.WebSecurityConfigurerAdapter;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.web.authentication.HttpStatusEntryPoint;
+import org.springframework.security.web.authentication.www.BasicAuthenticationFilter;
+
+import java.time.Duration;
 
 @Configuration
 @EnableWebSecurity
@@ -18,9 +26,37 @@ public class BasicAuthConfig extends WebSecurityConfigurerAdapter {
     @Autowired
     UserService userService;
 
+    @Value("${auth.credential-cache.time-to-live:PT5M}")
+    private Duration credentialCacheTimeToLive;
+
+    @Value("${auth.credential-cache.max-entries:10000}")
+    private int credentialCacheMaxEntries;
+
+    @Value("${auth.token.secret:}")
+    private String tokenSecret;
+
+    @Value("${auth.token.time-to-live:PT1H}")
+    private Duration tokenTimeToLive;
+
+    @Bean
+    public VerifiedCredentialCache verifiedCredentialCache() {
+        return new VerifiedCredentialCache(credentialCacheTimeToLive, credentialCacheMaxEntries);
+    }
+
+    @Bean
+    public TokenService tokenService() {
+        return new TokenService(userService, tokenSecret, tokenTimeToLive);
+    }
+
+    @Bean
+    @Override
+    public AuthenticationManager authenticationManagerBean() throws Exception {
+        return super.authenticationManagerBean();
+    }
+
     @Override
     protected void configure(AuthenticationManagerBuilder auth) throws Exception {
-        auth.userDetailsService(userService).passwordEncoder(User.PASSWORD_ENCODER);
+        auth.authenticationProvider(new CachingAuthenticationProvider(userService, User.PASSWORD_ENCODER, verifiedCredentialCache()));
     }
 
     @Override
@@ -29,12 +65,15 @@ public class BasicAuthConfig extends WebSecurityConfigurerAdapter {
                         SessionCreationPolicy.STATELESS)
                 .and().authorizeRequests()
                 .antMatchers(HttpMethod.POST,"/users").permitAll()
+                .antMatchers(HttpMethod.POST, "/login").permitAll()
                 .antMatchers("/admin/**").hasAnyRole(Role.ADMIN.name())
                 .antMatchers(HttpMethod.OPTIONS, "/**").permitAll()
                 .anyRequest().authenticated()
                 .and()
                 .httpBasic()
                 .and()
+                .addFilterBefore(new BearerTokenAuthenticationFilter(tokenService(), new HttpStatusEntryPoint(HttpStatus.UNAUTHORIZED)),
+                        BasicAuthenticationFilter.class)
                 .cors().and()
                 .csrf().disable();
     }
@@ -0,0 +1,49 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.tw.bootcamp.bookshop.user.AuthenticatedUser;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.web.AuthenticationEntryPoint;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+public class BearerTokenAuthenticationFilter extends OncePerRequestFilter {
+    private static final String BEARER_PREFIX = "Bearer ";
+
+    private final TokenService tokenService;
+    private final AuthenticationEntryPoint authenticationEntryPoint;
+
+    public BearerTokenAuthenticationFilter(TokenService tokenService, AuthenticationEntryPoint authenticationEntryPoint) {
+        this.tokenService = tokenService;
+        this.authenticationEntryPoint = authenticationEntryPoint;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain) throws ServletException, IOException {
+        String header = request.getHeader(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER_PREFIX)) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        TokenClaims claims;
+        try {
+            claims = tokenService.verify(header.substring(BEARER_PREFIX.length()).trim());
+        } catch (InvalidTokenException e) {
+            SecurityContextHolder.clearContext();
+            authenticationEntryPoint.commence(request, response, e);
+            return;
+        }
+
+        AuthenticatedUser user = new AuthenticatedUser(claims.getUserId(), claims.getEmail(), "", claims.getRole());
+        SecurityContextHolder.getContext().setAuthentication(
+                new UsernamePasswordAuthenticationToken(user, null, user.getAuthorities()));
+        filterChain.doFilter(request, response);
+    }
+}
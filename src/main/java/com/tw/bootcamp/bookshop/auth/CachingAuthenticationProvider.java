@@ -0,0 +1,37 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+public class CachingAuthenticationProvider extends DaoAuthenticationProvider {
+    private final VerifiedCredentialCache credentialCache;
+
+    public CachingAuthenticationProvider(UserDetailsService userDetailsService, PasswordEncoder passwordEncoder,
+                                         VerifiedCredentialCache credentialCache) {
+        this.credentialCache = credentialCache;
+        setUserDetailsService(userDetailsService);
+        setPasswordEncoder(passwordEncoder);
+    }
+
+    @Override
+    public Authentication authenticate(Authentication authentication) throws AuthenticationException {
+        if (authentication.getCredentials() == null) {
+            return super.authenticate(authentication);
+        }
+        String email = authentication.getName();
+        String password = authentication.getCredentials().toString();
+
+        UserDetails cachedUser = credentialCache.lookup(email, password);
+        if (cachedUser != null) {
+            return createSuccessAuthentication(cachedUser, authentication, cachedUser);
+        }
+
+        Authentication result = super.authenticate(authentication);
+        credentialCache.put(email, password, (UserDetails) result.getPrincipal());
+        return result;
+    }
+}
@@ -0,0 +1,9 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import org.springframework.security.core.AuthenticationException;
+
+public class InvalidTokenException extends AuthenticationException {
+    public InvalidTokenException() {
+        super("Invalid or expired token");
+    }
+}
@@ -0,0 +1,44 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.tw.bootcamp.bookshop.user.AuthenticatedUser;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.AuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+public class LoginController {
+    private final AuthenticationManager authenticationManager;
+    private final TokenService tokenService;
+
+    @Autowired
+    public LoginController(AuthenticationManager authenticationManager, TokenService tokenService) {
+        this.authenticationManager = authenticationManager;
+        this.tokenService = tokenService;
+    }
+
+    @PostMapping("/login")
+    @Operation(summary = "Login", description = "Verifies the credentials once and issues a signed bearer token. " +
+            "Send it as 'Authorization: Bearer <token>' instead of Basic credentials until it expires.", tags = {"User Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Token issued",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = LoginResponse.class))}),
+            @ApiResponse(responseCode = "401", content = @Content)
+    })
+    public ResponseEntity<LoginResponse> login(@RequestBody LoginRequest loginRequest) {
+        Authentication authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(loginRequest.getEmail(), loginRequest.getPassword()));
+        String token = tokenService.issue((AuthenticatedUser) authentication.getPrincipal());
+        return ResponseEntity.ok(new LoginResponse(token, "Bearer", tokenService.getTimeToLive().getSeconds()));
+    }
+}
@@ -0,0 +1,18 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Getter
+public class LoginRequest {
+    @Schema(example = "user@example.com", description = "email of user")
+    private String email;
+    @Schema(example = "password", description = "password of user")
+    private String password;
+}
@@ -0,0 +1,16 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class LoginResponse {
+    @Schema(example = "dXNlckBleGFtcGxlLmNvbXxVU0VSfDE2NDMwMDAwMDA.c2lnbmF0dXJl", description = "Signed bearer token")
+    private final String token;
+    @Schema(example = "Bearer", description = "Type of the token")
+    private final String tokenType;
+    @Schema(example = "3600", description = "Seconds until the token expires")
+    private final long expiresIn;
+}
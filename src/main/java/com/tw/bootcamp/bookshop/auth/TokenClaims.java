@@ -0,0 +1,18 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.tw.bootcamp.bookshop.user.Role;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+import java.time.Instant;
+
+@Getter
+@AllArgsConstructor
+@EqualsAndHashCode
+public class TokenClaims {
+    private final Long userId;
+    private final String email;
+    private final Role role;
+    private final Instant expiresAt;
+}
@@ -0,0 +1,92 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.tw.bootcamp.bookshop.user.AuthenticatedUser;
+import com.tw.bootcamp.bookshop.user.Role;
+import com.tw.bootcamp.bookshop.user.UserService;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.regex.Pattern;
+
+public class TokenService {
+    private static final String SIGNATURE_ALGORITHM = "HmacSHA256";
+    private static final String FIELD_SEPARATOR = "|";
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final UserService userService;
+    private final SecretKeySpec signingKey;
+    private final Duration timeToLive;
+    private final Clock clock;
+
+    public TokenService(UserService userService, String secret, Duration timeToLive) {
+        this(userService, secret, timeToLive, Clock.systemUTC());
+    }
+
+    TokenService(UserService userService, String secret, Duration timeToLive, Clock clock) {
+        if (secret == null || secret.isEmpty()) {
+            throw new IllegalArgumentException("Token secret must be set");
+        }
+        this.userService = userService;
+        this.signingKey = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), SIGNATURE_ALGORITHM);
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+    }
+
+    public Duration getTimeToLive() {
+        return timeToLive;
+    }
+
+    public String issue(AuthenticatedUser user) {
+        Instant expiresAt = clock.instant().plus(timeToLive);
+        String payload = String.join(FIELD_SEPARATOR, user.getUsername(), user.getRole().name(),
+                Long.toString(user.getId()), Long.toString(expiresAt.getEpochSecond()),
+                Long.toString(user.getTokenVersion()));
+        byte[] payloadBytes = payload.getBytes(StandardCharsets.UTF_8);
+        return ENCODER.encodeToString(payloadBytes) + "." + ENCODER.encodeToString(sign(payloadBytes));
+    }
+
+    public TokenClaims verify(String token) throws InvalidTokenException {
+        int separator = token.indexOf('.');
+        if (separator < 0) {
+            throw new InvalidTokenException();
+        }
+        try {
+            byte[] payloadBytes = DECODER.decode(token.substring(0, separator));
+            byte[] signature = DECODER.decode(token.substring(separator + 1));
+            if (!MessageDigest.isEqual(sign(payloadBytes), signature)) {
+                throw new InvalidTokenException();
+            }
+            String[] fields = new String(payloadBytes, StandardCharsets.UTF_8).split(Pattern.quote(FIELD_SEPARATOR));
+            Instant expiresAt = Instant.ofEpochSecond(Long.parseLong(fields[3]));
+            if (!clock.instant().isBefore(expiresAt)) {
+                throw new InvalidTokenException();
+            }
+            Long userId = Long.valueOf(fields[2]);
+            long tokenVersion = Long.parseLong(fields[4]);
+            if (!userService.findTokenVersion(userId).filter(version -> version == tokenVersion).isPresent()) {
+                throw new InvalidTokenException();
+            }
+            return new TokenClaims(userId, fields[0], Role.valueOf(fields[1]), expiresAt);
+        } catch (IllegalArgumentException | ArrayIndexOutOfBoundsException e) {
+            throw new InvalidTokenException();
+        }
+    }
+
+    private byte[] sign(byte[] payload) {
+        try {
+            Mac mac = Mac.getInstance(SIGNATURE_ALGORITHM);
+            mac.init(signingKey);
+            return mac.doFinal(payload);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
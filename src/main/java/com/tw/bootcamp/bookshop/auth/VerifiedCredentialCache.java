@@ -0,0 +1,138 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.tw.bootcamp.bookshop.user.UserRoleUpdatedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+public class VerifiedCredentialCache implements MeterBinder {
+    private static final String DIGEST_ALGORITHM = "HmacSHA256";
+
+    private final Duration timeToLive;
+    private final Clock clock;
+    private final SecretKeySpec digestKey;
+    private final Map<String, Entry> entries;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    public VerifiedCredentialCache(Duration timeToLive, int maxEntries) {
+        this(timeToLive, maxEntries, Clock.systemUTC());
+    }
+
+    VerifiedCredentialCache(Duration timeToLive, int maxEntries, Clock clock) {
+        this.timeToLive = timeToLive;
+        this.clock = clock;
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        this.digestKey = new SecretKeySpec(key, DIGEST_ALGORITHM);
+        this.entries = new LinkedHashMap<String, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    public UserDetails lookup(String email, String rawPassword) {
+        byte[] digest = digest(email, rawPassword);
+        synchronized (this) {
+            Entry entry = entries.get(email);
+            if (entry != null && entry.isExpiredAt(clock.instant())) {
+                entries.remove(email);
+                entry = null;
+            }
+            if (entry == null || !MessageDigest.isEqual(entry.digest, digest)) {
+                misses.increment();
+                return null;
+            }
+            hits.increment();
+            return entry.user;
+        }
+    }
+
+    public void put(String email, String rawPassword, UserDetails user) {
+        Entry entry = new Entry(digest(email, rawPassword), user, clock.instant().plus(timeToLive));
+        synchronized (this) {
+            entries.put(email, entry);
+        }
+    }
+
+    public synchronized void evict(String email) {
+        entries.remove(email);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    @EventListener
+    public void onRoleUpdated(UserRoleUpdatedEvent event) {
+        evict(event.getEmail());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("auth.credential.cache", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Authentications served without a password hash check")
+                .register(registry);
+        FunctionCounter.builder("auth.credential.cache", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Authentications that fell back to the password hash check")
+                .register(registry);
+        Gauge.builder("auth.credential.cache.size", this, VerifiedCredentialCache::size)
+                .register(registry);
+    }
+
+    private byte[] digest(String email, String rawPassword) {
+        try {
+            Mac mac = Mac.getInstance(DIGEST_ALGORITHM);
+            mac.init(digestKey);
+            mac.update(email.getBytes(StandardCharsets.UTF_8));
+            mac.update((byte) 0);
+            return mac.doFinal(rawPassword.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static class Entry {
+        private final byte[] digest;
+        private final UserDetails user;
+        private final Instant expiresAt;
+
+        private Entry(byte[] digest, UserDetails user, Instant expiresAt) {
+            this.digest = digest;
+            this.user = user;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpiredAt(Instant now) {
+            return !now.isBefore(expiresAt);
+        }
+    }
+}
@@ -45,6 +45,7 @@ public class Book {
     private String languageCode;
     @Column(columnDefinition = "NUMERIC")
     private Double averageRating;
+    private String contentFingerprint;
     @Transient
     @Schema(example = "True", description = "Is book Available or not")
     private boolean isAvailable;
@@ -62,8 +63,9 @@ public class Book {
                 .isbn(book.getIsbn())
                 .originalPublicationYear(book.getOriginalPublicationYear())
                 .originalTitle(book.getOriginalTitle())
-                .languageCode(builder().languageCode)
+                .languageCode(book.getLanguageCode())
                 .averageRating(book.getAverageRating())
+                .contentFingerprint(BookFingerprint.of(book))
                 .build();
     }
 
@@ -101,6 +103,7 @@ public class Book {
         this.languageCode = book.getLanguageCode();
         this.originalTitle = book.getOriginalTitle();
         this.averageRating = book.getAverageRating();
+        this.contentFingerprint = BookFingerprint.of(book);
     }
 
     public void isAvailable(boolean isAvailable) {
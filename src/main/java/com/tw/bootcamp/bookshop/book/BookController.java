@@ -1,40 +1,47 @@
 package com.tw.bootcamp.bookshop.book;
 
-import com.opencsv.bean.CsvToBeanBuilder;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
+import com.tw.bootcamp.bookshop.book.error.InvalidBookFilterException;
+import com.tw.bootcamp.bookshop.book.error.InvalidCursorException;
+import com.tw.bootcamp.bookshop.book.search.BookFilter;
+import com.tw.bootcamp.bookshop.book.search.SearchSort;
+import com.tw.bootcamp.bookshop.book.search.Suggestion;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springdoc.api.annotations.ParameterObject;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.IOException;
-import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.util.List;
 import java.util.stream.Collectors;
 
 @RestController
 public class BookController {
     private final BookService bookService;
+    private final ObjectMapper objectMapper;
 
     @Autowired
-    public BookController(BookService bookService) {
+    public BookController(BookService bookService, ObjectMapper objectMapper) {
         this.bookService = bookService;
+        this.objectMapper = objectMapper;
     }
 
 
     @GetMapping("/books")
     @Operation(summary = "List all books", description = "To list all the books in the bookshop with a book image. " +
-            "The result will be sorted in an ascending order based on the Book title.", tags = {"Books Service"})
+            "The result will be sorted in an ascending order based on the Book title. " +
+            "The list is capped, pass pageSize to page through the whole catalog.", tags = {"Books Service"})
     @ApiResponses(value = {
             @ApiResponse(responseCode = "200", description = "To list all the books in the bookshop with a book image. " +
                     "The result will be sorted in an ascending order based on the Book title.",
@@ -48,6 +55,64 @@ public class BookController {
                 .collect(Collectors.toList());
     }
 
+    @GetMapping(value = "/books", params = "pageSize")
+    @Operation(summary = "List books page by page", description = "To list the books in the bookshop one page at a time, " +
+            "sorted in an ascending order based on the Book title. Pass the returned nextCursor to fetch the following page.",
+            tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "A page of books sorted by title",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookPageResponse.class))}),
+            @ApiResponse(responseCode = "400", content = @Content)
+    })
+    BookPageResponse listPage(@Parameter(description = "Number of books per page", example = "20") @RequestParam int pageSize,
+                              @Parameter(description = "nextCursor of the previous page") @RequestParam(required = false) String cursor) throws InvalidCursorException {
+        BookCursor bookCursor = cursor == null || cursor.isEmpty() ? null : BookCursor.decode(cursor);
+        return bookService.fetchPage(bookCursor, pageSize).toResponse();
+    }
+
+    @GetMapping("/books/filter")
+    @Operation(summary = "Filter books", description = "To list the books in the bookshop matching every given filter " +
+            "on language, original publication year, average rating, price and availability. " +
+            "The result is sorted in an ascending order based on the Book title and comes with the number of " +
+            "matching books per language, decade, rating and availability.", tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Matching books with facet counts",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = FilteredBooksResponse.class))}),
+            @ApiResponse(responseCode = "400", content = @Content)
+    })
+    FilteredBooksResponse filter(@ParameterObject BookFilter filter,
+                                 @Parameter(description = "Maximum number of books to return", example = "20") @RequestParam(defaultValue = "20") int limit) throws InvalidBookFilterException {
+        filter.validateRanges();
+        return bookService.filter(filter, limit).toResponse();
+    }
+
+    @GetMapping(value = "/books/export", produces = MediaType.APPLICATION_JSON_VALUE)
+    @Operation(summary = "Export all books", description = "Streams the whole catalog as a JSON array sorted in an ascending order " +
+            "based on the Book title. Books are written as they are read, so the export is not capped.", tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "All books in the bookshop sorted by title",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookResponse.class))})
+    })
+    ResponseEntity<StreamingResponseBody> export() {
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                bookService.exportAll(book -> {
+                    try {
+                        generator.writeObject(book.toResponse());
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
     @GetMapping(value = "/books/search", params = "title")
     @Operation(summary = "Search books by title",
             description = "To list all the books in the bookshop based on the title search. " +
@@ -68,23 +133,42 @@ public class BookController {
                 .collect(Collectors.toList());
     }
 
-    @PostMapping(value = "/admin/books/load", consumes = "multipart/form-data")
-    @PreAuthorize("hasRole('ROLE_ADMIN')")
-    @Operation(summary = "Load books from CSV file", description = "Loads all valid books from the uploaded CSV. Invalid books are returned as a response. " +
-            "Invalid book refers to empty values for title, author_name, price, book_count. " +
-            "If both ISBN and ISBN13 are empty, or title, author_name, price, book_count are empty then the book is considered invalid.", tags = {"Books Service"})
+    @GetMapping(value = "/books/search", params = "q")
+    @Operation(summary = "Search books",
+            description = "To search the books in the bookshop on title, author and original title. " +
+                    "The search ignores case and accents and returns books matching every word of the query, " +
+                    "or words one or two typos away from them when fuzzy is set, " +
+                    "ranked by relevance or sorted in an ascending order based on the Book title.",
+            tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books matching every word of the query",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookResponse.class))}),
+            @ApiResponse(responseCode = "400", content = @Content)
+    })
+    List<BookResponse> search(@Parameter(description = "Words to search for", example = "harry potter") @RequestParam String q,
+                              @Parameter(description = "RELEVANCE or NAME") @RequestParam(defaultValue = "RELEVANCE") SearchSort sort,
+                              @Parameter(description = "Tolerate misspelt words") @RequestParam(defaultValue = "false") boolean fuzzy,
+                              @Parameter(description = "Maximum number of books to return", example = "20") @RequestParam(defaultValue = "20") int limit) {
+        List<Book> books = bookService.search(q, sort, fuzzy, limit);
+        return books.stream()
+                .map(Book::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @GetMapping("/books/suggest")
+    @Operation(summary = "Suggest titles and authors",
+            description = "To complete what is typed in the search box with book titles and authors starting with the prefix, " +
+                    "or with a word inside them starting with it. Completions are ranked by average rating.",
+            tags = {"Books Service"})
     @ApiResponses(value = {
-            @ApiResponse(responseCode = "200", description = "Books are loaded in Inventory",
+            @ApiResponse(responseCode = "200", description = "Best rated completions of the prefix",
                     content = {@Content(mediaType = "application/json",
-                            schema = @Schema(implementation = ResponseEntity.class))})
+                            schema = @Schema(implementation = Suggestion.class))})
     })
-    public ResponseEntity<?> loadBooks(@Parameter(description = "A CSV file with book details") @RequestParam("file") MultipartFile file) throws IOException {
-        if (file == null || file.getContentType() == null || !file.getContentType().equals("text/csv")) {
-            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
-        }
-        List<BookInformation> books = csvToBooks(file.getInputStream());
-        List<BookInformation> failedBooks = bookService.loadBooks(books);
-        return new ResponseEntity<>(failedBooks, HttpStatus.OK);
+    List<Suggestion> suggest(@Parameter(description = "What has been typed so far", example = "harry po") @RequestParam String prefix,
+                             @Parameter(description = "Maximum number of completions", example = "10") @RequestParam(defaultValue = "10") int limit) {
+        return bookService.suggest(prefix, limit);
     }
 
     @GetMapping("/books/{id}")
@@ -99,12 +183,4 @@ public class BookController {
         Book book = bookService.fetchByBookId(id);
         return book.toBookDetailsResponse();
     }
-
-    private List<BookInformation> csvToBooks(InputStream csvInputStream) {
-        Reader reader = new InputStreamReader(csvInputStream);
-        return new CsvToBeanBuilder(reader)
-                .withType(BookInformation.class)
-                .build()
-                .parse();
-    }
 }
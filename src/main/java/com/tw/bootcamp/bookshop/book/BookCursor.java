@@ -0,0 +1,36 @@
+package com.tw.bootcamp.bookshop.book;
+
+import com.tw.bootcamp.bookshop.book.error.InvalidCursorException;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+@Getter
+@AllArgsConstructor
+public class BookCursor {
+    private static final char SEPARATOR = ':';
+
+    private final String name;
+    private final Long id;
+
+    public static BookCursor after(Book book) {
+        return new BookCursor(book.getName(), book.getId());
+    }
+
+    public static BookCursor decode(String cursor) throws InvalidCursorException {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int separator = decoded.indexOf(SEPARATOR);
+            return new BookCursor(decoded.substring(separator + 1), Long.valueOf(decoded.substring(0, separator)));
+        } catch (IllegalArgumentException | StringIndexOutOfBoundsException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    public String encode() {
+        String raw = id + String.valueOf(SEPARATOR) + name;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,30 @@
+package com.tw.bootcamp.bookshop.book;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+
+public class BookFingerprint {
+    private BookFingerprint() {
+    }
+
+    public static String of(BookInformation book) {
+        MessageDigest digest = sha256();
+        for (Object field : new Object[]{book.getName(), book.getAuthorName(), book.getAmount(), book.getImageUrl(),
+                book.getSmallImageUrl(), book.getOriginalPublicationYear(), book.getOriginalTitle(),
+                book.getLanguageCode(), book.getAverageRating()}) {
+            String value = field == null ? "-" : "+" + field.toString().length() + ":" + field;
+            digest.update(value.getBytes(StandardCharsets.UTF_8));
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(digest.digest());
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.tw.bootcamp.bookshop.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+@AllArgsConstructor
+public class BookPage {
+    private final List<Book> books;
+    private final BookCursor nextCursor;
+
+    public BookPageResponse toResponse() {
+        List<BookResponse> bookResponses = books.stream()
+                .map(Book::toResponse)
+                .collect(Collectors.toList());
+        return new BookPageResponse(bookResponses, nextCursor == null ? null : nextCursor.encode());
+    }
+}
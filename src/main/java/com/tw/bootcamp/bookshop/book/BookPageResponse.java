@@ -0,0 +1,18 @@
+package com.tw.bootcamp.bookshop.book;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class BookPageResponse {
+    @Schema(description = "Books of this page sorted by title")
+    private List<BookResponse> books;
+    @Schema(example = "MTI6SGFycnkgUG90dGVy", description = "Cursor to fetch the next page, absent on the last page")
+    private String nextCursor;
+}
@@ -1,13 +1,43 @@
 package com.tw.bootcamp.bookshop.book;
 
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long> {
-    List<Book> findAllByOrderByNameAsc();
+    List<Book> findAllByOrderByNameAscIdAsc(Pageable pageable);
+
+    @Query("select b from Book b where b.name >= :name and (b.name > :name or b.id > :id) order by b.name asc, b.id asc")
+    List<Book> findPageAfter(@Param("name") String name, @Param("id") Long id, Pageable pageable);
+
+    default void forEachPage(int pageSize, Consumer<List<Book>> consumer) {
+        PageRequest pageRequest = PageRequest.of(0, pageSize);
+        List<Book> page = findAllByOrderByNameAscIdAsc(pageRequest);
+        while (!page.isEmpty()) {
+            consumer.accept(page);
+            Book last = page.get(page.size() - 1);
+            page = findPageAfter(last.getName(), last.getId(), pageRequest);
+        }
+    }
+
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select b from Book b order by b.name asc, b.id asc")
+    Stream<Book> streamAllByOrderByNameAscIdAsc();
 
     Book findByIsbn(String isbn);
 
@@ -15,5 +45,13 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     Book findByIsbn13AndIsbn(String isbn13, String isbn);
 
+    List<Book> findByIsbn13In(Collection<String> isbn13s);
+
+    List<Book> findByIsbnIn(Collection<String> isbns);
+
     List<Book> findByNameContainsIgnoreCaseOrderByNameAsc(String searchString);
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("update Book b set b.booksCount = b.booksCount - :quantity where b.id = :id and b.booksCount >= :quantity")
+    int decreaseBooksCount(@Param("id") Long id, @Param("quantity") int quantity);
 }
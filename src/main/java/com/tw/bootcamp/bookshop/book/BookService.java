@@ -1,24 +1,87 @@
 package com.tw.bootcamp.bookshop.book;
 
 import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
+import com.tw.bootcamp.bookshop.book.load.BookLoader;
+import com.tw.bootcamp.bookshop.book.search.BookFacetIndex;
+import com.tw.bootcamp.bookshop.book.search.BookFilter;
+import com.tw.bootcamp.bookshop.book.search.BookSearchIndex;
+import com.tw.bootcamp.bookshop.book.search.BookSuggester;
+import com.tw.bootcamp.bookshop.book.search.FacetedIds;
+import com.tw.bootcamp.bookshop.book.search.SearchSort;
+import com.tw.bootcamp.bookshop.book.search.Suggestion;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 public class BookService {
     private final BookRepository bookRepository;
+    private final BookSearchIndex bookSearchIndex;
+    private final BookSuggester bookSuggester;
+    private final BookFacetIndex bookFacetIndex;
+    private final BookLoader bookLoader;
+    private final int maxListSize;
+    private final int maxPageSize;
+
+    @PersistenceContext
+    private EntityManager entityManager;
 
     @Autowired
-    public BookService(BookRepository bookRepository) {
+    public BookService(BookRepository bookRepository,
+                       BookSearchIndex bookSearchIndex,
+                       BookSuggester bookSuggester,
+                       BookFacetIndex bookFacetIndex,
+                       BookLoader bookLoader,
+                       @Value("${books.list.max-size:1000}") int maxListSize,
+                       @Value("${books.page.max-size:100}") int maxPageSize) {
         this.bookRepository = bookRepository;
+        this.bookSearchIndex = bookSearchIndex;
+        this.bookSuggester = bookSuggester;
+        this.bookFacetIndex = bookFacetIndex;
+        this.bookLoader = bookLoader;
+        this.maxListSize = maxListSize;
+        this.maxPageSize = maxPageSize;
     }
 
     public List<Book> fetchAll() {
-        return bookRepository.findAllByOrderByNameAsc();
+        return bookRepository.findAllByOrderByNameAscIdAsc(PageRequest.of(0, maxListSize));
+    }
+
+    public BookPage fetchPage(BookCursor cursor, int pageSize) {
+        int size = cappedPageSize(pageSize);
+        PageRequest pageRequest = PageRequest.of(0, size + 1);
+        List<Book> books = cursor == null
+                ? bookRepository.findAllByOrderByNameAscIdAsc(pageRequest)
+                : bookRepository.findPageAfter(cursor.getName(), cursor.getId(), pageRequest);
+        if (books.size() <= size) {
+            return new BookPage(books, null);
+        }
+        List<Book> page = books.subList(0, size);
+        return new BookPage(page, BookCursor.after(page.get(size - 1)));
+    }
+
+    @Transactional(readOnly = true)
+    public void exportAll(Consumer<Book> consumer) {
+        try (Stream<Book> books = bookRepository.streamAllByOrderByNameAscIdAsc()) {
+            books.forEach(book -> {
+                consumer.accept(book);
+                entityManager.detach(book);
+            });
+        }
     }
 
     public Book fetchByBookId(Long id) throws BookNotFoundException {
@@ -32,36 +95,36 @@ public class BookService {
     }
 
     public List<BookInformation> loadBooks(List<BookInformation> books) {
-        List<BookInformation> failedBooks = new ArrayList<>();
-        books.forEach(book -> {
-            try {
-                Book existingBook = getExistingBook(book);
-                if (existingBook == null) {
-                    boolean invalidIsbn = book.getIsbn().isEmpty() && book.getIsbn13().isEmpty();
-                    if (invalidIsbn) {
-                        throw new InvalidBookException();
-                    }
-                    Book newBook = Book.from(book);
-                    bookRepository.save(newBook);
-                } else {
-                    existingBook.update(book);
-                    bookRepository.save(existingBook);
-                }
-            } catch (Exception e) {
-                failedBooks.add(book);
-            }
-        });
-        return failedBooks;
-    }
-
-    public Book getExistingBook(BookInformation book) {
-        if(!book.getIsbn13().isEmpty()) {
-            return bookRepository.findByIsbn13(book.getIsbn13());
-        }
-        return bookRepository.findByIsbn(book.getIsbn());
+        return bookLoader.load(books);
     }
 
     public List<Book> fetchBooksByTitle(String searchString) {
         return bookRepository.findByNameContainsIgnoreCaseOrderByNameAsc(searchString);
     }
+
+    public List<Book> search(String query, SearchSort sort, boolean fuzzy, int limit) {
+        return findAllInOrder(bookSearchIndex.search(query, sort, fuzzy, cappedPageSize(limit)));
+    }
+
+    public FilteredBooks filter(BookFilter filter, int limit) {
+        FacetedIds result = bookFacetIndex.filter(filter, cappedPageSize(limit));
+        return new FilteredBooks(findAllInOrder(result.getIds()), result.getTotal(), result.getFacets());
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return bookSuggester.suggest(prefix, limit);
+    }
+
+    private int cappedPageSize(int pageSize) {
+        return Math.max(1, Math.min(pageSize, maxPageSize));
+    }
+
+    private List<Book> findAllInOrder(List<Long> ids) {
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,11 @@
+package com.tw.bootcamp.bookshop.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookStockChangedEvent {
+    private final Book book;
+    private final int quantity;
+}
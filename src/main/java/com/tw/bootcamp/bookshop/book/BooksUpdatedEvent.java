@@ -0,0 +1,12 @@
+package com.tw.bootcamp.bookshop.book;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BooksUpdatedEvent {
+    private final List<Book> books;
+}
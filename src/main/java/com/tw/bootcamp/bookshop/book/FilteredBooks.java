@@ -0,0 +1,23 @@
+package com.tw.bootcamp.bookshop.book;
+
+import com.tw.bootcamp.bookshop.book.search.FacetCounts;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+@AllArgsConstructor
+public class FilteredBooks {
+    private final List<Book> books;
+    private final int total;
+    private final FacetCounts facets;
+
+    public FilteredBooksResponse toResponse() {
+        List<BookResponse> bookResponses = books.stream()
+                .map(Book::toResponse)
+                .collect(Collectors.toList());
+        return new FilteredBooksResponse(bookResponses, total, facets);
+    }
+}
@@ -0,0 +1,21 @@
+package com.tw.bootcamp.bookshop.book;
+
+import com.tw.bootcamp.bookshop.book.search.FacetCounts;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FilteredBooksResponse {
+    @Schema(description = "First matching books sorted by title")
+    private List<BookResponse> books;
+    @Schema(example = "42", description = "Number of books matching the filters")
+    private int total;
+    @Schema(description = "Number of matching books per value of each facet")
+    private FacetCounts facets;
+}
@@ -0,0 +1,7 @@
+package com.tw.bootcamp.bookshop.book.error;
+
+public class BookLoadJobNotFoundException extends Exception {
+    public BookLoadJobNotFoundException() {
+        super("Book load job not found for the job id");
+    }
+}
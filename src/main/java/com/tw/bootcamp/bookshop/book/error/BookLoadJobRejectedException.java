@@ -0,0 +1,7 @@
+package com.tw.bootcamp.bookshop.book.error;
+
+public class BookLoadJobRejectedException extends Exception {
+    public BookLoadJobRejectedException() {
+        super("Too many book loads are queued, try again later");
+    }
+}
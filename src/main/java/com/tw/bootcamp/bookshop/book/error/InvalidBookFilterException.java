@@ -0,0 +1,7 @@
+package com.tw.bootcamp.bookshop.book.error;
+
+public class InvalidBookFilterException extends Exception {
+    public InvalidBookFilterException(String range) {
+        super("Lower bound of " + range + " is greater than its upper bound");
+    }
+}
@@ -0,0 +1,7 @@
+package com.tw.bootcamp.bookshop.book.error;
+
+public class InvalidCursorException extends Exception {
+    public InvalidCursorException() {
+        super("Cursor is invalid");
+    }
+}
@@ -0,0 +1,46 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Component
+@ConditionalOnProperty(name = "books.inventory.mode", havingValue = "database", matchIfMissing = true)
+public class DatabaseStockReserver implements StockReserver {
+    private static final String DECREASE_COUNT_SQL = "update books set books_count = books_count - ? where id = ? and books_count >= ?";
+
+    private final BookRepository bookRepository;
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public DatabaseStockReserver(BookRepository bookRepository, JdbcTemplate jdbcTemplate) {
+        this.bookRepository = bookRepository;
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public Optional<StockReservation> reserve(Long bookId, int quantity) {
+        if (bookRepository.decreaseBooksCount(bookId, quantity) == 0) {
+            return Optional.empty();
+        }
+        return Optional.of(StockReservation.unleased());
+    }
+
+    @Override
+    public Optional<Map<Long, StockReservation>> reserveAll(SortedMap<Long, Integer> quantities) {
+        int[] updated = jdbcTemplate.batchUpdate(DECREASE_COUNT_SQL, quantities.entrySet().stream()
+                .map(item -> new Object[]{item.getValue(), item.getKey(), item.getValue()})
+                .collect(Collectors.toList()));
+        if (Arrays.stream(updated).anyMatch(count -> count == 0)) {
+            return Optional.empty();
+        }
+        Map<Long, StockReservation> reservations = new HashMap<>();
+        quantities.keySet().forEach(bookId -> reservations.put(bookId, StockReservation.unleased()));
+        return Optional.of(reservations);
+    }
+}
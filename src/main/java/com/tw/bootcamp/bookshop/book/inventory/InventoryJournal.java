@@ -0,0 +1,217 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+public class InventoryJournal implements Closeable {
+    private static final String SEGMENT_GLOB = "journal-*.log";
+
+    private final Path directory;
+    private final BlockingQueue<PendingEntry> queue = new LinkedBlockingQueue<>();
+    private final PendingEntry closeMarker = new PendingEntry(0, 0);
+    private final Thread writer;
+    private final List<Path> segments = new ArrayList<>();
+    private Map<Long, Long> unflushed = new HashMap<>();
+    private FileChannel channel;
+    private long nextSequence;
+    private long lastSequence;
+    private boolean closed;
+
+    public InventoryJournal(Path directory, long nextSequence) throws IOException {
+        this.directory = directory;
+        this.nextSequence = nextSequence;
+        this.lastSequence = nextSequence - 1;
+        Files.createDirectories(directory);
+        openSegment();
+        this.writer = new Thread(this::writeLoop, "inventory-journal-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    public static List<Entry> read(Path directory) throws IOException {
+        List<Entry> entries = new ArrayList<>();
+        for (Path segment : segmentsIn(directory)) {
+            String content = new String(Files.readAllBytes(segment), StandardCharsets.UTF_8);
+            int end = content.lastIndexOf('\n');
+            if (end < 0) {
+                continue;
+            }
+            for (String line : content.substring(0, end).split("\n")) {
+                Entry entry = Entry.parse(line);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        return entries;
+    }
+
+    public static void deleteAll(Path directory) throws IOException {
+        for (Path segment : segmentsIn(directory)) {
+            Files.deleteIfExists(segment);
+        }
+    }
+
+    public void append(long bookId, long quantity) {
+        PendingEntry pending = new PendingEntry(bookId, quantity);
+        synchronized (queue) {
+            if (closed) {
+                throw new IllegalStateException("Inventory journal is closed");
+            }
+            queue.add(pending);
+        }
+        try {
+            pending.durable.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new UncheckedIOException(new IOException(e.getCause()));
+        }
+    }
+
+    public synchronized Rotation rotate() throws IOException {
+        channel.close();
+        Rotation rotation = new Rotation(unflushed, lastSequence, new ArrayList<>(segments));
+        segments.clear();
+        unflushed = new HashMap<>();
+        openSegment();
+        return rotation;
+    }
+
+    @Override
+    public void close() throws IOException {
+        synchronized (queue) {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            queue.add(closeMarker);
+        }
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            channel.close();
+        }
+    }
+
+    private void writeLoop() {
+        List<PendingEntry> batch = new ArrayList<>();
+        boolean running = true;
+        while (running) {
+            try {
+                batch.add(queue.take());
+            } catch (InterruptedException e) {
+                continue;
+            }
+            queue.drainTo(batch);
+            running = !batch.remove(closeMarker);
+            if (batch.isEmpty()) {
+                continue;
+            }
+            try {
+                write(batch);
+                batch.forEach(pending -> pending.durable.complete(null));
+            } catch (IOException | RuntimeException e) {
+                batch.forEach(pending -> pending.durable.completeExceptionally(e));
+            }
+            batch.clear();
+        }
+    }
+
+    private synchronized void write(List<PendingEntry> batch) throws IOException {
+        StringBuilder lines = new StringBuilder();
+        long sequence = nextSequence;
+        for (PendingEntry pending : batch) {
+            lines.append(new Entry(sequence++, pending.bookId, pending.quantity).format()).append('\n');
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(lines.toString().getBytes(StandardCharsets.UTF_8));
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        channel.force(false);
+        nextSequence = sequence;
+        lastSequence = sequence - 1;
+        batch.forEach(pending -> unflushed.merge(pending.bookId, pending.quantity, Long::sum));
+    }
+
+    private void openSegment() throws IOException {
+        Path segment = directory.resolve(String.format("journal-%020d.log", nextSequence));
+        channel = FileChannel.open(segment, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.APPEND);
+        segments.add(segment);
+    }
+
+    private static List<Path> segmentsIn(Path directory) throws IOException {
+        List<Path> segments = new ArrayList<>();
+        if (!Files.isDirectory(directory)) {
+            return segments;
+        }
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, SEGMENT_GLOB)) {
+            stream.forEach(segments::add);
+        }
+        segments.sort(Comparator.comparing(Path::getFileName));
+        return segments;
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Entry {
+        private final long sequence;
+        private final long bookId;
+        private final long quantity;
+
+        String format() {
+            return sequence + "," + bookId + "," + quantity;
+        }
+
+        static Entry parse(String line) {
+            String[] fields = line.split(",");
+            if (fields.length != 3) {
+                return null;
+            }
+            try {
+                return new Entry(Long.parseLong(fields[0]), Long.parseLong(fields[1]), Long.parseLong(fields[2]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class Rotation {
+        private final Map<Long, Long> decrements;
+        private final long lastSequence;
+        private final List<Path> segments;
+    }
+
+    private static class PendingEntry {
+        private final long bookId;
+        private final long quantity;
+        private final CompletableFuture<Void> durable = new CompletableFuture<>();
+
+        private PendingEntry(long bookId, long quantity) {
+            this.bookId = bookId;
+            this.quantity = quantity;
+        }
+    }
+}
@@ -0,0 +1,421 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "books.inventory.mode", havingValue = "lease")
+public class LeaseStockReserver implements StockReserver, MeterBinder {
+    private static final String SELECT_COUNT_SQL = "select books_count from books where id = ?";
+    private static final String TAKE_UNITS_SQL = "update books set books_count = books_count - ? where id = ? and books_count >= ?";
+    private static final String RETURN_UNITS_SQL = "update books set books_count = books_count + ? where id = ?";
+    private static final String INSERT_LEASE_SQL = "insert into stock_leases (book_id, node_id, units, expires_at) values (?, ?, ?, ?)";
+    private static final String GROW_LEASE_SQL = "update stock_leases set units = units + ?, expires_at = ? where id = ? and node_id = ?";
+    private static final String RENEW_LEASE_SQL = "update stock_leases set expires_at = ? where id = ? and node_id = ?";
+    private static final String DELETE_LEASE_SQL = "delete from stock_leases where id = ? and node_id = ?";
+    private static final String SELECT_EXPIRED_SQL = "select id, book_id, units from stock_leases where expires_at < ?";
+    private static final String DELETE_EXPIRED_SQL = "delete from stock_leases where id = ? and expires_at < ?";
+    private static final String SOLD_UNITS_SQL = "select coalesce(sum(quantity), 0) from orders where stock_lease_id = ?";
+    private static final String HOLD_LEASE_SQL = "select id from stock_leases where id = ? and node_id = ? for ";
+    private static final int REPLENISH_LOCK_STRIPES = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final String nodeId;
+    private final long leaseSize;
+    private final long lowWatermark;
+    private final Duration ttl;
+    private final Duration renewInterval;
+    private final Clock clock;
+    private final ConcurrentMap<Long, Lease> leases = new ConcurrentHashMap<>();
+    private final Object[] replenishLocks = new Object[REPLENISH_LOCK_STRIPES];
+    private final ScheduledExecutorService keeper;
+    private final LongAdder keeperFailures = new LongAdder();
+    private final LongAdder refillFailures = new LongAdder();
+    private volatile String holdLeaseSql;
+
+    @Autowired
+    public LeaseStockReserver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                              @Value("${books.inventory.lease.node-id:${random.uuid}}") String nodeId,
+                              @Value("${books.inventory.lease.size:50}") long leaseSize,
+                              @Value("${books.inventory.lease.low-watermark:10}") long lowWatermark,
+                              @Value("${books.inventory.lease.ttl:PT1M}") Duration ttl) {
+        this(jdbcTemplate, transactionManager, nodeId, leaseSize, lowWatermark, ttl, Clock.systemUTC());
+    }
+
+    LeaseStockReserver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager, String nodeId,
+                       long leaseSize, long lowWatermark, Duration ttl, Clock clock) {
+        if (leaseSize < 1) {
+            throw new IllegalArgumentException("Lease size must be positive");
+        }
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.nodeId = nodeId;
+        this.leaseSize = leaseSize;
+        this.lowWatermark = lowWatermark;
+        this.ttl = ttl;
+        this.renewInterval = ttl.dividedBy(3);
+        this.clock = clock;
+        for (int i = 0; i < replenishLocks.length; i++) {
+            replenishLocks[i] = new Object();
+        }
+        this.keeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-lease-keeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        keeper.scheduleWithFixedDelay(this::keepLeasesQuietly, renewInterval.toMillis(), renewInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<StockReservation> reserve(Long bookId, int quantity) {
+        while (true) {
+            Lease lease = leases.get(bookId);
+            if (lease != null && !lease.isUsableAt(clock.instant().plus(renewInterval))) {
+                retire(lease);
+                continue;
+            }
+            if (lease != null && take(lease.remaining, quantity)) {
+                if (!hold(lease)) {
+                    lose(lease);
+                    continue;
+                }
+                refillIfLow(lease);
+                releaseOnRollback(lease, quantity);
+                return Optional.of(StockReservation.leased(lease.id));
+            }
+            if (!replenish(bookId, lease, quantity)) {
+                return Optional.empty();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("books.inventory.lease.keeper.failures", keeperFailures, LongAdder::sum)
+                .description("Lease renewals and reclaims that failed and are retried on the next run")
+                .register(registry);
+        FunctionCounter.builder("books.inventory.lease.refill.failures", refillFailures, LongAdder::sum)
+                .description("Background lease refills that failed, leaving buyers to top the lease up")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        keeper.shutdown();
+        keeper.awaitTermination(10, TimeUnit.SECONDS);
+        new ArrayList<>(leases.values()).forEach(this::retire);
+    }
+
+    long leasedUnits(Long bookId) {
+        Lease lease = leases.get(bookId);
+        return lease == null ? 0 : lease.remaining.get();
+    }
+
+    void renewLeases() {
+        for (Lease lease : leases.values()) {
+            synchronized (lease) {
+                if (lease.state != LeaseState.ACTIVE) {
+                    continue;
+                }
+                if (lease.remaining.get() == 0) {
+                    retire(lease);
+                    continue;
+                }
+                Instant expiresAt = clock.instant().plus(ttl);
+                if (jdbcTemplate.update(RENEW_LEASE_SQL, Timestamp.from(expiresAt), lease.id, nodeId) == 0) {
+                    lose(lease);
+                } else {
+                    lease.expiresAt = expiresAt;
+                }
+            }
+        }
+    }
+
+    void reclaimExpiredLeases() {
+        Timestamp now = Timestamp.from(clock.instant());
+        List<ExpiredLease> expired = jdbcTemplate.query(SELECT_EXPIRED_SQL, (row, index) ->
+                new ExpiredLease(row.getLong("id"), row.getLong("book_id"), row.getLong("units")), now);
+        for (ExpiredLease lease : expired) {
+            transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(DELETE_EXPIRED_SQL, lease.id, now) == 0) {
+                    return null;
+                }
+                Long sold = jdbcTemplate.queryForObject(SOLD_UNITS_SQL, Long.class, lease.id);
+                long unsold = lease.units - (sold == null ? 0 : sold);
+                if (unsold > 0) {
+                    jdbcTemplate.update(RETURN_UNITS_SQL, unsold, lease.bookId);
+                }
+                return null;
+            });
+        }
+    }
+
+    void keepLeasesQuietly() {
+        try {
+            renewLeases();
+            reclaimExpiredLeases();
+        } catch (RuntimeException e) {
+            keeperFailures.increment();
+            log.warn("Could not renew or reclaim stock leases of node {}, leases not renewed stop selling "
+                    + "once they are no longer usable", nodeId, e);
+        }
+    }
+
+    private boolean replenish(Long bookId, Lease seen, long quantity) {
+        synchronized (replenishLocks[Math.floorMod(bookId.hashCode(), replenishLocks.length)]) {
+            Lease lease = leases.get(bookId);
+            if (lease != seen || (lease != null && lease.remaining.get() >= quantity)) {
+                return true;
+            }
+            long wanted = Math.max(leaseSize, quantity);
+            if (lease == null) {
+                Lease opened = open(bookId, wanted, quantity);
+                if (opened == null) {
+                    return false;
+                }
+                leases.put(bookId, opened);
+                return true;
+            }
+            return grow(lease, wanted, quantity);
+        }
+    }
+
+    private Lease open(Long bookId, long wanted, long minimum) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        return transactionTemplate.execute(status -> {
+            long units = takeUnits(bookId, wanted, minimum);
+            if (units == 0) {
+                return null;
+            }
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            jdbcTemplate.update(connection -> {
+                PreparedStatement statement = connection.prepareStatement(INSERT_LEASE_SQL, new String[]{"id"});
+                statement.setLong(1, bookId);
+                statement.setString(2, nodeId);
+                statement.setLong(3, units);
+                statement.setTimestamp(4, Timestamp.from(expiresAt));
+                return statement;
+            }, keyHolder);
+            return new Lease(keyHolder.getKey().longValue(), bookId, units, expiresAt);
+        });
+    }
+
+    private boolean grow(Lease lease, long wanted, long minimum) {
+        Instant expiresAt = clock.instant().plus(ttl);
+        Long granted = transactionTemplate.execute(status -> {
+            long units = takeUnits(lease.bookId, wanted, minimum);
+            if (units > 0 && jdbcTemplate.update(GROW_LEASE_SQL, units, Timestamp.from(expiresAt), lease.id, nodeId) == 0) {
+                status.setRollbackOnly();
+                return -1L;
+            }
+            return units;
+        });
+        synchronized (lease) {
+            if (granted == null || granted < 0) {
+                lose(lease);
+                return true;
+            }
+            if (lease.state != LeaseState.ACTIVE) {
+                if (granted > 0 && lease.state == LeaseState.RETURNED) {
+                    jdbcTemplate.update(RETURN_UNITS_SQL, granted, lease.bookId);
+                }
+                return true;
+            }
+            if (granted == 0) {
+                return false;
+            }
+            lease.remaining.addAndGet(granted);
+            lease.expiresAt = expiresAt;
+            return true;
+        }
+    }
+
+    private long takeUnits(Long bookId, long wanted, long minimum) {
+        long units = wanted;
+        while (units >= minimum && units > 0) {
+            if (jdbcTemplate.update(TAKE_UNITS_SQL, units, bookId, units) > 0) {
+                return units;
+            }
+            List<Long> counts = jdbcTemplate.queryForList(SELECT_COUNT_SQL, Long.class, bookId);
+            long count = counts.isEmpty() || counts.get(0) == null ? 0 : counts.get(0);
+            units = Math.min(wanted, count);
+        }
+        return 0;
+    }
+
+    private boolean hold(Lease lease) {
+        // the lease row stays locked until the order commits, so a reclaim counts the order as sold
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !jdbcTemplate.queryForList(holdLeaseSql(), Long.class, lease.id, nodeId).isEmpty()) {
+            return true;
+        }
+        synchronized (lease) {
+            // units taken before this node returned the lease were left out of the returned units
+            return lease.state == LeaseState.RETURNED;
+        }
+    }
+
+    private String holdLeaseSql() {
+        if (holdLeaseSql == null) {
+            // key share blocks the reclaiming delete without blocking renewals, H2 only has for update
+            String lock = jdbcTemplate.execute((ConnectionCallback<String>) connection ->
+                    "PostgreSQL".equals(connection.getMetaData().getDatabaseProductName()) ? "key share" : "update");
+            holdLeaseSql = HOLD_LEASE_SQL + lock;
+        }
+        return holdLeaseSql;
+    }
+
+    private void refillIfLow(Lease lease) {
+        if (lease.remaining.get() >= lowWatermark || !lease.refilling.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            keeper.execute(() -> {
+                try {
+                    replenish(lease.bookId, lease, lowWatermark);
+                } catch (RuntimeException e) {
+                    refillFailures.increment();
+                    log.warn("Could not refill the stock lease of book {}, buyers top it up when it runs out",
+                            lease.bookId, e);
+                } finally {
+                    lease.refilling.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            lease.refilling.set(false);
+        }
+    }
+
+    private void retire(Lease lease) {
+        leases.remove(lease.bookId, lease);
+        synchronized (lease) {
+            if (lease.state != LeaseState.ACTIVE) {
+                return;
+            }
+            lease.state = LeaseState.RETURNED;
+            long unsold = lease.remaining.getAndSet(0);
+            Boolean returned = transactionTemplate.execute(status -> {
+                if (jdbcTemplate.update(DELETE_LEASE_SQL, lease.id, nodeId) == 0) {
+                    return false;
+                }
+                if (unsold > 0) {
+                    jdbcTemplate.update(RETURN_UNITS_SQL, unsold, lease.bookId);
+                }
+                return true;
+            });
+            if (!Boolean.TRUE.equals(returned)) {
+                lease.state = LeaseState.LOST;
+            }
+        }
+    }
+
+    private void lose(Lease lease) {
+        leases.remove(lease.bookId, lease);
+        synchronized (lease) {
+            lease.state = LeaseState.LOST;
+            lease.remaining.set(0);
+        }
+    }
+
+    private void releaseOnRollback(Lease lease, int quantity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(lease, quantity);
+                }
+            }
+        });
+    }
+
+    private void release(Lease lease, int quantity) {
+        synchronized (lease) {
+            if (lease.state == LeaseState.ACTIVE) {
+                lease.remaining.addAndGet(quantity);
+            } else if (lease.state == LeaseState.RETURNED) {
+                jdbcTemplate.update(RETURN_UNITS_SQL, quantity, lease.bookId);
+            }
+        }
+    }
+
+    private static boolean take(AtomicLong counter, int quantity) {
+        long current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    private enum LeaseState {
+        ACTIVE, RETURNED, LOST
+    }
+
+    private static class Lease {
+        private final long id;
+        private final Long bookId;
+        private final AtomicLong remaining;
+        private final AtomicBoolean refilling = new AtomicBoolean();
+        private volatile Instant expiresAt;
+        private volatile LeaseState state = LeaseState.ACTIVE;
+
+        private Lease(long id, Long bookId, long units, Instant expiresAt) {
+            this.id = id;
+            this.bookId = bookId;
+            this.remaining = new AtomicLong(units);
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isUsableAt(Instant instant) {
+            return state == LeaseState.ACTIVE && instant.isBefore(expiresAt);
+        }
+    }
+
+    private static class ExpiredLease {
+        private final long id;
+        private final long bookId;
+        private final long units;
+
+        private ExpiredLease(long id, long bookId, long units) {
+            this.id = id;
+            this.bookId = bookId;
+            this.units = units;
+        }
+    }
+}
@@ -0,0 +1,319 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BooksUpdatedEvent;
+import com.tw.bootcamp.bookshop.book.inventory.InventoryJournal.Entry;
+import com.tw.bootcamp.bookshop.book.inventory.InventoryJournal.Rotation;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronizationAdapter;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "books.inventory.mode", havingValue = "ledger")
+public class LedgerStockReserver implements StockReserver, MeterBinder {
+    private static final String SELECT_COUNT_SQL = "select books_count from books where id = ?";
+    private static final String DECREASE_COUNT_SQL = "update books set books_count = books_count - ? where id = ?";
+    private static final String SELECT_CHECKPOINT_SQL = "select last_sequence from inventory_checkpoints where journal = ?";
+    private static final String UPDATE_CHECKPOINT_SQL = "update inventory_checkpoints set last_sequence = ? where journal = ?";
+    private static final String INSERT_CHECKPOINT_SQL = "insert into inventory_checkpoints (journal, last_sequence) values (?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path journalDirectory;
+    private final ConcurrentMap<Long, AtomicLong> available = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> unflushed = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService flusher;
+    private final LongAdder flushFailures = new LongAdder();
+    private final LongAdder journalFailures = new LongAdder();
+    private volatile InventoryJournal journal;
+    private Rotation failedFlush;
+
+    @Autowired
+    public LedgerStockReserver(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                               @Value("${books.inventory.ledger.journal-directory:data/inventory-journal}") String journalDirectory,
+                               @Value("${books.inventory.ledger.flush-interval:PT1S}") Duration flushInterval) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.journalDirectory = Paths.get(journalDirectory).toAbsolutePath();
+        this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "inventory-ledger-flusher");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushInterval.toMillis(), flushInterval.toMillis(),
+                TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Optional<StockReservation> reserve(Long bookId, int quantity) {
+        InventoryJournal journal = journal();
+        while (true) {
+            AtomicLong counter = available.computeIfAbsent(bookId, this::seed);
+            if (counter == null) {
+                return Optional.empty();
+            }
+            addUnflushed(bookId, quantity);
+            boolean taken = take(counter, quantity);
+            if (available.get(bookId) != counter) {
+                if (taken) {
+                    counter.addAndGet(quantity);
+                }
+                addUnflushed(bookId, -quantity);
+                continue;
+            }
+            if (!taken) {
+                addUnflushed(bookId, -quantity);
+                return Optional.empty();
+            }
+            if (TransactionSynchronizationManager.isSynchronizationActive()) {
+                journalOnCommit(bookId, quantity);
+                return Optional.of(StockReservation.unleased());
+            }
+            try {
+                journal.append(bookId, quantity);
+            } catch (RuntimeException e) {
+                counter.addAndGet(quantity);
+                addUnflushed(bookId, -quantity);
+                throw e;
+            }
+            return Optional.of(StockReservation.unleased());
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void recoverJournal() {
+        journal();
+    }
+
+    @EventListener
+    public void onBooksUpdated(BooksUpdatedEvent event) {
+        event.getBooks().stream().map(Book::getId).forEach(available::remove);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("books.inventory.ledger.unflushed", this, LedgerStockReserver::unflushedUnits)
+                .description("Units reserved in the journal but not yet written to books")
+                .register(registry);
+        FunctionCounter.builder("books.inventory.ledger.flush.failures", flushFailures, LongAdder::sum)
+                .description("Journal flushes that failed and are retried on the next flush")
+                .register(registry);
+        FunctionCounter.builder("books.inventory.ledger.journal.failures", journalFailures, LongAdder::sum)
+                .description("Committed sales that could not be journaled and were written to books directly")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws IOException, InterruptedException {
+        flusher.shutdown();
+        flusher.awaitTermination(10, TimeUnit.SECONDS);
+        if (journal != null) {
+            flush();
+            journal.close();
+        }
+    }
+
+    void flush() throws IOException {
+        synchronized (this) {
+            if (journal == null) {
+                return;
+            }
+            Rotation rotation = merge(failedFlush, journal.rotate());
+            failedFlush = rotation;
+            apply(rotation.getDecrements(), rotation.getLastSequence());
+            failedFlush = null;
+            rotation.getDecrements().forEach((bookId, quantity) -> addUnflushed(bookId, -quantity));
+            for (Path segment : rotation.getSegments()) {
+                Files.deleteIfExists(segment);
+            }
+        }
+        // outside the monitor, seed() takes it while computeIfAbsent holds the map bin
+        available.keySet().removeIf(bookId -> !unflushed.containsKey(bookId));
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (IOException | RuntimeException e) {
+            flushFailures.increment();
+            log.warn("Could not flush the inventory journal, {} units stay unflushed until the next flush",
+                    unflushedUnits(), e);
+        }
+    }
+
+    int cachedBooks() {
+        return available.size();
+    }
+
+    long unflushedUnits() {
+        return unflushed.values().stream().mapToLong(Long::longValue).sum();
+    }
+
+    private InventoryJournal journal() {
+        InventoryJournal current = journal;
+        if (current == null) {
+            synchronized (this) {
+                if (journal == null) {
+                    try {
+                        journal = recover();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                }
+                current = journal;
+            }
+        }
+        return current;
+    }
+
+    private InventoryJournal recover() throws IOException {
+        long checkpoint = loadCheckpoint();
+        long lastSequence = checkpoint;
+        Map<Long, Long> decrements = new HashMap<>();
+        for (Entry entry : InventoryJournal.read(journalDirectory)) {
+            if (entry.getSequence() > checkpoint) {
+                decrements.merge(entry.getBookId(), entry.getQuantity(), Long::sum);
+                lastSequence = Math.max(lastSequence, entry.getSequence());
+            }
+        }
+        if (lastSequence > checkpoint) {
+            apply(decrements, lastSequence);
+        }
+        InventoryJournal.deleteAll(journalDirectory);
+        return new InventoryJournal(journalDirectory, lastSequence + 1);
+    }
+
+    private void apply(Map<Long, Long> decrements, long lastSequence) {
+        List<Object[]> updates = new ArrayList<>();
+        decrements.forEach((bookId, quantity) -> {
+            if (quantity != 0) {
+                updates.add(new Object[]{quantity, bookId});
+            }
+        });
+        transactionTemplate.execute(status -> {
+            if (!updates.isEmpty()) {
+                jdbcTemplate.batchUpdate(DECREASE_COUNT_SQL, updates);
+            }
+            if (jdbcTemplate.update(UPDATE_CHECKPOINT_SQL, lastSequence, journalDirectory.toString()) == 0) {
+                jdbcTemplate.update(INSERT_CHECKPOINT_SQL, journalDirectory.toString(), lastSequence);
+            }
+            return null;
+        });
+    }
+
+    private long loadCheckpoint() {
+        List<Long> checkpoints = jdbcTemplate.queryForList(SELECT_CHECKPOINT_SQL, Long.class, journalDirectory.toString());
+        return checkpoints.isEmpty() ? 0 : checkpoints.get(0);
+    }
+
+    private synchronized AtomicLong seed(Long bookId) {
+        // holds the flush monitor so books_count and unflushed are read on the same side of a flush
+        List<Long> counts = jdbcTemplate.queryForList(SELECT_COUNT_SQL, Long.class, bookId);
+        if (counts.isEmpty()) {
+            return null;
+        }
+        long count = counts.get(0) == null ? 0 : counts.get(0);
+        return new AtomicLong(count - unflushed.getOrDefault(bookId, 0L));
+    }
+
+    private void addUnflushed(Long bookId, long quantity) {
+        if (quantity == 0) {
+            return;
+        }
+        unflushed.merge(bookId, quantity, (current, added) -> current + added == 0 ? null : current + added);
+    }
+
+    private void journalOnCommit(Long bookId, int quantity) {
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronizationAdapter() {
+            @Override
+            public void afterCommit() {
+                journalSale(bookId, quantity);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    release(bookId, quantity);
+                }
+            }
+        });
+    }
+
+    private void journalSale(Long bookId, int quantity) {
+        try {
+            journal().append(bookId, quantity);
+        } catch (RuntimeException e) {
+            journalFailures.increment();
+            log.warn("Could not journal a sale of {} units of book {}, writing it to books directly", quantity, bookId, e);
+            try {
+                decrease(bookId, quantity);
+            } catch (RuntimeException writeFailure) {
+                log.error("Could not write a sale of {} units of book {}, it is lost on restart", quantity, bookId, writeFailure);
+            }
+        }
+    }
+
+    private synchronized void decrease(Long bookId, int quantity) {
+        // holds the flush monitor so seed() reads books_count and unflushed on the same side of the write
+        transactionTemplate.execute(status -> jdbcTemplate.update(DECREASE_COUNT_SQL, quantity, bookId));
+        addUnflushed(bookId, -quantity);
+    }
+
+    private void release(Long bookId, int quantity) {
+        addUnflushed(bookId, -quantity);
+        AtomicLong counter = available.get(bookId);
+        if (counter != null) {
+            counter.addAndGet(quantity);
+        }
+    }
+
+    private static boolean take(AtomicLong counter, int quantity) {
+        long current;
+        do {
+            current = counter.get();
+            if (current < quantity) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - quantity));
+        return true;
+    }
+
+    private static Rotation merge(Rotation previous, Rotation next) {
+        if (previous == null) {
+            return next;
+        }
+        Map<Long, Long> decrements = new HashMap<>(previous.getDecrements());
+        next.getDecrements().forEach((bookId, quantity) -> decrements.merge(bookId, quantity, Long::sum));
+        List<Path> segments = new ArrayList<>(previous.getSegments());
+        segments.addAll(next.getSegments());
+        return new Rotation(decrements, next.getLastSequence(), segments);
+    }
+}
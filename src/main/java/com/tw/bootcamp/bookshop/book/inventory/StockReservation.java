@@ -0,0 +1,25 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class StockReservation {
+    private static final StockReservation UNLEASED = new StockReservation(null);
+
+    private final Long leaseId;
+
+    public static StockReservation unleased() {
+        return UNLEASED;
+    }
+
+    public static StockReservation leased(Long leaseId) {
+        return new StockReservation(leaseId);
+    }
+
+    public boolean isLeased() {
+        return leaseId != null;
+    }
+}
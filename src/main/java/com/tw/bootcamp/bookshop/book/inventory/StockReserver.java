@@ -0,0 +1,22 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SortedMap;
+
+public interface StockReserver {
+    Optional<StockReservation> reserve(Long bookId, int quantity);
+
+    default Optional<Map<Long, StockReservation>> reserveAll(SortedMap<Long, Integer> quantities) {
+        Map<Long, StockReservation> reservations = new HashMap<>();
+        for (Map.Entry<Long, Integer> item : quantities.entrySet()) {
+            Optional<StockReservation> reservation = reserve(item.getKey(), item.getValue());
+            if (!reservation.isPresent()) {
+                return Optional.empty();
+            }
+            reservations.put(item.getKey(), reservation.get());
+        }
+        return Optional.of(reservations);
+    }
+}
@@ -0,0 +1,76 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookFingerprint;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Types;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Component
+public class BookBatchWriter {
+    private static final String INSERT_SQL = "insert into books (name, author_name, amount, currency, image_url, " +
+            "small_image_url, books_count, isbn13, isbn, original_publication_year, original_title, language_code, " +
+            "average_rating, content_fingerprint) values (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final int[] INSERT_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR,
+            Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+            Types.VARCHAR, Types.NUMERIC, Types.VARCHAR};
+    private static final String UPDATE_SQL = "update books set author_name = ?, name = ?, amount = ?, " +
+            "books_count = books_count + ?, original_publication_year = ?, image_url = ?, small_image_url = ?, " +
+            "language_code = ?, original_title = ?, average_rating = ?, content_fingerprint = ? where id = ?";
+    private static final int[] UPDATE_TYPES = {Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.NUMERIC,
+            Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.NUMERIC, Types.VARCHAR,
+            Types.BIGINT};
+    private static final String INCREMENT_COUNT_SQL = "update books set books_count = books_count + ? where id = ?";
+    private static final int[] INCREMENT_COUNT_TYPES = {Types.NUMERIC, Types.BIGINT};
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+
+    @Autowired
+    public BookBatchWriter(JdbcTemplate jdbcTemplate, @Value("${books.load.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+    }
+
+    public void insert(List<Book> books) {
+        List<Object[]> rows = books.stream()
+                .map(book -> new Object[]{book.getName(), book.getAuthorName(), book.getAmount(), "INR",
+                        book.getImageUrl(), book.getSmallImageUrl(), book.getBooksCount(), book.getIsbn13(),
+                        book.getIsbn(), book.getOriginalPublicationYear(), book.getOriginalTitle(),
+                        book.getLanguageCode(), book.getAverageRating(), book.getContentFingerprint()})
+                .collect(Collectors.toList());
+        executeInBatches(INSERT_SQL, rows, INSERT_TYPES);
+    }
+
+    public void update(List<BookUpdate> updates) {
+        List<Object[]> rows = updates.stream()
+                .map(update -> {
+                    BookInformation book = update.getBook();
+                    return new Object[]{book.getAuthorName(), book.getName(), book.getAmount(), book.getBooksCount(),
+                            book.getOriginalPublicationYear(), book.getImageUrl(), book.getSmallImageUrl(),
+                            book.getLanguageCode(), book.getOriginalTitle(), book.getAverageRating(),
+                            BookFingerprint.of(book), update.getBookId()};
+                })
+                .collect(Collectors.toList());
+        executeInBatches(UPDATE_SQL, rows, UPDATE_TYPES);
+    }
+
+    public void incrementCounts(List<BookUpdate> updates) {
+        List<Object[]> rows = updates.stream()
+                .map(update -> new Object[]{update.getBook().getBooksCount(), update.getBookId()})
+                .collect(Collectors.toList());
+        executeInBatches(INCREMENT_COUNT_SQL, rows, INCREMENT_COUNT_TYPES);
+    }
+
+    private void executeInBatches(String sql, List<Object[]> rows, int[] types) {
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(from, Math.min(from + batchSize, rows.size())), types);
+        }
+    }
+}
@@ -0,0 +1,202 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.opencsv.CSVParser;
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BooksUpdatedEvent;
+import org.postgresql.PGConnection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Component
+public class BookCopyImporter {
+    private static final String STAGING_TABLE = "book_import";
+    private static final int RELOAD_PAGE_SIZE = 1000;
+
+    private static final String NORMALISE_SQL = "update " + STAGING_TABLE + " set name = trim(name), " +
+            "author_name = trim(author_name), isbn = coalesce(trim(isbn), ''), isbn13 = coalesce(trim(isbn13), '')";
+    private static final String VALIDATE_SQL = "update " + STAGING_TABLE + " set valid = false where " +
+            "(isbn = '' and isbn13 = '') " +
+            "or coalesce(name, '') = '' or length(name) > 255 " +
+            "or coalesce(author_name, '') = '' or length(author_name) > 255 " +
+            "or coalesce(amount, '') !~ '^\\s*-?[0-9]+(\\.[0-9]+)?\\s*$' " +
+            "or coalesce(books_count, '') !~ '^\\s*-?[0-9]+\\s*$' " +
+            "or coalesce(average_rating, '') !~ '^\\s*(-?[0-9]+(\\.[0-9]+)?)?\\s*$'";
+    private static final String AMBIGUOUS_ISBN_SQL = "update " + STAGING_TABLE + " set valid = false where valid " +
+            "and isbn13 = '' and (select count(*) from books where books.isbn = " + STAGING_TABLE + ".isbn) > 1";
+    private static final String MATCH_ISBN_SQL = "update " + STAGING_TABLE + " set isbn13 = books.isbn13 from books " +
+            "where " + STAGING_TABLE + ".valid and " + STAGING_TABLE + ".isbn13 = '' " +
+            "and books.isbn = " + STAGING_TABLE + ".isbn and books.isbn13 <> ''";
+    private static final String CONTENT_CHANGED = "(books.name, books.author_name, books.amount, books.image_url, " +
+            "books.small_image_url, books.original_publication_year, books.original_title, books.language_code, " +
+            "books.average_rating) is distinct from (excluded.name, excluded.author_name, excluded.amount, " +
+            "excluded.image_url, excluded.small_image_url, excluded.original_publication_year, excluded.original_title, " +
+            "excluded.language_code, excluded.average_rating)";
+    private static final String UPSERT_SQL = "with latest as (select *, " +
+            "row_number() over (partition by %1$s order by line_number desc) as recency, " +
+            "sum(books_count::numeric) over (partition by %1$s) as total_count " +
+            "from " + STAGING_TABLE + " where valid and %2$s) " +
+            "insert into books (name, author_name, amount, currency, image_url, small_image_url, books_count, isbn13, " +
+            "isbn, original_publication_year, original_title, language_code, average_rating) " +
+            "select name, author_name, amount::numeric, 'INR', image_url, small_image_url, total_count, isbn13, isbn, " +
+            "original_publication_year, original_title, language_code, nullif(trim(average_rating), '')::numeric " +
+            "from latest where recency = 1 " +
+            "on conflict (%1$s) where %2$s do update set author_name = excluded.author_name, name = excluded.name, " +
+            "amount = excluded.amount, books_count = books.books_count + excluded.books_count, " +
+            "original_publication_year = excluded.original_publication_year, image_url = excluded.image_url, " +
+            "small_image_url = excluded.small_image_url, language_code = excluded.language_code, " +
+            "original_title = excluded.original_title, average_rating = excluded.average_rating, " +
+            "content_fingerprint = case when " + CONTENT_CHANGED + " then null else books.content_fingerprint end " +
+            "where " + CONTENT_CHANGED + " or excluded.books_count <> 0 " +
+            "returning id";
+    private static final String UPSERT_BY_ISBN13_SQL = String.format(UPSERT_SQL, "isbn13", "isbn13 <> ''");
+    private static final String UPSERT_BY_ISBN_SQL = String.format(UPSERT_SQL, "isbn", "isbn13 = ''");
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final BookRepository bookRepository;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookLoadThrottle loadThrottle;
+    private volatile Boolean supported;
+
+    @Autowired
+    public BookCopyImporter(JdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+                            BookRepository bookRepository, ApplicationEventPublisher eventPublisher,
+                            BookLoadThrottle loadThrottle) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookRepository = bookRepository;
+        this.eventPublisher = eventPublisher;
+        this.loadThrottle = loadThrottle;
+    }
+
+    public boolean isSupported() {
+        if (supported == null) {
+            supported = jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+                DatabaseMetaData metaData = connection.getMetaData();
+                return "PostgreSQL".equals(metaData.getDatabaseProductName()) && connection.isWrapperFor(PGConnection.class);
+            });
+        }
+        return supported;
+    }
+
+    public void importCsv(BufferedReader reader, BookCsvProfile profile, FailedBooksFile failedBooks) throws IOException {
+        String header = reader.readLine();
+        if (header == null) {
+            return;
+        }
+        List<String> columns = copyColumns(new CSVParser().parseLine(header), profile);
+
+        List<Long> bookIds = loadThrottle.write(() -> transactionTemplate.execute(status -> {
+            createStagingTable(columns);
+            copyIn(columns, reader);
+            jdbcTemplate.update(NORMALISE_SQL);
+            jdbcTemplate.update(VALIDATE_SQL);
+            jdbcTemplate.update(AMBIGUOUS_ISBN_SQL);
+            jdbcTemplate.update(MATCH_ISBN_SQL);
+
+            List<Long> ids = new ArrayList<>(jdbcTemplate.queryForList(UPSERT_BY_ISBN13_SQL, Long.class));
+            ids.addAll(jdbcTemplate.queryForList(UPSERT_BY_ISBN_SQL, Long.class));
+            jdbcTemplate.query("select * from " + STAGING_TABLE + " where not valid order by line_number", (RowCallbackHandler) resultSet -> {
+                try {
+                    failedBooks.add(toBookInformation(resultSet));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            return ids;
+        }));
+
+        for (int from = 0; from < bookIds.size(); from += RELOAD_PAGE_SIZE) {
+            List<Book> books = bookRepository.findAllById(bookIds.subList(from, Math.min(from + RELOAD_PAGE_SIZE, bookIds.size())));
+            eventPublisher.publishEvent(new BooksUpdatedEvent(books));
+        }
+    }
+
+    static List<String> copyColumns(String[] header, BookCsvProfile profile) {
+        BookCsvBinding binding = new BookCsvBinding(header, profile == null ? BookCsvProfile.detect(header) : profile);
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i < header.length; i++) {
+            BookCsvField field = binding.fieldAt(i);
+            columns.add(field == null ? "ignored_" + i : field.getColumn());
+        }
+        return columns;
+    }
+
+    private void createStagingTable(List<String> copyColumns) {
+        Set<String> columns = new LinkedHashSet<>(copyColumns);
+        Arrays.stream(BookCsvField.values()).map(BookCsvField::getColumn).forEach(columns::add);
+        jdbcTemplate.execute("create temporary table " + STAGING_TABLE + " (line_number bigserial, " +
+                columns.stream().map(column -> column + " text").collect(Collectors.joining(", ")) +
+                ", valid boolean not null default true) on commit drop");
+    }
+
+    private void copyIn(List<String> copyColumns, BufferedReader reader) {
+        String sql = "copy " + STAGING_TABLE + " (" + String.join(", ", copyColumns) + ") from stdin with (format csv)";
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            try {
+                return connection.unwrap(PGConnection.class).getCopyAPI().copyIn(sql, reader);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+    }
+
+    private BookInformation toBookInformation(ResultSet row) throws SQLException {
+        return BookInformation.builder()
+                .id(parseLong(row.getString("id")))
+                .name(row.getString("name"))
+                .authorName(row.getString("author_name"))
+                .amount(parseDouble(row.getString("amount")))
+                .imageUrl(row.getString("image_url"))
+                .smallImageUrl(row.getString("small_image_url"))
+                .booksCount(parseInteger(row.getString("books_count")))
+                .isbn13(row.getString("isbn13"))
+                .isbn(row.getString("isbn"))
+                .originalPublicationYear(row.getString("original_publication_year"))
+                .originalTitle(row.getString("original_title"))
+                .languageCode(row.getString("language_code"))
+                .averageRating(parseDouble(row.getString("average_rating")))
+                .build();
+    }
+
+    private static Long parseLong(String value) {
+        try {
+            return value == null ? null : Long.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Integer parseInteger(String value) {
+        try {
+            return value == null ? null : Integer.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    private static Double parseDouble(String value) {
+        try {
+            return value == null ? null : Double.valueOf(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.opencsv.CSVReader;
+import com.opencsv.exceptions.CsvValidationException;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+public class BookCsv {
+    private BookCsv() {
+    }
+
+    public static Iterator<BookInformation> rows(Reader reader, BookCsvProfile profile) {
+        CSVReader csvReader = new CSVReader(reader);
+        String[] header = readNext(csvReader);
+        if (header == null) {
+            return Collections.emptyIterator();
+        }
+        BookCsvBinding binding = new BookCsvBinding(header, profile == null ? BookCsvProfile.detect(header) : profile);
+        return new Iterator<BookInformation>() {
+            private String[] next = nextRow();
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public BookInformation next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                BookInformation book = binding.bind(next);
+                next = nextRow();
+                return book;
+            }
+
+            private String[] nextRow() {
+                String[] row = readNext(csvReader);
+                while (row != null && row.length == 1 && row[0].isEmpty()) {
+                    row = readNext(csvReader);
+                }
+                return row;
+            }
+        };
+    }
+
+    private static String[] readNext(CSVReader csvReader) {
+        try {
+            return csvReader.readNext();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (CsvValidationException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
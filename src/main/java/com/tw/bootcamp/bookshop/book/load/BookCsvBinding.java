@@ -0,0 +1,35 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.BookInformation;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+class BookCsvBinding {
+    private final BookCsvField[] fieldsByIndex;
+
+    BookCsvBinding(String[] header, BookCsvProfile profile) {
+        this.fieldsByIndex = new BookCsvField[header.length];
+        Set<BookCsvField> bound = EnumSet.noneOf(BookCsvField.class);
+        for (int i = 0; i < header.length; i++) {
+            BookCsvField field = profile.fieldOf(header[i]);
+            if (field != null && bound.add(field)) {
+                fieldsByIndex[i] = field;
+            }
+        }
+    }
+
+    BookCsvField fieldAt(int index) {
+        return fieldsByIndex[index];
+    }
+
+    BookInformation bind(String[] row) {
+        BookInformation.BookInformationBuilder book = BookInformation.builder();
+        for (int i = 0; i < fieldsByIndex.length && i < row.length; i++) {
+            if (fieldsByIndex[i] != null) {
+                fieldsByIndex[i].bind(book, row[i]);
+            }
+        }
+        return book.build();
+    }
+}
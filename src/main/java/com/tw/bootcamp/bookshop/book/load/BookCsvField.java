@@ -0,0 +1,50 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.BookInformation.BookInformationBuilder;
+
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+public enum BookCsvField {
+    ID("id", (book, value) -> book.id(parse(book, value, Long::valueOf))),
+    NAME("name", BookInformationBuilder::name),
+    AUTHOR_NAME("author_name", BookInformationBuilder::authorName),
+    AMOUNT("amount", (book, value) -> book.amount(parse(book, value, Double::valueOf))),
+    IMAGE_URL("image_url", BookInformationBuilder::imageUrl),
+    SMALL_IMAGE_URL("small_image_url", BookInformationBuilder::smallImageUrl),
+    BOOKS_COUNT("books_count", (book, value) -> book.booksCount(parse(book, value, Integer::valueOf))),
+    ISBN13("isbn13", BookInformationBuilder::isbn13),
+    ISBN("isbn", BookInformationBuilder::isbn),
+    ORIGINAL_PUBLICATION_YEAR("original_publication_year", BookInformationBuilder::originalPublicationYear),
+    ORIGINAL_TITLE("original_title", BookInformationBuilder::originalTitle),
+    LANGUAGE_CODE("language_code", BookInformationBuilder::languageCode),
+    AVERAGE_RATING("average_rating", (book, value) -> book.averageRating(parse(book, value, Double::valueOf)));
+
+    private final String column;
+    private final BiConsumer<BookInformationBuilder, String> binder;
+
+    BookCsvField(String column, BiConsumer<BookInformationBuilder, String> binder) {
+        this.column = column;
+        this.binder = binder;
+    }
+
+    public String getColumn() {
+        return column;
+    }
+
+    void bind(BookInformationBuilder book, String value) {
+        binder.accept(book, value);
+    }
+
+    private static <T> T parse(BookInformationBuilder book, String value, Function<String, T> parser) {
+        if (value == null || value.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return parser.apply(value.trim());
+        } catch (NumberFormatException e) {
+            book.malformed(true);
+            return null;
+        }
+    }
+}
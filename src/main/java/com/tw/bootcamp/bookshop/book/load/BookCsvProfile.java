@@ -0,0 +1,57 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+public enum BookCsvProfile {
+    STANDARD("title", "author", "small_image_url"),
+    SUPPLIER("name", "author_name", "small_image");
+
+    private final Map<String, BookCsvField> fields;
+
+    BookCsvProfile(String nameHeader, String authorNameHeader, String smallImageUrlHeader) {
+        Map<String, BookCsvField> fields = new HashMap<>();
+        fields.put("id", BookCsvField.ID);
+        fields.put(nameHeader, BookCsvField.NAME);
+        fields.put(authorNameHeader, BookCsvField.AUTHOR_NAME);
+        fields.put("price", BookCsvField.AMOUNT);
+        fields.put("image_url", BookCsvField.IMAGE_URL);
+        fields.put(smallImageUrlHeader, BookCsvField.SMALL_IMAGE_URL);
+        fields.put("books_count", BookCsvField.BOOKS_COUNT);
+        fields.put("isbn13", BookCsvField.ISBN13);
+        fields.put("isbn", BookCsvField.ISBN);
+        fields.put("original_publication_year", BookCsvField.ORIGINAL_PUBLICATION_YEAR);
+        fields.put("original_title", BookCsvField.ORIGINAL_TITLE);
+        fields.put("language_code", BookCsvField.LANGUAGE_CODE);
+        fields.put("average_rating", BookCsvField.AVERAGE_RATING);
+        this.fields = Collections.unmodifiableMap(fields);
+    }
+
+    public BookCsvField fieldOf(String header) {
+        return fields.get(normalise(header));
+    }
+
+    public static BookCsvProfile detect(String[] header) {
+        BookCsvProfile best = STANDARD;
+        long bestMatches = -1;
+        for (BookCsvProfile profile : values()) {
+            long matches = 0;
+            for (String column : header) {
+                if (profile.fieldOf(column) != null) {
+                    matches++;
+                }
+            }
+            if (matches > bestMatches) {
+                best = profile;
+                bestMatches = matches;
+            }
+        }
+        return best;
+    }
+
+    private static String normalise(String header) {
+        return header.replace("\uFEFF", "").trim().toLowerCase(Locale.ROOT);
+    }
+}
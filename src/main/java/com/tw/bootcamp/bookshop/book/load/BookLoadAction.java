@@ -0,0 +1,9 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+public enum BookLoadAction {
+    INSERT,
+    UPDATE,
+    STOCK,
+    UNCHANGED,
+    FAILED
+}
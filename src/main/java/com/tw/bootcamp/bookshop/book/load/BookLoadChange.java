@@ -0,0 +1,44 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookLoadChange {
+    @Schema(example = "UPDATE", description = "INSERT, UPDATE, STOCK, UNCHANGED or FAILED")
+    private final BookLoadAction action;
+    @Schema(example = "1", description = "Existing book the row would change")
+    private final Long bookId;
+    @Schema(example = "9780439023480")
+    private final String isbn13;
+    @Schema(example = "439023483")
+    private final String isbn;
+    @Schema(example = "The Hunger Games")
+    private final String name;
+    @Schema(example = "350.0", description = "Price of the existing book when the row changes it")
+    private final Double previousAmount;
+    @Schema(example = "399.0", description = "Price in the row")
+    private final Double amount;
+    @Schema(example = "5", description = "Copies the row would add to the stock")
+    private final Integer stockDelta;
+    @Schema(description = "The row that could not be loaded")
+    private final BookInformation book;
+
+    static BookLoadChange failed(BookInformation row) {
+        return BookLoadChange.builder()
+                .action(BookLoadAction.FAILED)
+                .book(row)
+                .build();
+    }
+
+    boolean isPriceChange() {
+        return previousAmount != null && !previousAmount.equals(amount);
+    }
+}
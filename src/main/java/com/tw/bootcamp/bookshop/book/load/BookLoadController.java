@@ -0,0 +1,141 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobRejectedException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import javax.servlet.http.HttpServletRequest;
+import java.io.IOException;
+
+@RestController
+public class BookLoadController {
+    private final BookLoadService bookLoadService;
+    private final BookLoadJobService bookLoadJobService;
+    private final DataSize syncMaxSize;
+
+    @Autowired
+    public BookLoadController(BookLoadService bookLoadService, BookLoadJobService bookLoadJobService,
+                              @Value("${books.load.jobs.sync-max-size:64MB}") DataSize syncMaxSize) {
+        this.bookLoadService = bookLoadService;
+        this.bookLoadJobService = bookLoadJobService;
+        this.syncMaxSize = syncMaxSize;
+    }
+
+    @PostMapping(value = "/admin/books/load", consumes = "multipart/form-data")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Load books from CSV file", description = "Loads all valid books from the uploaded CSV. Invalid books are returned as a response. " +
+            "The CSV may be uploaded gzip compressed, or as a zip archive of one or more CSV files. " +
+            "With dryRun nothing is written, a summary and the change each row would make are returned instead. " +
+            "Files larger than books.load.jobs.sync-max-size are loaded on a background job unless async is false, " +
+            "the job id is returned straight away and its progress and failed rows are fetched from the job. " +
+            "Invalid book refers to empty values for title, author_name, price, book_count. " +
+            "If both ISBN and ISBN13 are empty, or title, author_name, price, book_count are empty then the book is considered invalid.", tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books are loaded in Inventory",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseEntity.class))}),
+            @ApiResponse(responseCode = "202", description = "Load job is queued",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookLoadJobResponse.class))}),
+            @ApiResponse(responseCode = "503", description = "Too many load jobs are queued", content = @Content)
+    })
+    public ResponseEntity<?> loadBooks(@Parameter(description = "A CSV file with book details") @RequestParam("file") MultipartFile file,
+                                       @Parameter(description = "COPY streams the file into a staging table and merges it with one upsert. " +
+                                               "Only available on PostgreSQL, other databases load it the standard way.")
+                                       @RequestParam(defaultValue = "STANDARD") BookLoadMode mode,
+                                       @Parameter(description = "Column names of the CSV, detected from its header row when not given. " +
+                                               "STANDARD uses title, author and small_image_url, SUPPLIER uses name, author_name and small_image.")
+                                       @RequestParam(required = false) BookCsvProfile profile,
+                                       @Parameter(description = "Match and validate the rows without writing anything")
+                                       @RequestParam(defaultValue = "false") boolean dryRun,
+                                       @Parameter(description = "Load on a background job, the standard way. " +
+                                               "Defaults to true for STANDARD loads of files larger than books.load.jobs.sync-max-size.")
+                                       @RequestParam(required = false) Boolean async) throws IOException, BookLoadJobRejectedException {
+        if (file == null || !CsvUpload.isSupported(file.getContentType())) {
+            return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
+        }
+        if (dryRun) {
+            return diff(bookLoadService.preview(file.getInputStream(), file.getContentType(), profile));
+        }
+        if (runsInBackground(async, mode, file.getSize())) {
+            return queued(bookLoadJobService.submit(file, profile));
+        }
+        return loaded(bookLoadService.load(file.getInputStream(), file.getContentType(), mode, profile));
+    }
+
+    @PostMapping(value = "/admin/books/load",
+            consumes = {"text/csv", "application/gzip", "application/x-gzip", "application/zip", "application/x-zip-compressed"})
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Load books from CSV request body", description = "Same as the file upload, but the CSV, gzip or zip file " +
+            "is sent as the request body, so its size is not limited. Loads in the request read the body while it arrives, " +
+            "background jobs store it first. Use this for feeds of several gigabytes.", tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Books are loaded in Inventory",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = ResponseEntity.class))}),
+            @ApiResponse(responseCode = "202", description = "Load job is queued",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookLoadJobResponse.class))}),
+            @ApiResponse(responseCode = "415", content = @Content),
+            @ApiResponse(responseCode = "503", description = "Too many load jobs are queued", content = @Content)
+    })
+    public ResponseEntity<?> streamBooks(HttpServletRequest request,
+                                         @RequestParam(defaultValue = "STANDARD") BookLoadMode mode,
+                                         @RequestParam(required = false) BookCsvProfile profile,
+                                         @RequestParam(defaultValue = "false") boolean dryRun,
+                                         @RequestParam(required = false) Boolean async) throws IOException, BookLoadJobRejectedException {
+        if (dryRun) {
+            return diff(bookLoadService.preview(request.getInputStream(), request.getContentType(), profile));
+        }
+        if (runsInBackground(async, mode, request.getContentLengthLong())) {
+            return queued(bookLoadJobService.submit(request.getInputStream(), null, request.getContentType(), profile));
+        }
+        return loaded(bookLoadService.load(request.getInputStream(), request.getContentType(), mode, profile));
+    }
+
+    private boolean runsInBackground(Boolean async, BookLoadMode mode, long size) {
+        if (async != null) {
+            return async;
+        }
+        return mode == BookLoadMode.STANDARD && (size < 0 || size > syncMaxSize.toBytes());
+    }
+
+    private ResponseEntity<BookLoadJobResponse> queued(BookLoadJob job) {
+        return ResponseEntity.accepted()
+                .location(ServletUriComponentsBuilder.fromCurrentRequestUri().path("/{jobId}").buildAndExpand(job.getId()).toUri())
+                .body(job.toResponse(job.getCreatedAt()));
+    }
+
+    private ResponseEntity<Resource> loaded(Resource failedBooks) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(failedBooks);
+    }
+
+    private ResponseEntity<Resource> diff(Resource diff) {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.builder("attachment")
+                        .filename("book-load-diff.json").build().toString())
+                .body(diff);
+    }
+}
@@ -0,0 +1,56 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class BookLoadDiffFile implements Closeable {
+    private final Path path;
+    private final JsonGenerator generator;
+    private final BookLoadDiffSummary summary = new BookLoadDiffSummary();
+    private boolean handedOver;
+
+    public BookLoadDiffFile(ObjectMapper objectMapper) throws IOException {
+        this.path = Files.createTempFile("book-load-diff", ".json");
+        this.generator = objectMapper.getFactory().createGenerator(Files.newOutputStream(path));
+        generator.writeStartObject();
+        generator.writeArrayFieldStart("changes");
+    }
+
+    public void addAll(List<BookLoadChange> changes) throws IOException {
+        for (BookLoadChange change : changes) {
+            generator.writeObject(change);
+            summary.record(change);
+        }
+    }
+
+    public BookLoadDiffSummary getSummary() {
+        return summary;
+    }
+
+    public Resource toResource() throws IOException {
+        generator.writeEndArray();
+        generator.writeObjectField("summary", summary);
+        generator.writeEndObject();
+        generator.close();
+        Resource resource = new InputStreamResource(Files.newInputStream(path, StandardOpenOption.DELETE_ON_CLOSE));
+        handedOver = true;
+        return resource;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!handedOver) {
+            generator.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+
+@Getter
+public class BookLoadDiffSummary {
+    @Schema(example = "100000", description = "Rows read from the file")
+    private long rows;
+    @Schema(example = "30000", description = "Rows that would add new books")
+    private long inserted;
+    @Schema(example = "1900", description = "Rows that would change the content of existing books")
+    private long updated;
+    @Schema(example = "250", description = "Rows that would change the price of existing books")
+    private long priceChanges;
+    @Schema(example = "10000", description = "Rows matching the content of existing books, only their count would be added")
+    private long unchanged;
+    @Schema(example = "420000", description = "Copies the load would add to the stock")
+    private long stockDelta;
+    @Schema(example = "100", description = "Rows that could not be loaded")
+    private long failed;
+
+    void record(BookLoadChange change) {
+        rows++;
+        switch (change.getAction()) {
+            case INSERT:
+                inserted++;
+                break;
+            case UPDATE:
+                updated++;
+                break;
+            case STOCK:
+            case UNCHANGED:
+                unchanged++;
+                break;
+            case FAILED:
+                failed++;
+                return;
+        }
+        if (change.isPriceChange()) {
+            priceChanges++;
+        }
+        stockDelta += change.getStockDelta();
+    }
+}
@@ -0,0 +1,136 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.util.Date;
+
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+@Entity
+@Table(name = "book_load_jobs")
+public class BookLoadJob {
+    @Id
+    private String id;
+
+    private String fileName;
+
+    private String contentType;
+
+    @Enumerated(EnumType.STRING)
+    private BookCsvProfile csvProfile;
+
+    @Enumerated(EnumType.STRING)
+    private BookLoadJobStatus status;
+
+    private long estimatedRows;
+
+    private long rowsRead;
+
+    private long rowsInserted;
+
+    private long rowsUpdated;
+
+    private long rowsUnchanged;
+
+    private long rowsFailed;
+
+    private long rowsAtStart;
+
+    @Column(columnDefinition = "timestamp")
+    private Date createdAt;
+
+    @Column(columnDefinition = "timestamp")
+    private Date startedAt;
+
+    @Column(columnDefinition = "timestamp")
+    private Date finishedAt;
+
+    private String errorMessage;
+
+    public static BookLoadJob queued(String id, String fileName, String contentType, BookCsvProfile csvProfile, Date now) {
+        return BookLoadJob.builder()
+                .id(id)
+                .fileName(fileName)
+                .contentType(contentType)
+                .csvProfile(csvProfile)
+                .status(BookLoadJobStatus.QUEUED)
+                .createdAt(now)
+                .build();
+    }
+
+    public boolean isFinished() {
+        return status == BookLoadJobStatus.COMPLETED || status == BookLoadJobStatus.FAILED;
+    }
+
+    public void start(Date now) {
+        status = BookLoadJobStatus.RUNNING;
+        startedAt = now;
+        rowsAtStart = rowsRead;
+    }
+
+    public boolean isEstimated() {
+        return estimatedRows > 0;
+    }
+
+    public void estimate(long rows) {
+        estimatedRows = rows;
+    }
+
+    public void recordChunk(int rows, BookLoadResult result, int failed) {
+        rowsRead += rows;
+        rowsInserted += result.getInserted();
+        rowsUpdated += result.getUpdated();
+        rowsUnchanged += result.getUnchanged();
+        rowsFailed += failed;
+    }
+
+    public void complete(Date now) {
+        status = BookLoadJobStatus.COMPLETED;
+        finishedAt = now;
+    }
+
+    public void fail(Date now, String errorMessage) {
+        status = BookLoadJobStatus.FAILED;
+        finishedAt = now;
+        this.errorMessage = errorMessage;
+    }
+
+    public BookLoadJobResponse toResponse(Date now) {
+        Double rowsPerSecond = rowsPerSecond(now);
+        Long etaSeconds = null;
+        if (status == BookLoadJobStatus.RUNNING && isEstimated() && rowsPerSecond != null && rowsPerSecond > 0) {
+            etaSeconds = Math.round(Math.max(0, estimatedRows - rowsRead) / rowsPerSecond);
+        }
+        return BookLoadJobResponse.builder()
+                .id(id)
+                .fileName(fileName)
+                .status(status)
+                .estimatedRows(estimatedRows)
+                .rowsRead(rowsRead)
+                .inserted(rowsInserted)
+                .updated(rowsUpdated)
+                .unchanged(rowsUnchanged)
+                .failed(rowsFailed)
+                .rowsPerSecond(rowsPerSecond)
+                .etaSeconds(etaSeconds)
+                .createdAt(createdAt)
+                .finishedAt(finishedAt)
+                .errorMessage(errorMessage)
+                .build();
+    }
+
+    private Double rowsPerSecond(Date now) {
+        if (startedAt == null) {
+            return null;
+        }
+        Date until = finishedAt == null ? now : finishedAt;
+        long elapsedMillis = Math.max(1, until.getTime() - startedAt.getTime());
+        return (rowsRead - rowsAtStart) * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,76 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobNotFoundException;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+@RestController
+public class BookLoadJobController {
+    private final BookLoadJobService bookLoadJobService;
+    private final ObjectMapper objectMapper;
+
+    @Autowired
+    public BookLoadJobController(BookLoadJobService bookLoadJobService, ObjectMapper objectMapper) {
+        this.bookLoadJobService = bookLoadJobService;
+        this.objectMapper = objectMapper;
+    }
+
+    @GetMapping("/admin/books/load/{jobId}")
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Show progress of a book load job", description = "Rows read, inserted, updated and failed so far, " +
+            "with the current rate and the estimated time left.", tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Progress of the load job",
+                    content = {@Content(mediaType = "application/json",
+                            schema = @Schema(implementation = BookLoadJobResponse.class))}),
+            @ApiResponse(responseCode = "404", content = @Content)
+    })
+    public BookLoadJobResponse fetch(@Parameter(description = "Identifier of the load job") @PathVariable String jobId)
+            throws BookLoadJobNotFoundException {
+        return bookLoadJobService.fetch(jobId);
+    }
+
+    @GetMapping(value = "/admin/books/load/{jobId}/failed-books", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('ROLE_ADMIN')")
+    @Operation(summary = "Download rows a book load job could not load", description = "Streams the failed rows committed so far " +
+            "as a JSON array in the order they appear in the file.", tags = {"Books Service"})
+    @ApiResponses(value = {
+            @ApiResponse(responseCode = "200", description = "Failed rows of the load job"),
+            @ApiResponse(responseCode = "404", content = @Content)
+    })
+    public ResponseEntity<StreamingResponseBody> failedBooks(@Parameter(description = "Identifier of the load job") @PathVariable String jobId)
+            throws BookLoadJobNotFoundException {
+        bookLoadJobService.fetch(jobId);
+        StreamingResponseBody body = outputStream -> {
+            try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+                generator.writeStartArray();
+                bookLoadJobService.exportFailedBooks(jobId, book -> {
+                    try {
+                        generator.writeRawValue(book);
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                generator.writeEndArray();
+            } catch (BookLoadJobNotFoundException e) {
+                throw new IllegalStateException(e);
+            }
+        };
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+}
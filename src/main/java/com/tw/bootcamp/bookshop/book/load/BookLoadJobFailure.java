@@ -0,0 +1,27 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+@Getter
+@AllArgsConstructor
+@Builder
+@NoArgsConstructor
+@Entity
+@Table(name = "book_load_job_failures")
+public class BookLoadJobFailure {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String jobId;
+
+    private long rowIndex;
+
+    @Column(columnDefinition = "varchar")
+    private String book;
+}
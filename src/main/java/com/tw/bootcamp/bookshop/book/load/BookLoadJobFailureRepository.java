@@ -0,0 +1,17 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.QueryHint;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
+
+@Repository
+public interface BookLoadJobFailureRepository extends JpaRepository<BookLoadJobFailure, Long> {
+    @QueryHints({@QueryHint(name = HINT_FETCH_SIZE, value = "500"), @QueryHint(name = HINT_READONLY, value = "true")})
+    Stream<BookLoadJobFailure> streamByJobIdOrderByRowIndexAsc(String jobId);
+}
@@ -0,0 +1,12 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface BookLoadJobRepository extends JpaRepository<BookLoadJob, String> {
+    List<BookLoadJob> findByStatusInOrderByCreatedAtAsc(Collection<BookLoadJobStatus> statuses);
+}
@@ -0,0 +1,42 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+
+import java.util.Date;
+
+@Getter
+@Builder
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BookLoadJobResponse {
+    @Schema(example = "5f0c6c1e-8d3a-4b7e-9f43-2f1b7d1e9a10", description = "Identifier of the load job")
+    private final String id;
+    @Schema(example = "books.csv", description = "Name of the uploaded file")
+    private final String fileName;
+    @Schema(example = "RUNNING", description = "QUEUED, RUNNING, COMPLETED or FAILED")
+    private final BookLoadJobStatus status;
+    @Schema(example = "100000", description = "Number of rows in the file, estimated from its line count once the job starts, 0 until then")
+    private final long estimatedRows;
+    @Schema(example = "42000", description = "Rows read and committed so far")
+    private final long rowsRead;
+    @Schema(example = "30000", description = "Rows that added new books")
+    private final long inserted;
+    @Schema(example = "1900", description = "Rows that changed the content of existing books")
+    private final long updated;
+    @Schema(example = "10000", description = "Rows matching the content of existing books, only their count is added")
+    private final long unchanged;
+    @Schema(example = "100", description = "Rows that could not be loaded")
+    private final long failed;
+    @Schema(example = "2500.0", description = "Rows loaded per second since the job (re)started")
+    private final Double rowsPerSecond;
+    @Schema(example = "23", description = "Estimated seconds until the job completes")
+    private final Long etaSeconds;
+    private final Date createdAt;
+    private final Date finishedAt;
+    @Schema(description = "Why the job failed")
+    private final String errorMessage;
+}
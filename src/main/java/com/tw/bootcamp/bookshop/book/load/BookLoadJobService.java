@@ -0,0 +1,267 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobNotFoundException;
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobRejectedException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
+
+import javax.annotation.PreDestroy;
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class BookLoadJobService {
+    private static final String UPLOAD_SUFFIX = ".upload";
+
+    private final BookLoadJobRepository jobRepository;
+    private final BookLoadJobFailureRepository failureRepository;
+    private final BookLoader bookLoader;
+    private final ObjectMapper objectMapper;
+    private final BookLoadPipeline loadPipeline;
+    private final ThreadPoolExecutor jobExecutor;
+    private final Path jobDirectory;
+    private final int chunkSize;
+    private final Clock clock = Clock.systemUTC();
+    private final Instant startedAt = clock.instant();
+
+    @Autowired
+    public BookLoadJobService(BookLoadJobRepository jobRepository, BookLoadJobFailureRepository failureRepository,
+                              BookLoader bookLoader, ObjectMapper objectMapper, BookLoadThrottle loadThrottle, Validator validator,
+                              @Value("${books.load.jobs.directory:${java.io.tmpdir}/book-load-jobs}") String jobDirectory,
+                              @Value("${books.load.jobs.concurrency:1}") int concurrency,
+                              @Value("${books.load.jobs.queue-capacity:10}") int queueCapacity,
+                              @Value("${books.load.chunk-size:1000}") int chunkSize,
+                              @Value("${books.load.workers:4}") int workers) {
+        this.jobRepository = jobRepository;
+        this.failureRepository = failureRepository;
+        this.bookLoader = bookLoader;
+        this.objectMapper = objectMapper;
+        this.loadPipeline = new BookLoadPipeline(loadThrottle.getExecutor(), new BookRowValidator(validator), workers);
+        this.jobExecutor = new ThreadPoolExecutor(concurrency, concurrency, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity));
+        this.jobDirectory = Paths.get(jobDirectory).toAbsolutePath();
+        this.chunkSize = chunkSize;
+    }
+
+    public BookLoadJob submit(MultipartFile file, BookCsvProfile profile) throws IOException, BookLoadJobRejectedException {
+        String id = UUID.randomUUID().toString();
+        Path upload = uploadOf(id);
+        Files.createDirectories(jobDirectory);
+        try {
+            file.transferTo(upload);
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        return queue(id, file.getOriginalFilename(), file.getContentType(), profile);
+    }
+
+    public BookLoadJob submit(InputStream inputStream, String fileName, String contentType, BookCsvProfile profile)
+            throws IOException, BookLoadJobRejectedException {
+        String id = UUID.randomUUID().toString();
+        Path upload = uploadOf(id);
+        Files.createDirectories(jobDirectory);
+        try {
+            Files.copy(inputStream, upload);
+        } catch (IOException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        return queue(id, fileName, contentType, profile);
+    }
+
+    private BookLoadJob queue(String id, String fileName, String contentType, BookCsvProfile profile)
+            throws IOException, BookLoadJobRejectedException {
+        Path upload = uploadOf(id);
+        BookLoadJob job;
+        try {
+            job = jobRepository.save(BookLoadJob.queued(id, fileName, contentType, profile, now()));
+        } catch (RuntimeException e) {
+            Files.deleteIfExists(upload);
+            throw e;
+        }
+        try {
+            jobExecutor.execute(() -> run(id));
+        } catch (RejectedExecutionException e) {
+            jobRepository.delete(job);
+            Files.deleteIfExists(upload);
+            throw new BookLoadJobRejectedException();
+        }
+        return job;
+    }
+
+    public BookLoadJobResponse fetch(String id) throws BookLoadJobNotFoundException {
+        return jobRepository.findById(id)
+                .orElseThrow(BookLoadJobNotFoundException::new)
+                .toResponse(now());
+    }
+
+    @Transactional(readOnly = true)
+    public void exportFailedBooks(String id, Consumer<String> consumer) throws BookLoadJobNotFoundException {
+        if (!jobRepository.existsById(id)) {
+            throw new BookLoadJobNotFoundException();
+        }
+        try (Stream<BookLoadJobFailure> failures = failureRepository.streamByJobIdOrderByRowIndexAsc(id)) {
+            failures.forEach(failure -> consumer.accept(failure.getBook()));
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeUnfinishedJobs() {
+        List<BookLoadJob> unfinished = jobRepository.findByStatusInOrderByCreatedAtAsc(
+                Arrays.asList(BookLoadJobStatus.QUEUED, BookLoadJobStatus.RUNNING));
+        deleteAbandonedUploads(unfinished.stream().map(BookLoadJob::getId).collect(Collectors.toSet()));
+        unfinished.forEach(job -> {
+            try {
+                jobExecutor.execute(() -> run(job.getId()));
+            } catch (RejectedExecutionException e) {
+                // stays queued and is picked up again on the next start
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobExecutor.shutdownNow();
+    }
+
+    void run(String id) {
+        BookLoadJob job = jobRepository.findById(id).orElse(null);
+        if (job == null || job.isFinished()) {
+            return;
+        }
+        job.start(now());
+        jobRepository.save(job);
+
+        Path upload = uploadOf(id);
+        try {
+            if (!job.isEstimated()) {
+                job.estimate(estimateRows(upload, job.getContentType()));
+                jobRepository.save(job);
+            }
+            try (CsvUpload csvUpload = CsvUpload.open(Files.newInputStream(upload), job.getContentType())) {
+                Iterator<BookInformation> rows = csvUpload.rows(job.getCsvProfile());
+                for (long skipped = 0; skipped < job.getRowsRead() && rows.hasNext(); skipped++) {
+                    rows.next();
+                }
+                loadPipeline.run(new ChunkedIterator<>(rows, chunkSize),
+                        chunk -> bookLoader.load(chunk.getValid(), result -> recordChunk(id, chunk, result)));
+            }
+            finish(id, null);
+        } catch (Exception e) {
+            finish(id, e.getMessage() == null ? e.getClass().getSimpleName() : e.getMessage());
+        }
+        deleteUpload(upload);
+    }
+
+    private void recordChunk(String id, ValidatedChunk chunk, BookLoadResult result) {
+        BookLoadJob job = jobRepository.findById(id).orElseThrow(IllegalStateException::new);
+        long firstRowIndex = job.getRowsRead() + 1;
+        List<BookLoadJobFailure> failures = chunk.failedInFileOrder(result.getFailedBooks()).stream()
+                .map(row -> BookLoadJobFailure.builder()
+                        .jobId(id)
+                        .rowIndex(firstRowIndex + chunk.positionOf(row))
+                        .book(toJson(row))
+                        .build())
+                .collect(Collectors.toList());
+        failureRepository.saveAll(failures);
+        job.recordChunk(chunk.size(), result, failures.size());
+        jobRepository.save(job);
+    }
+
+    private void finish(String id, String errorMessage) {
+        jobRepository.findById(id).ifPresent(job -> {
+            if (errorMessage == null) {
+                job.complete(now());
+            } else {
+                job.fail(now(), errorMessage);
+            }
+            jobRepository.save(job);
+        });
+    }
+
+    private String toJson(BookInformation row) {
+        try {
+            return objectMapper.writeValueAsString(row);
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private long estimateRows(Path upload, String contentType) throws IOException {
+        long rows = 0;
+        char[] buffer = new char[64 * 1024];
+        try (CsvUpload csvUpload = CsvUpload.open(Files.newInputStream(upload), contentType)) {
+            Iterator<BufferedReader> readers = csvUpload.readers();
+            while (readers.hasNext()) {
+                Reader reader = readers.next();
+                long lines = 0;
+                int read;
+                while ((read = reader.read(buffer)) != -1) {
+                    for (int i = 0; i < read; i++) {
+                        if (buffer[i] == '\n') {
+                            lines++;
+                        }
+                    }
+                }
+                rows += Math.max(0, lines - 1);
+            }
+        }
+        return rows;
+    }
+
+    private void deleteAbandonedUploads(Set<String> unfinishedIds) {
+        if (!Files.isDirectory(jobDirectory)) {
+            return;
+        }
+        try (DirectoryStream<Path> uploads = Files.newDirectoryStream(jobDirectory, "*" + UPLOAD_SUFFIX)) {
+            for (Path upload : uploads) {
+                String id = upload.getFileName().toString().replace(UPLOAD_SUFFIX, "");
+                if (!unfinishedIds.contains(id) && Files.getLastModifiedTime(upload).toInstant().isBefore(startedAt)) {
+                    deleteUpload(upload);
+                }
+            }
+        } catch (IOException e) {
+            // swept again on the next start
+        }
+    }
+
+    private void deleteUpload(Path upload) {
+        try {
+            Files.deleteIfExists(upload);
+        } catch (IOException e) {
+            // swept on the next start
+        }
+    }
+
+    private Path uploadOf(String id) {
+        return jobDirectory.resolve(id + UPLOAD_SUFFIX);
+    }
+
+    private Date now() {
+        return Date.from(clock.instant());
+    }
+}
@@ -0,0 +1,5 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+public enum BookLoadJobStatus {
+    QUEUED, RUNNING, COMPLETED, FAILED
+}
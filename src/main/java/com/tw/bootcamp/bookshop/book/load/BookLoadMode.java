@@ -0,0 +1,5 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+public enum BookLoadMode {
+    STANDARD, COPY
+}
@@ -0,0 +1,83 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.BookInformation;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+
+public class BookLoadPipeline {
+    private final Executor executor;
+    private final BookRowValidator validator;
+    private final int workers;
+
+    public BookLoadPipeline(Executor executor, BookRowValidator validator, int workers) {
+        if (workers < 1) {
+            throw new IllegalArgumentException("Workers must be positive");
+        }
+        this.executor = executor;
+        this.validator = validator;
+        this.workers = workers;
+    }
+
+    public void run(Iterator<List<BookInformation>> chunks,
+                    Function<List<BookInformation>, List<BookInformation>> writer,
+                    FailedBooksFile failedBooks) throws IOException {
+        run(chunks, chunk -> {
+            List<BookInformation> failedByWriter = chunk.getValid().isEmpty()
+                    ? Collections.emptyList() : writer.apply(chunk.getValid());
+            failedBooks.addAll(chunk.failedInFileOrder(failedByWriter));
+        });
+    }
+
+    public void run(Iterator<List<BookInformation>> chunks, ChunkWriter<ValidatedChunk> writer) throws IOException {
+        runPrepared(chunks, Function.identity(), writer);
+    }
+
+    public <T> void runPrepared(Iterator<List<BookInformation>> chunks, Function<ValidatedChunk, T> prepare,
+                                ChunkWriter<T> writer) throws IOException {
+        Deque<CompletableFuture<T>> inFlight = new ArrayDeque<>();
+        try {
+            while (chunks.hasNext()) {
+                List<BookInformation> chunk = chunks.next();
+                inFlight.addLast(CompletableFuture.supplyAsync(() -> prepare.apply(validate(chunk)), executor));
+                if (inFlight.size() >= workers) {
+                    writer.write(await(inFlight.removeFirst()));
+                }
+            }
+            while (!inFlight.isEmpty()) {
+                writer.write(await(inFlight.removeFirst()));
+            }
+        } finally {
+            inFlight.forEach(future -> future.cancel(true));
+        }
+    }
+
+    private ValidatedChunk validate(List<BookInformation> chunk) {
+        ValidatedChunk validated = new ValidatedChunk();
+        chunk.forEach(row -> {
+            BookInformation normalised = validator.normalise(row);
+            validated.add(normalised, validator.isValid(normalised));
+        });
+        return validated;
+    }
+
+    private static <T> T await(CompletableFuture<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @FunctionalInterface
+    public interface ChunkWriter<T> {
+        void write(T chunk) throws IOException;
+    }
+}
@@ -0,0 +1,71 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookFingerprint;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import lombok.Getter;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+@Getter
+public class BookLoadPlan {
+    private final List<PendingInsert> inserts = new ArrayList<>();
+    private final List<BookUpdate> updates = new ArrayList<>();
+    private final List<BookUpdate> countUpdates = new ArrayList<>();
+    private final List<BookInformation> unchangedRows = new ArrayList<>();
+    private final Map<Long, String> fingerprints = new HashMap<>();
+    private final Map<String, PendingInsert> insertsByIsbn13 = new HashMap<>();
+    private final Map<String, PendingInsert> insertsByIsbn = new HashMap<>();
+
+    public PendingInsert pendingInsertFor(BookInformation row) {
+        if (!row.getIsbn13().isEmpty()) {
+            return insertsByIsbn13.get(row.getIsbn13());
+        }
+        return insertsByIsbn.get(row.getIsbn());
+    }
+
+    public void insert(BookInformation row) {
+        PendingInsert insert = new PendingInsert(row);
+        inserts.add(insert);
+        if (!row.getIsbn13().isEmpty()) {
+            insertsByIsbn13.putIfAbsent(row.getIsbn13(), insert);
+        }
+        if (!row.getIsbn().isEmpty()) {
+            insertsByIsbn.putIfAbsent(row.getIsbn(), insert);
+        }
+    }
+
+    public void merge(PendingInsert insert, BookInformation row) {
+        insert.merge(row);
+    }
+
+    public void update(Book existingBook, BookInformation row) {
+        String fingerprint = BookFingerprint.of(row);
+        String current = fingerprints.getOrDefault(existingBook.getId(), existingBook.getContentFingerprint());
+        fingerprints.put(existingBook.getId(), fingerprint);
+        if (!fingerprint.equals(current)) {
+            updates.add(new BookUpdate(existingBook.getId(), row));
+        } else if (row.getBooksCount() != 0) {
+            countUpdates.add(new BookUpdate(existingBook.getId(), row));
+        } else {
+            unchangedRows.add(row);
+        }
+    }
+
+    public List<Book> booksToInsert() {
+        return inserts.stream().map(PendingInsert::getBook).collect(Collectors.toList());
+    }
+
+    public int insertedRows() {
+        return inserts.stream().mapToInt(insert -> insert.getRows().size()).sum();
+    }
+
+    public int unchangedRows() {
+        return countUpdates.size() + unchangedRows.size();
+    }
+
+    public boolean isEmpty() {
+        return inserts.isEmpty() && updates.isEmpty() && countUpdates.isEmpty();
+    }
+}
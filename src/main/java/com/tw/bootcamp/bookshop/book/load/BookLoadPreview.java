@@ -0,0 +1,100 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookFingerprint;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.InvalidBookException;
+
+import java.util.*;
+
+public class BookLoadPreview {
+    private final BookRepository bookRepository;
+    private final BookLoadThrottle loadThrottle;
+    private final Set<String> insertedIsbn13s = new HashSet<>();
+    private final Set<String> insertedIsbns = new HashSet<>();
+    private final Map<Long, String> fingerprints = new HashMap<>();
+
+    public BookLoadPreview(BookRepository bookRepository, BookLoadThrottle loadThrottle) {
+        this.bookRepository = bookRepository;
+        this.loadThrottle = loadThrottle;
+    }
+
+    public LookedUpChunk lookUp(ValidatedChunk chunk) {
+        ExistingBooks existingBooks = loadThrottle.write(() -> ExistingBooks.lookUp(bookRepository, chunk.getValid()));
+        return new LookedUpChunk(chunk, existingBooks);
+    }
+
+    public List<BookLoadChange> diff(LookedUpChunk lookedUp) {
+        ValidatedChunk chunk = lookedUp.chunk;
+        BookLoadChange[] changes = new BookLoadChange[chunk.size()];
+        for (BookInformation row : chunk.getValid()) {
+            BookLoadChange change;
+            try {
+                change = diff(lookedUp.existingBooks, row);
+            } catch (InvalidBookException | RuntimeException e) {
+                change = BookLoadChange.failed(row);
+            }
+            changes[chunk.positionOf(row)] = change;
+        }
+        for (BookInformation row : chunk.failedInFileOrder(Collections.emptyList())) {
+            changes[chunk.positionOf(row)] = BookLoadChange.failed(row);
+        }
+        return Arrays.asList(changes);
+    }
+
+    private BookLoadChange diff(ExistingBooks existingBooks, BookInformation row) throws InvalidBookException {
+        if (isPendingInsert(row)) {
+            return change(BookLoadAction.INSERT, null, row).build();
+        }
+        Book existingBook = existingBooks.find(row);
+        if (existingBook == null) {
+            if (row.getIsbn().isEmpty() && row.getIsbn13().isEmpty()) {
+                throw new InvalidBookException();
+            }
+            if (!row.getIsbn13().isEmpty()) {
+                insertedIsbn13s.add(row.getIsbn13());
+            }
+            if (!row.getIsbn().isEmpty()) {
+                insertedIsbns.add(row.getIsbn());
+            }
+            return change(BookLoadAction.INSERT, null, row).build();
+        }
+
+        String fingerprint = BookFingerprint.of(row);
+        String current = fingerprints.getOrDefault(existingBook.getId(), existingBook.getContentFingerprint());
+        fingerprints.put(existingBook.getId(), fingerprint);
+        if (!fingerprint.equals(current)) {
+            return change(BookLoadAction.UPDATE, existingBook, row)
+                    .previousAmount(existingBook.getAmount())
+                    .build();
+        }
+        BookLoadAction action = row.getBooksCount() != 0 ? BookLoadAction.STOCK : BookLoadAction.UNCHANGED;
+        return change(action, existingBook, row).build();
+    }
+
+    private boolean isPendingInsert(BookInformation row) {
+        return row.getIsbn13().isEmpty() ? insertedIsbns.contains(row.getIsbn()) : insertedIsbn13s.contains(row.getIsbn13());
+    }
+
+    private static BookLoadChange.BookLoadChangeBuilder change(BookLoadAction action, Book existingBook, BookInformation row) {
+        return BookLoadChange.builder()
+                .action(action)
+                .bookId(existingBook == null ? null : existingBook.getId())
+                .isbn13(row.getIsbn13())
+                .isbn(row.getIsbn())
+                .name(row.getName())
+                .amount(row.getAmount())
+                .stockDelta(row.getBooksCount());
+    }
+
+    public static class LookedUpChunk {
+        private final ValidatedChunk chunk;
+        private final ExistingBooks existingBooks;
+
+        private LookedUpChunk(ValidatedChunk chunk, ExistingBooks existingBooks) {
+            this.chunk = chunk;
+            this.existingBooks = existingBooks;
+        }
+    }
+}
@@ -0,0 +1,16 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class BookLoadResult {
+    private final List<BookInformation> failedBooks;
+    private final int inserted;
+    private final int updated;
+    private final int unchanged;
+}
@@ -0,0 +1,59 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import javax.validation.Validator;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Iterator;
+
+@Service
+public class BookLoadService {
+    private final BookLoader bookLoader;
+    private final BookCopyImporter bookCopyImporter;
+    private final ObjectMapper objectMapper;
+    private final BookLoadPipeline loadPipeline;
+    private final int chunkSize;
+
+    @Autowired
+    public BookLoadService(BookLoader bookLoader, BookCopyImporter bookCopyImporter, ObjectMapper objectMapper,
+                           BookLoadThrottle loadThrottle, Validator validator,
+                           @Value("${books.load.chunk-size:1000}") int chunkSize,
+                           @Value("${books.load.workers:4}") int workers) {
+        this.bookLoader = bookLoader;
+        this.bookCopyImporter = bookCopyImporter;
+        this.objectMapper = objectMapper;
+        this.loadPipeline = new BookLoadPipeline(loadThrottle.getExecutor(), new BookRowValidator(validator), workers);
+        this.chunkSize = chunkSize;
+    }
+
+    public Resource load(InputStream inputStream, String contentType, BookLoadMode mode, BookCsvProfile profile) throws IOException {
+        try (CsvUpload upload = CsvUpload.open(inputStream, contentType);
+             FailedBooksFile failedBooks = new FailedBooksFile(objectMapper)) {
+            if (mode == BookLoadMode.COPY && bookCopyImporter.isSupported()) {
+                Iterator<BufferedReader> readers = upload.readers();
+                while (readers.hasNext()) {
+                    bookCopyImporter.importCsv(readers.next(), profile, failedBooks);
+                }
+            } else {
+                loadPipeline.run(new ChunkedIterator<>(upload.rows(profile), chunkSize), bookLoader::load, failedBooks);
+            }
+            return failedBooks.toResource();
+        }
+    }
+
+    public Resource preview(InputStream inputStream, String contentType, BookCsvProfile profile) throws IOException {
+        BookLoadPreview preview = bookLoader.preview();
+        try (CsvUpload upload = CsvUpload.open(inputStream, contentType);
+             BookLoadDiffFile diff = new BookLoadDiffFile(objectMapper)) {
+            loadPipeline.runPrepared(new ChunkedIterator<>(upload.rows(profile), chunkSize), preview::lookUp,
+                    chunk -> diff.addAll(preview.diff(chunk)));
+            return diff.toResource();
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+@Component
+public class BookLoadThrottle implements MeterBinder {
+    private static final String REQUESTS_TIMER = "http.server.requests";
+    private static final String POOL_ACQUIRE_TIMER = "hikaricp.connections.acquire";
+
+    private final Semaphore connections;
+    private final int maxConnections;
+    private final ThreadPoolExecutor workers;
+    private final Duration latencyThreshold;
+    private final Duration poolWaitThreshold;
+    private final Duration minPause;
+    private final Duration maxPause;
+    private final List<String> watchedPaths;
+    private final TimerWindow requestLatency = new TimerWindow();
+    private final TimerWindow poolWait = new TimerWindow();
+    private volatile MeterRegistry meterRegistry;
+    private volatile Duration pause = Duration.ZERO;
+
+    @Autowired
+    public BookLoadThrottle(@Value("${books.load.throttle.max-connections:2}") int maxConnections,
+                            @Value("${books.load.throttle.max-workers:2}") int maxWorkers,
+                            @Value("${books.load.throttle.latency-threshold:PT0.5S}") Duration latencyThreshold,
+                            @Value("${books.load.throttle.pool-wait-threshold:PT0.05S}") Duration poolWaitThreshold,
+                            @Value("${books.load.throttle.min-pause:PT0.1S}") Duration minPause,
+                            @Value("${books.load.throttle.max-pause:PT5S}") Duration maxPause,
+                            @Value("${books.load.throttle.watched-paths:/books,/orders}") String[] watchedPaths) {
+        if (maxConnections < 1 || maxWorkers < 1) {
+            throw new IllegalArgumentException("Connections and workers must be positive");
+        }
+        this.connections = new Semaphore(maxConnections, true);
+        this.maxConnections = maxConnections;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(maxWorkers, maxWorkers, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "book-load-worker-" + threadNumber.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.latencyThreshold = latencyThreshold;
+        this.poolWaitThreshold = poolWaitThreshold;
+        this.minPause = minPause;
+        this.maxPause = maxPause;
+        this.watchedPaths = Arrays.asList(watchedPaths);
+    }
+
+    public Executor getExecutor() {
+        return workers;
+    }
+
+    public <T> T write(Supplier<T> write) {
+        sleep(nextPause());
+        connections.acquireUninterruptibly();
+        try {
+            return write.get();
+        } finally {
+            connections.release();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        this.meterRegistry = registry;
+        Gauge.builder("books.load.throttle.pause", this, throttle -> throttle.pause.toMillis())
+                .description("Pause before each chunk written by the book loader")
+                .baseUnit("milliseconds")
+                .register(registry);
+        Gauge.builder("books.load.throttle.connections", this, throttle -> throttle.maxConnections - throttle.connections.availablePermits())
+                .description("Connections held by the book loader")
+                .register(registry);
+        Gauge.builder("books.load.throttle.workers", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Book loader workers validating rows")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    synchronized Duration nextPause() {
+        if (isStorefrontBusy()) {
+            pause = pause.isZero() ? minPause : min(pause.multipliedBy(2), maxPause);
+        } else {
+            Duration halved = pause.dividedBy(2);
+            pause = halved.compareTo(minPause) < 0 ? Duration.ZERO : halved;
+        }
+        return pause;
+    }
+
+    private boolean isStorefrontBusy() {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            return false;
+        }
+        Duration latency = requestLatency.meanSinceLastCall(registry.find(REQUESTS_TIMER).timers().stream()
+                .filter(timer -> isWatched(timer.getId().getTag("uri")))
+                .collect(Collectors.toList()));
+        Duration wait = poolWait.meanSinceLastCall(registry.find(POOL_ACQUIRE_TIMER).timers());
+        return latency.compareTo(latencyThreshold) > 0 || wait.compareTo(poolWaitThreshold) > 0;
+    }
+
+    private boolean isWatched(String uri) {
+        return uri != null && watchedPaths.stream().anyMatch(uri::startsWith);
+    }
+
+    private static Duration min(Duration first, Duration second) {
+        return first.compareTo(second) <= 0 ? first : second;
+    }
+
+    private static void sleep(Duration pause) {
+        if (pause.isZero()) {
+            return;
+        }
+        try {
+            Thread.sleep(pause.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static class TimerWindow {
+        private long count;
+        private double totalNanos;
+
+        Duration meanSinceLastCall(Collection<Timer> timers) {
+            long currentCount = 0;
+            double currentTotalNanos = 0;
+            for (Timer timer : timers) {
+                currentCount += timer.count();
+                currentTotalNanos += timer.totalTime(TimeUnit.NANOSECONDS);
+            }
+            long calls = currentCount - count;
+            double nanos = currentTotalNanos - totalNanos;
+            count = currentCount;
+            totalNanos = currentTotalNanos;
+            return calls <= 0 ? Duration.ZERO : Duration.ofNanos((long) (nanos / calls));
+        }
+    }
+}
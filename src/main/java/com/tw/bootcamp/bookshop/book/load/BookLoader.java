@@ -0,0 +1,191 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.*;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.validation.Validator;
+import java.util.*;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+@Service
+public class BookLoader {
+    private final BookRepository bookRepository;
+    private final BookBatchWriter bookBatchWriter;
+    private final TransactionTemplate transactionTemplate;
+    private final BookRowValidator bookRowValidator;
+    private final ApplicationEventPublisher eventPublisher;
+    private final BookLoadThrottle loadThrottle;
+
+    @Autowired
+    public BookLoader(BookRepository bookRepository, BookBatchWriter bookBatchWriter,
+                      PlatformTransactionManager transactionManager, Validator validator,
+                      ApplicationEventPublisher eventPublisher, BookLoadThrottle loadThrottle) {
+        this.bookRepository = bookRepository;
+        this.bookBatchWriter = bookBatchWriter;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bookRowValidator = new BookRowValidator(validator);
+        this.eventPublisher = eventPublisher;
+        this.loadThrottle = loadThrottle;
+    }
+
+    public List<BookInformation> load(List<BookInformation> books) {
+        return load(books, result -> {}).getFailedBooks();
+    }
+
+    public BookLoadResult load(List<BookInformation> books, Consumer<BookLoadResult> inTransaction) {
+        return loadThrottle.write(() -> loadChunk(books, inTransaction));
+    }
+
+    public BookLoadPreview preview() {
+        return new BookLoadPreview(bookRepository, loadThrottle);
+    }
+
+    private BookLoadResult loadChunk(List<BookInformation> books, Consumer<BookLoadResult> inTransaction) {
+        List<BookInformation> failedBooks = new ArrayList<>();
+        BookLoadPlan plan = new BookLoadPlan();
+        ExistingBooks existingBooks = ExistingBooks.lookUp(bookRepository, books);
+        books.forEach(book -> {
+            try {
+                plan(plan, existingBooks, book);
+            } catch (Exception e) {
+                failedBooks.add(book);
+            }
+        });
+        if (plan.isEmpty()) {
+            BookLoadResult result = new BookLoadResult(failedBooks, 0, 0, plan.unchangedRows());
+            transactionTemplate.execute(status -> {
+                inTransaction.accept(result);
+                return null;
+            });
+            return result;
+        }
+
+        BookLoadResult result = write(plan, failedBooks, inTransaction);
+        List<Book> savedBooks = reload(plan);
+        if (!savedBooks.isEmpty()) {
+            eventPublisher.publishEvent(new BooksUpdatedEvent(savedBooks));
+        }
+        return result;
+    }
+
+    private void plan(BookLoadPlan plan, ExistingBooks existingBooks, BookInformation book) throws InvalidBookException {
+        PendingInsert pendingInsert = plan.pendingInsertFor(book);
+        Book existingBook = pendingInsert == null ? existingBooks.find(book) : null;
+        if (pendingInsert == null && existingBook == null) {
+            boolean invalidIsbn = book.getIsbn().isEmpty() && book.getIsbn13().isEmpty();
+            if (invalidIsbn) {
+                throw new InvalidBookException();
+            }
+        }
+        if (!bookRowValidator.isValid(book)) {
+            throw new InvalidBookException();
+        }
+
+        if (pendingInsert != null) {
+            plan.merge(pendingInsert, book);
+        } else if (existingBook != null) {
+            plan.update(existingBook, book);
+        } else {
+            plan.insert(book);
+        }
+    }
+
+    private BookLoadResult write(BookLoadPlan plan, List<BookInformation> failedBooks,
+                                 Consumer<BookLoadResult> inTransaction) {
+        BookLoadResult result = new BookLoadResult(failedBooks, plan.insertedRows(), plan.getUpdates().size(),
+                plan.unchangedRows());
+        try {
+            transactionTemplate.execute(status -> {
+                bookBatchWriter.insert(plan.booksToInsert());
+                bookBatchWriter.update(plan.getUpdates());
+                bookBatchWriter.incrementCounts(plan.getCountUpdates());
+                inTransaction.accept(result);
+                return null;
+            });
+            return result;
+        } catch (DataAccessException e) {
+            return writeOneByOne(plan, failedBooks, inTransaction);
+        }
+    }
+
+    private BookLoadResult writeOneByOne(BookLoadPlan plan, List<BookInformation> failedBooks,
+                                         Consumer<BookLoadResult> inTransaction) {
+        List<BookInformation> failed = new ArrayList<>(failedBooks);
+        int inserted = 0;
+        int updated = 0;
+        int unchanged = plan.getUnchangedRows().size();
+        for (PendingInsert insert : plan.getInserts()) {
+            try {
+                transactionTemplate.execute(status -> {
+                    bookBatchWriter.insert(Collections.singletonList(insert.getBook()));
+                    return null;
+                });
+                inserted += insert.getRows().size();
+            } catch (DataAccessException e) {
+                failed.addAll(insert.getRows());
+            }
+        }
+        for (BookUpdate update : plan.getUpdates()) {
+            try {
+                transactionTemplate.execute(status -> {
+                    bookBatchWriter.update(Collections.singletonList(update));
+                    return null;
+                });
+                updated++;
+            } catch (DataAccessException e) {
+                failed.add(update.getBook());
+            }
+        }
+        for (BookUpdate update : plan.getCountUpdates()) {
+            try {
+                transactionTemplate.execute(status -> {
+                    bookBatchWriter.incrementCounts(Collections.singletonList(update));
+                    return null;
+                });
+                unchanged++;
+            } catch (DataAccessException e) {
+                failed.add(update.getBook());
+            }
+        }
+        BookLoadResult result = new BookLoadResult(failed, inserted, updated, unchanged);
+        transactionTemplate.execute(status -> {
+            inTransaction.accept(result);
+            return null;
+        });
+        return result;
+    }
+
+    private List<Book> reload(BookLoadPlan plan) {
+        Map<Long, Book> savedBooks = new LinkedHashMap<>();
+        Set<Long> updatedIds = Stream.concat(plan.getUpdates().stream(), plan.getCountUpdates().stream())
+                .map(BookUpdate::getBookId)
+                .collect(Collectors.toSet());
+        Set<String> insertedIsbn13s = new HashSet<>();
+        Set<String> insertedIsbns = new HashSet<>();
+        plan.booksToInsert().forEach(book -> {
+            if (book.getIsbn13().isEmpty()) {
+                insertedIsbns.add(book.getIsbn());
+            } else {
+                insertedIsbn13s.add(book.getIsbn13());
+            }
+        });
+
+        if (!updatedIds.isEmpty()) {
+            bookRepository.findAllById(updatedIds).forEach(book -> savedBooks.put(book.getId(), book));
+        }
+        if (!insertedIsbn13s.isEmpty()) {
+            bookRepository.findByIsbn13In(insertedIsbn13s).forEach(book -> savedBooks.put(book.getId(), book));
+        }
+        if (!insertedIsbns.isEmpty()) {
+            bookRepository.findByIsbnIn(insertedIsbns).forEach(book -> savedBooks.put(book.getId(), book));
+        }
+        return new ArrayList<>(savedBooks.values());
+    }
+}
@@ -0,0 +1,31 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+
+import javax.validation.Validator;
+
+public class BookRowValidator {
+    private final Validator validator;
+
+    public BookRowValidator(Validator validator) {
+        this.validator = validator;
+    }
+
+    public BookInformation normalise(BookInformation row) {
+        return row.toBuilder()
+                .name(trim(row.getName()))
+                .authorName(trim(row.getAuthorName()))
+                .isbn(row.getIsbn() == null ? "" : row.getIsbn().trim())
+                .isbn13(trim(row.getIsbn13()))
+                .build();
+    }
+
+    public boolean isValid(BookInformation row) {
+        return !row.isMalformed() && row.getIsbn13() != null && validator.validate(Book.from(row)).isEmpty();
+    }
+
+    private static String trim(String value) {
+        return value == null ? null : value.trim();
+    }
+}
@@ -0,0 +1,12 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class BookUpdate {
+    private final Long bookId;
+    private final BookInformation book;
+}
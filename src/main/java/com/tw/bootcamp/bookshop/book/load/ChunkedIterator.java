@@ -0,0 +1,36 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+public class ChunkedIterator<T> implements Iterator<List<T>> {
+    private final Iterator<T> rows;
+    private final int chunkSize;
+
+    public ChunkedIterator(Iterator<T> rows, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.rows = rows;
+        this.chunkSize = chunkSize;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return rows.hasNext();
+    }
+
+    @Override
+    public List<T> next() {
+        if (!rows.hasNext()) {
+            throw new NoSuchElementException();
+        }
+        List<T> chunk = new ArrayList<>(chunkSize);
+        while (chunk.size() < chunkSize && rows.hasNext()) {
+            chunk.add(rows.next());
+        }
+        return chunk;
+    }
+}
@@ -0,0 +1,134 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.BookInformation;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+public class CsvUpload implements Closeable {
+    private static final String CSV = "text/csv";
+    private static final Set<String> GZIP = new HashSet<>(Arrays.asList("application/gzip", "application/x-gzip"));
+    private static final Set<String> ZIP = new HashSet<>(Arrays.asList("application/zip", "application/x-zip-compressed"));
+
+    private final InputStream inputStream;
+    private final Iterator<BufferedReader> readers;
+
+    private CsvUpload(InputStream inputStream, Iterator<BufferedReader> readers) {
+        this.inputStream = inputStream;
+        this.readers = readers;
+    }
+
+    public static boolean isSupported(String contentType) {
+        String mediaType = mediaTypeOf(contentType);
+        return CSV.equals(mediaType) || GZIP.contains(mediaType) || ZIP.contains(mediaType);
+    }
+
+    public static CsvUpload open(InputStream inputStream, String contentType) throws IOException {
+        String mediaType = mediaTypeOf(contentType);
+        if (GZIP.contains(mediaType)) {
+            GZIPInputStream gzip = new GZIPInputStream(inputStream);
+            return new CsvUpload(gzip, Collections.singletonList(readerOf(gzip)).iterator());
+        }
+        if (ZIP.contains(mediaType)) {
+            ZipInputStream zip = new ZipInputStream(inputStream, StandardCharsets.UTF_8);
+            return new CsvUpload(zip, new ZipEntryReaders(zip));
+        }
+        return new CsvUpload(inputStream, Collections.singletonList(readerOf(inputStream)).iterator());
+    }
+
+    public Iterator<BufferedReader> readers() {
+        return readers;
+    }
+
+    public Iterator<BookInformation> rows(BookCsvProfile profile) {
+        return new Iterator<BookInformation>() {
+            private Iterator<BookInformation> current = Collections.emptyIterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && readers.hasNext()) {
+                    current = BookCsv.rows(readers.next(), profile);
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public BookInformation next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+
+    @Override
+    public void close() throws IOException {
+        inputStream.close();
+    }
+
+    private static String mediaTypeOf(String contentType) {
+        if (contentType == null) {
+            return null;
+        }
+        int parameters = contentType.indexOf(';');
+        return (parameters < 0 ? contentType : contentType.substring(0, parameters)).trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static BufferedReader readerOf(InputStream inputStream) {
+        return new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    private static class ZipEntryReaders implements Iterator<BufferedReader> {
+        private final ZipInputStream zip;
+        private final InputStream entry;
+        private boolean positioned;
+        private boolean exhausted;
+
+        private ZipEntryReaders(ZipInputStream zip) {
+            this.zip = zip;
+            this.entry = new FilterInputStream(zip) {
+                @Override
+                public void close() {
+                }
+            };
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (!positioned && !exhausted) {
+                positioned = nextCsvEntry();
+                exhausted = !positioned;
+            }
+            return positioned;
+        }
+
+        @Override
+        public BufferedReader next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            positioned = false;
+            return readerOf(entry);
+        }
+
+        private boolean nextCsvEntry() {
+            try {
+                for (ZipEntry zipEntry = zip.getNextEntry(); zipEntry != null; zipEntry = zip.getNextEntry()) {
+                    String name = zipEntry.getName();
+                    if (!zipEntry.isDirectory() && !name.startsWith("__MACOSX/")
+                            && name.toLowerCase(Locale.ROOT).endsWith(".csv")) {
+                        return true;
+                    }
+                }
+                return false;
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    }
+}
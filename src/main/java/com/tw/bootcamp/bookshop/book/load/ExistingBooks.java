@@ -0,0 +1,50 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.InvalidBookException;
+
+import java.util.*;
+
+class ExistingBooks {
+    private final Map<String, List<Book>> byIsbn13 = new HashMap<>();
+    private final Map<String, List<Book>> byIsbn = new HashMap<>();
+
+    static ExistingBooks lookUp(BookRepository bookRepository, List<BookInformation> rows) {
+        Set<String> isbn13s = new HashSet<>();
+        Set<String> isbns = new HashSet<>();
+        rows.forEach(row -> {
+            if (row.getIsbn13() == null) {
+                return;
+            }
+            if (!row.getIsbn13().isEmpty()) {
+                isbn13s.add(row.getIsbn13());
+            } else if (row.getIsbn() != null && !row.getIsbn().isEmpty()) {
+                isbns.add(row.getIsbn());
+            }
+        });
+
+        ExistingBooks existingBooks = new ExistingBooks();
+        if (!isbn13s.isEmpty()) {
+            bookRepository.findByIsbn13In(isbn13s).forEach(book ->
+                    existingBooks.byIsbn13.computeIfAbsent(book.getIsbn13(), key -> new ArrayList<>()).add(book));
+        }
+        if (!isbns.isEmpty()) {
+            bookRepository.findByIsbnIn(isbns).forEach(book ->
+                    existingBooks.byIsbn.computeIfAbsent(book.getIsbn(), key -> new ArrayList<>()).add(book));
+        }
+        return existingBooks;
+    }
+
+    Book find(BookInformation row) throws InvalidBookException {
+        List<Book> matches = row.getIsbn13().isEmpty() ? byIsbn.get(row.getIsbn()) : byIsbn13.get(row.getIsbn13());
+        if (matches == null) {
+            return null;
+        }
+        if (matches.size() > 1) {
+            throw new InvalidBookException();
+        }
+        return matches.get(0);
+    }
+}
@@ -0,0 +1,52 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.core.io.Resource;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+public class FailedBooksFile implements Closeable {
+    private final Path path;
+    private final JsonGenerator generator;
+    private boolean handedOver;
+
+    public FailedBooksFile(ObjectMapper objectMapper) throws IOException {
+        this.path = Files.createTempFile("failed-books", ".json");
+        this.generator = objectMapper.getFactory().createGenerator(Files.newOutputStream(path));
+        generator.writeStartArray();
+    }
+
+    public void add(BookInformation book) throws IOException {
+        generator.writeObject(book);
+    }
+
+    public void addAll(List<BookInformation> books) throws IOException {
+        for (BookInformation book : books) {
+            add(book);
+        }
+    }
+
+    public Resource toResource() throws IOException {
+        generator.writeEndArray();
+        generator.close();
+        Resource resource = new InputStreamResource(Files.newInputStream(path, StandardOpenOption.DELETE_ON_CLOSE));
+        handedOver = true;
+        return resource;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (!handedOver) {
+            generator.close();
+            Files.deleteIfExists(path);
+        }
+    }
+}
@@ -0,0 +1,24 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+public class PendingInsert {
+    private final Book book;
+    private final List<BookInformation> rows = new ArrayList<>();
+
+    PendingInsert(BookInformation row) {
+        this.book = Book.from(row);
+        rows.add(row);
+    }
+
+    void merge(BookInformation row) {
+        book.update(row);
+        rows.add(row);
+    }
+}
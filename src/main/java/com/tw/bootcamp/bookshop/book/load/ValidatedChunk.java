@@ -0,0 +1,39 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.BookInformation;
+
+import java.util.*;
+
+public class ValidatedChunk {
+    private final Map<BookInformation, Integer> positions = new IdentityHashMap<>();
+    private final List<BookInformation> valid = new ArrayList<>();
+    private final List<BookInformation> failed = new ArrayList<>();
+
+    void add(BookInformation row, boolean isValid) {
+        positions.put(row, positions.size());
+        if (isValid) {
+            valid.add(row);
+        } else {
+            failed.add(row);
+        }
+    }
+
+    public List<BookInformation> getValid() {
+        return valid;
+    }
+
+    public int size() {
+        return positions.size();
+    }
+
+    public int positionOf(BookInformation row) {
+        return positions.getOrDefault(row, positions.size());
+    }
+
+    public List<BookInformation> failedInFileOrder(List<BookInformation> failedByWriter) {
+        List<BookInformation> failedRows = new ArrayList<>(failed);
+        failedRows.addAll(failedByWriter);
+        failedRows.sort(Comparator.comparingInt(this::positionOf));
+        return failedRows;
+    }
+}
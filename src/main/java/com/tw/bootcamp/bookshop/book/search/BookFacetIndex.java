@@ -0,0 +1,213 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BookStockChangedEvent;
+import com.tw.bootcamp.bookshop.book.BooksUpdatedEvent;
+import org.hibernate.Hibernate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+@Component
+public class BookFacetIndex {
+    private static final int REBUILD_PAGE_SIZE = 1000;
+    private static final Comparator<FacetValues> BY_NAME = Comparator.comparing((FacetValues values) -> values.name)
+            .thenComparing(values -> values.id);
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<Long, Integer> ordinals = new HashMap<>();
+    private List<FacetValues> values = new ArrayList<>();
+    private BitSet all = new BitSet();
+    private BitSet available = new BitSet();
+    private RangeBitmapIndex<String> languages = new RangeBitmapIndex<>();
+    private RangeBitmapIndex<Integer> years = new RangeBitmapIndex<>();
+    private RangeBitmapIndex<Double> ratings = new RangeBitmapIndex<>();
+    private RangeBitmapIndex<Double> prices = new RangeBitmapIndex<>();
+
+    @Autowired
+    public BookFacetIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        BookFacetIndex rebuilt = new BookFacetIndex(bookRepository);
+        bookRepository.forEachPage(REBUILD_PAGE_SIZE, rebuilt::add);
+
+        lock.writeLock().lock();
+        try {
+            ordinals = rebuilt.ordinals;
+            values = rebuilt.values;
+            all = rebuilt.all;
+            available = rebuilt.available;
+            languages = rebuilt.languages;
+            years = rebuilt.years;
+            ratings = rebuilt.ratings;
+            prices = rebuilt.prices;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksUpdated(BooksUpdatedEvent event) {
+        add(event.getBooks());
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBookStockChanged(BookStockChangedEvent event) {
+        Book book = event.getBook();
+        if (Hibernate.isInitialized(book)) {
+            add(Collections.singletonList(book));
+        } else {
+            decreaseStock(book.getId(), event.getQuantity());
+        }
+    }
+
+    public void add(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            books.forEach(book -> {
+                Integer ordinal = ordinals.get(book.getId());
+                if (ordinal == null) {
+                    ordinal = values.size();
+                    ordinals.put(book.getId(), ordinal);
+                    values.add(null);
+                } else {
+                    clear(ordinal);
+                }
+                set(ordinal, new FacetValues(book));
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void decreaseStock(Long bookId, int quantity) {
+        lock.writeLock().lock();
+        try {
+            Integer ordinal = ordinals.get(bookId);
+            if (ordinal != null) {
+                FacetValues current = values.get(ordinal);
+                FacetValues book = current.withBooksCount(current.booksCount - quantity);
+                values.set(ordinal, book);
+                available.set(ordinal, book.available);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public FacetedIds filter(BookFilter filter, int limit) {
+        lock.readLock().lock();
+        try {
+            BitSet matching = (BitSet) all.clone();
+            if (filter.getLanguageCode() != null) {
+                matching.and(languages.get(filter.getLanguageCode().toLowerCase(Locale.ROOT)));
+            }
+            if (filter.getYearFrom() != null || filter.getYearTo() != null) {
+                matching.and(years.range(filter.getYearFrom(), filter.getYearTo()));
+            }
+            if (filter.getMinRating() != null || filter.getMaxRating() != null) {
+                matching.and(ratings.range(filter.getMinRating(), filter.getMaxRating()));
+            }
+            if (filter.getMinPrice() != null || filter.getMaxPrice() != null) {
+                matching.and(prices.range(filter.getMinPrice(), filter.getMaxPrice()));
+            }
+            if (Boolean.TRUE.equals(filter.getAvailable())) {
+                matching.and(available);
+            } else if (Boolean.FALSE.equals(filter.getAvailable())) {
+                matching.andNot(available);
+            }
+
+            FacetCounts facets = new FacetCounts();
+            PriorityQueue<FacetValues> first = new PriorityQueue<>(BY_NAME.reversed());
+            for (int ordinal = matching.nextSetBit(0); ordinal >= 0; ordinal = matching.nextSetBit(ordinal + 1)) {
+                FacetValues book = values.get(ordinal);
+                facets.count(book.languageCode, book.year, book.rating, book.available);
+                first.add(book);
+                if (first.size() > limit) {
+                    first.poll();
+                }
+            }
+
+            List<Long> ids = new ArrayList<>();
+            while (!first.isEmpty()) {
+                ids.add(first.poll().id);
+            }
+            Collections.reverse(ids);
+            return new FacetedIds(ids, matching.cardinality(), facets);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void set(int ordinal, FacetValues book) {
+        values.set(ordinal, book);
+        all.set(ordinal);
+        available.set(ordinal, book.available);
+        languages.add(book.languageCode, ordinal);
+        years.add(book.year, ordinal);
+        ratings.add(book.rating, ordinal);
+        prices.add(book.price, ordinal);
+    }
+
+    private void clear(int ordinal) {
+        FacetValues book = values.get(ordinal);
+        languages.remove(book.languageCode, ordinal);
+        years.remove(book.year, ordinal);
+        ratings.remove(book.rating, ordinal);
+        prices.remove(book.price, ordinal);
+    }
+
+    private static class FacetValues {
+        private final Long id;
+        private final String name;
+        private final String languageCode;
+        private final Integer year;
+        private final Double rating;
+        private final Double price;
+        private final int booksCount;
+        private final boolean available;
+
+        private FacetValues(Book book) {
+            this(book.getId(), book.getName(),
+                    book.getLanguageCode() == null || book.getLanguageCode().isEmpty()
+                            ? null : book.getLanguageCode().toLowerCase(Locale.ROOT),
+                    parseYear(book.getOriginalPublicationYear()), book.getAverageRating(), book.getAmount(),
+                    book.getBooksCount() == null ? 0 : book.getBooksCount());
+        }
+
+        private FacetValues(Long id, String name, String languageCode, Integer year, Double rating, Double price,
+                            int booksCount) {
+            this.id = id;
+            this.name = name;
+            this.languageCode = languageCode;
+            this.year = year;
+            this.rating = rating;
+            this.price = price;
+            this.booksCount = booksCount;
+            this.available = booksCount > 0;
+        }
+
+        private FacetValues withBooksCount(int booksCount) {
+            return new FacetValues(id, name, languageCode, year, rating, price, booksCount);
+        }
+
+        private static Integer parseYear(String year) {
+            try {
+                return year == null ? null : (int) Double.parseDouble(year);
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.error.InvalidBookFilterException;
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+@Getter
+@Setter
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFilter {
+    @Schema(example = "eng", description = "Language code of the book")
+    private String languageCode;
+    @Schema(example = "1990", description = "Earliest original publication year")
+    private Integer yearFrom;
+    @Schema(example = "2010", description = "Latest original publication year")
+    private Integer yearTo;
+    @Schema(example = "4", description = "Lowest average rating")
+    private Double minRating;
+    @Schema(example = "5", description = "Highest average rating")
+    private Double maxRating;
+    @Schema(example = "100", description = "Lowest price")
+    private Double minPrice;
+    @Schema(example = "1000", description = "Highest price")
+    private Double maxPrice;
+    @Schema(example = "true", description = "Whether the book is in stock")
+    private Boolean available;
+
+    public void validateRanges() throws InvalidBookFilterException {
+        validateRange("year", yearFrom, yearTo);
+        validateRange("rating", minRating, maxRating);
+        validateRange("price", minPrice, maxPrice);
+    }
+
+    private static <T extends Comparable<T>> void validateRange(String range, T from, T to) throws InvalidBookFilterException {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            throw new InvalidBookFilterException(range);
+        }
+    }
+}
@@ -0,0 +1,242 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BooksUpdatedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Collectors;
+
+@Component
+public class BookSearchIndex {
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final int NAME_WEIGHT = 2;
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private Map<String, Map<Long, Integer>> postings = new HashMap<>();
+    private Map<Long, IndexedBook> documents = new HashMap<>();
+    private BkTree dictionary = new BkTree();
+    private long totalLength;
+
+    @Autowired
+    public BookSearchIndex(BookRepository bookRepository) {
+        this.bookRepository = bookRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        BookSearchIndex rebuilt = new BookSearchIndex(bookRepository);
+        bookRepository.forEachPage(REBUILD_PAGE_SIZE, rebuilt::add);
+
+        lock.writeLock().lock();
+        try {
+            postings = rebuilt.postings;
+            documents = rebuilt.documents;
+            dictionary = rebuilt.dictionary;
+            totalLength = rebuilt.totalLength;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksUpdated(BooksUpdatedEvent event) {
+        add(event.getBooks());
+    }
+
+    public void add(Collection<Book> books) {
+        lock.writeLock().lock();
+        try {
+            books.forEach(book -> {
+                remove(book.getId());
+                insert(book);
+            });
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return documents.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public List<Long> search(String query, SearchSort sort, boolean fuzzy, int limit) {
+        Set<String> terms = new LinkedHashSet<>(TextNormalizer.tokenize(query));
+        if (terms.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        lock.readLock().lock();
+        try {
+            List<List<WeightedPosting>> matches = new ArrayList<>();
+            for (String term : terms) {
+                List<WeightedPosting> alternatives = fuzzy ? similarPostings(term) : exactPostings(term);
+                if (alternatives.isEmpty()) {
+                    return Collections.emptyList();
+                }
+                matches.add(alternatives);
+            }
+            matches.sort(Comparator.comparingInt(alternatives -> alternatives.stream().mapToInt(WeightedPosting::size).sum()));
+
+            double averageLength = (double) totalLength / documents.size();
+            Set<Long> candidates = new HashSet<>();
+            matches.get(0).forEach(alternative -> candidates.addAll(alternative.posting.keySet()));
+            List<ScoredBook> hits = new ArrayList<>();
+            for (Long id : candidates) {
+                IndexedBook document = documents.get(id);
+                double score = 0;
+                for (List<WeightedPosting> alternatives : matches) {
+                    double termScore = alternatives.stream()
+                            .filter(alternative -> alternative.posting.containsKey(id))
+                            .mapToDouble(alternative -> alternative.weight * score(alternative.posting.get(id),
+                                    alternative.size(), document.length, averageLength))
+                            .max()
+                            .orElse(-1);
+                    if (termScore < 0) {
+                        score = -1;
+                        break;
+                    }
+                    score += termScore;
+                }
+                if (score >= 0) {
+                    hits.add(new ScoredBook(id, document.name, score));
+                }
+            }
+
+            return hits.stream()
+                    .sorted(comparator(sort))
+                    .limit(limit)
+                    .map(hit -> hit.id)
+                    .collect(Collectors.toList());
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private List<WeightedPosting> exactPostings(String term) {
+        Map<Long, Integer> posting = postings.get(term);
+        return posting == null ? Collections.emptyList() : Collections.singletonList(new WeightedPosting(posting, 1));
+    }
+
+    private List<WeightedPosting> similarPostings(String term) {
+        List<WeightedPosting> alternatives = new ArrayList<>();
+        dictionary.find(term, maxEdits(term)).forEach((similarTerm, distance) -> {
+            Map<Long, Integer> posting = postings.get(similarTerm);
+            if (posting != null) {
+                alternatives.add(new WeightedPosting(posting, 1.0 / (1 + distance)));
+            }
+        });
+        return alternatives;
+    }
+
+    private static int maxEdits(String term) {
+        if (term.length() <= 2) {
+            return 0;
+        }
+        return term.length() <= 5 ? 1 : 2;
+    }
+
+    private double score(int termFrequency, int documentFrequency, int length, double averageLength) {
+        double idf = Math.log(1 + (documents.size() - documentFrequency + 0.5) / (documentFrequency + 0.5));
+        double normalisedLength = 1 - B + B * length / averageLength;
+        return idf * termFrequency * (K1 + 1) / (termFrequency + K1 * normalisedLength);
+    }
+
+    private Comparator<ScoredBook> comparator(SearchSort sort) {
+        Comparator<ScoredBook> byName = Comparator.comparing((ScoredBook hit) -> hit.name)
+                .thenComparing(hit -> hit.id);
+        if (sort == SearchSort.NAME) {
+            return byName;
+        }
+        return Comparator.comparingDouble((ScoredBook hit) -> hit.score).reversed().thenComparing(byName);
+    }
+
+    private void insert(Book book) {
+        Map<String, Integer> termFrequencies = new HashMap<>();
+        for (int i = 0; i < NAME_WEIGHT; i++) {
+            countTerms(book.getName(), termFrequencies);
+        }
+        countTerms(book.getAuthorName(), termFrequencies);
+        countTerms(book.getOriginalTitle(), termFrequencies);
+
+        int length = termFrequencies.values().stream().mapToInt(Integer::intValue).sum();
+        termFrequencies.forEach((term, frequency) -> {
+            postings.computeIfAbsent(term, key -> new HashMap<>()).put(book.getId(), frequency);
+            dictionary.add(term);
+        });
+        documents.put(book.getId(), new IndexedBook(book.getName(), termFrequencies.keySet(), length));
+        totalLength += length;
+    }
+
+    private void remove(Long id) {
+        IndexedBook document = documents.remove(id);
+        if (document == null) {
+            return;
+        }
+        for (String term : document.terms) {
+            Map<Long, Integer> posting = postings.get(term);
+            posting.remove(id);
+            if (posting.isEmpty()) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= document.length;
+    }
+
+    private static void countTerms(String text, Map<String, Integer> termFrequencies) {
+        TextNormalizer.tokenize(text).forEach(term -> termFrequencies.merge(term, 1, Integer::sum));
+    }
+
+    private static class IndexedBook {
+        private final String name;
+        private final Set<String> terms;
+        private final int length;
+
+        private IndexedBook(String name, Set<String> terms, int length) {
+            this.name = name;
+            this.terms = terms;
+            this.length = length;
+        }
+    }
+
+    private static class WeightedPosting {
+        private final Map<Long, Integer> posting;
+        private final double weight;
+
+        private WeightedPosting(Map<Long, Integer> posting, double weight) {
+            this.posting = posting;
+            this.weight = weight;
+        }
+
+        private int size() {
+            return posting.size();
+        }
+    }
+
+    private static class ScoredBook {
+        private final Long id;
+        private final String name;
+        private final double score;
+
+        private ScoredBook(Long id, String name, double score) {
+            this.id = id;
+            this.name = name;
+            this.score = score;
+        }
+    }
+}
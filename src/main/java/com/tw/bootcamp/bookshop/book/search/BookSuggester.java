@@ -0,0 +1,94 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BooksUpdatedEvent;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import javax.annotation.PreDestroy;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Component
+public class BookSuggester {
+    private static final int REBUILD_PAGE_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final int maxSuggestions;
+    private final ExecutorService rebuilder;
+    private final Map<Long, Book> books = new HashMap<>();
+    private final AtomicBoolean refreshPending = new AtomicBoolean();
+    private volatile SuggestionTrie trie = SuggestionTrie.empty();
+
+    @Autowired
+    public BookSuggester(BookRepository bookRepository, @Value("${books.suggest.max-size:10}") int maxSuggestions) {
+        this(bookRepository, maxSuggestions, Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "book-suggester-rebuild");
+            thread.setDaemon(true);
+            return thread;
+        }));
+    }
+
+    BookSuggester(BookRepository bookRepository, int maxSuggestions, ExecutorService rebuilder) {
+        this.bookRepository = bookRepository;
+        this.maxSuggestions = maxSuggestions;
+        this.rebuilder = rebuilder;
+    }
+
+    public List<Suggestion> suggest(String prefix, int limit) {
+        return trie.complete(prefix, Math.max(1, Math.min(limit, maxSuggestions)));
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        synchronized (this) {
+            books.clear();
+            bookRepository.forEachPage(REBUILD_PAGE_SIZE, this::remember);
+        }
+        scheduleRefresh();
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onBooksUpdated(BooksUpdatedEvent event) {
+        synchronized (this) {
+            remember(event.getBooks());
+        }
+        scheduleRefresh();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rebuilder.shutdownNow();
+    }
+
+    private void scheduleRefresh() {
+        if (refreshPending.compareAndSet(false, true)) {
+            rebuilder.execute(this::refresh);
+        }
+    }
+
+    private void refresh() {
+        refreshPending.set(false);
+        List<Book> snapshot;
+        synchronized (this) {
+            snapshot = new ArrayList<>(books.values());
+        }
+        trie = new SuggestionTrie.Builder(maxSuggestions).add(snapshot).build();
+    }
+
+    private void remember(Collection<Book> updatedBooks) {
+        updatedBooks.forEach(book -> books.put(book.getId(), Book.builder()
+                .id(book.getId())
+                .name(book.getName())
+                .authorName(book.getAuthorName())
+                .averageRating(book.getAverageRating())
+                .build()));
+    }
+}
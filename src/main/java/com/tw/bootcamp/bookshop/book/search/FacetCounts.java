@@ -0,0 +1,32 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.Getter;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+@Getter
+public class FacetCounts {
+    @Schema(description = "Number of matching books per language code")
+    private final Map<String, Integer> languageCode = new TreeMap<>();
+    @Schema(description = "Number of matching books per decade of original publication")
+    private final Map<Integer, Integer> publicationDecade = new TreeMap<>();
+    @Schema(description = "Number of matching books per whole star of average rating")
+    private final Map<Integer, Integer> averageRating = new TreeMap<>();
+    @Schema(description = "Number of matching books in and out of stock")
+    private final Map<Boolean, Integer> available = new TreeMap<>();
+
+    void count(String languageCode, Integer year, Double rating, boolean available) {
+        if (languageCode != null) {
+            this.languageCode.merge(languageCode, 1, Integer::sum);
+        }
+        if (year != null) {
+            publicationDecade.merge(Math.floorDiv(year, 10) * 10, 1, Integer::sum);
+        }
+        if (rating != null) {
+            averageRating.merge((int) Math.floor(rating), 1, Integer::sum);
+        }
+        this.available.merge(available, 1, Integer::sum);
+    }
+}
@@ -0,0 +1,14 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.List;
+
+@Getter
+@AllArgsConstructor
+public class FacetedIds {
+    private final List<Long> ids;
+    private final int total;
+    private final FacetCounts facets;
+}
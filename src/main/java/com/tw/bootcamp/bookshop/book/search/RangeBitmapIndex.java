@@ -0,0 +1,49 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import java.util.BitSet;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+class RangeBitmapIndex<K extends Comparable<K>> {
+    private final TreeMap<K, BitSet> bitmaps = new TreeMap<>();
+
+    void add(K key, int ordinal) {
+        if (key != null) {
+            bitmaps.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    void remove(K key, int ordinal) {
+        if (key == null) {
+            return;
+        }
+        BitSet bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.clear(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+            }
+        }
+    }
+
+    BitSet get(K key) {
+        BitSet bitmap = bitmaps.get(key);
+        return bitmap == null ? new BitSet() : bitmap;
+    }
+
+    BitSet range(K from, K to) {
+        if (from != null && to != null && from.compareTo(to) > 0) {
+            return new BitSet();
+        }
+        NavigableMap<K, BitSet> matching = bitmaps;
+        if (from != null) {
+            matching = matching.tailMap(from, true);
+        }
+        if (to != null) {
+            matching = matching.headMap(to, true);
+        }
+        BitSet union = new BitSet();
+        matching.values().forEach(union::or);
+        return union;
+    }
+}
@@ -0,0 +1,6 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+public enum SearchSort {
+    RELEVANCE,
+    NAME
+}
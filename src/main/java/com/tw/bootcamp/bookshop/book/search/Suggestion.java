@@ -0,0 +1,18 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+@Getter
+@EqualsAndHashCode
+@AllArgsConstructor
+public class Suggestion {
+    @Schema(example = "Harry Potter and the Sorcerer's Stone", description = "Title or author to complete the search with")
+    private final String text;
+    @Schema(example = "TITLE", description = "Whether the completion is a book title or an author")
+    private final SuggestionType type;
+    @Schema(example = "4.44", description = "Highest average rating of the books behind the completion")
+    private final double averageRating;
+}
@@ -0,0 +1,158 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+
+import java.util.*;
+import java.util.stream.Collectors;
+
+class SuggestionTrie {
+    private static final Comparator<Suggestion> BY_RATING = Comparator.comparingDouble(Suggestion::getAverageRating).reversed()
+            .thenComparing(Suggestion::getText);
+
+    private final Node root;
+
+    private SuggestionTrie(Node root) {
+        this.root = root;
+    }
+
+    static SuggestionTrie empty() {
+        return new SuggestionTrie(new Node("", 0, new char[0], new Node[0], new Suggestion[0]));
+    }
+
+    List<Suggestion> complete(String prefix, int limit) {
+        String key = String.join(" ", TextNormalizer.tokenize(prefix));
+        if (key.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Node node = root;
+        int depth = 0;
+        while (true) {
+            for (; depth < node.depth && depth < key.length(); depth++) {
+                if (node.path.charAt(depth) != key.charAt(depth)) {
+                    return Collections.emptyList();
+                }
+            }
+            if (depth == key.length()) {
+                return Arrays.stream(node.top).limit(limit).collect(Collectors.toList());
+            }
+            node = node.child(key.charAt(depth));
+            if (node == null) {
+                return Collections.emptyList();
+            }
+        }
+    }
+
+    static class Builder {
+        private final int maxCompletions;
+        private final Map<String, Suggestion> suggestions = new HashMap<>();
+
+        Builder(int maxCompletions) {
+            this.maxCompletions = maxCompletions;
+        }
+
+        Builder add(Collection<Book> books) {
+            books.forEach(book -> {
+                double rating = book.getAverageRating() == null ? 0 : book.getAverageRating();
+                add(book.getName(), SuggestionType.TITLE, rating);
+                add(book.getAuthorName(), SuggestionType.AUTHOR, rating);
+            });
+            return this;
+        }
+
+        private void add(String text, SuggestionType type, double rating) {
+            if (text == null || TextNormalizer.tokenize(text).isEmpty()) {
+                return;
+            }
+            suggestions.merge(type + "|" + text, new Suggestion(text, type, rating),
+                    (existing, added) -> existing.getAverageRating() >= added.getAverageRating() ? existing : added);
+        }
+
+        SuggestionTrie build() {
+            List<Entry> entries = new ArrayList<>();
+            suggestions.values().forEach(suggestion -> {
+                List<String> tokens = TextNormalizer.tokenize(suggestion.getText());
+                for (int start = 0; start < tokens.size(); start++) {
+                    entries.add(new Entry(String.join(" ", tokens.subList(start, tokens.size())), suggestion));
+                }
+            });
+            if (entries.isEmpty()) {
+                return empty();
+            }
+            entries.sort(Comparator.comparing(entry -> entry.key));
+            return new SuggestionTrie(node(entries, 0, entries.size(), 0));
+        }
+
+        private Node node(List<Entry> entries, int from, int to, int depth) {
+            String path = entries.get(from).key;
+            int end = commonPrefixLength(path, entries.get(to - 1).key, depth);
+            Set<Suggestion> candidates = new HashSet<>();
+            int i = from;
+            for (; i < to && entries.get(i).key.length() == end; i++) {
+                candidates.add(entries.get(i).suggestion);
+            }
+            List<Character> labels = new ArrayList<>();
+            List<Node> children = new ArrayList<>();
+            while (i < to) {
+                char label = entries.get(i).key.charAt(end);
+                int next = i + 1;
+                while (next < to && entries.get(next).key.charAt(end) == label) {
+                    next++;
+                }
+                Node child = node(entries, i, next, end);
+                labels.add(label);
+                children.add(child);
+                candidates.addAll(Arrays.asList(child.top));
+                i = next;
+            }
+            char[] childLabels = new char[labels.size()];
+            for (int j = 0; j < childLabels.length; j++) {
+                childLabels[j] = labels.get(j);
+            }
+            Suggestion[] top = candidates.stream()
+                    .sorted(BY_RATING)
+                    .limit(maxCompletions)
+                    .toArray(Suggestion[]::new);
+            return new Node(path, end, childLabels, children.toArray(new Node[0]), top);
+        }
+
+        private static int commonPrefixLength(String first, String last, int from) {
+            int length = from;
+            int max = Math.min(first.length(), last.length());
+            while (length < max && first.charAt(length) == last.charAt(length)) {
+                length++;
+            }
+            return length;
+        }
+    }
+
+    private static class Entry {
+        private final String key;
+        private final Suggestion suggestion;
+
+        private Entry(String key, Suggestion suggestion) {
+            this.key = key;
+            this.suggestion = suggestion;
+        }
+    }
+
+    private static class Node {
+        private final String path;
+        private final int depth;
+        private final char[] labels;
+        private final Node[] children;
+        private final Suggestion[] top;
+
+        private Node(String path, int depth, char[] labels, Node[] children, Suggestion[] top) {
+            this.path = path;
+            this.depth = depth;
+            this.labels = labels;
+            this.children = children;
+            this.top = top;
+        }
+
+        private Node child(char label) {
+            int index = Arrays.binarySearch(labels, label);
+            return index < 0 ? null : children[index];
+        }
+    }
+}
@@ -0,0 +1,6 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+public enum SuggestionType {
+    TITLE,
+    AUTHOR
+}
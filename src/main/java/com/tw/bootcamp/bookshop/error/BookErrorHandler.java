@@ -1,6 +1,10 @@
 package com.tw.bootcamp.bookshop.error;
 
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobNotFoundException;
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobRejectedException;
 import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
+import com.tw.bootcamp.bookshop.book.error.InvalidBookFilterException;
+import com.tw.bootcamp.bookshop.book.error.InvalidCursorException;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
@@ -8,9 +12,21 @@ import org.springframework.web.bind.annotation.ExceptionHandler;
 
 @ControllerAdvice
 public class BookErrorHandler {
-    @ExceptionHandler({BookNotFoundException.class})
+    @ExceptionHandler({BookNotFoundException.class, BookLoadJobNotFoundException.class})
     public ResponseEntity<ErrorResponse> handleBookNotFoundError(Exception ex) {
         ErrorResponse apiError = new ErrorResponse(HttpStatus.NOT_FOUND, ex.getMessage());
         return new ResponseEntity<>(apiError, apiError.getStatus());
     }
+
+    @ExceptionHandler({InvalidCursorException.class, InvalidBookFilterException.class})
+    public ResponseEntity<ErrorResponse> handleInvalidCursorError(Exception ex) {
+        ErrorResponse apiError = new ErrorResponse(HttpStatus.BAD_REQUEST, ex.getMessage());
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
+    @ExceptionHandler({BookLoadJobRejectedException.class})
+    public ResponseEntity<ErrorResponse> handleBookLoadJobRejectedError(Exception ex) {
+        ErrorResponse apiError = new ErrorResponse(HttpStatus.SERVICE_UNAVAILABLE, ex.getMessage());
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
 }
@@ -4,11 +4,18 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.multipart.MaxUploadSizeExceededException;
 import org.springframework.web.multipart.MultipartException;
 
 @ControllerAdvice
 public class MultipartExceptionHandler {
 
+    @ExceptionHandler(MaxUploadSizeExceededException.class)
+    public ResponseEntity<ErrorResponse> handleMaxUploadSizeExceeded(Exception ex) {
+        ErrorResponse apiError = new ErrorResponse(HttpStatus.PAYLOAD_TOO_LARGE, "Upload is larger than the allowed size");
+        return new ResponseEntity<>(apiError, apiError.getStatus());
+    }
+
     @ExceptionHandler(MultipartException.class)
     public ResponseEntity<?> handleAll(Throwable t){
         return new ResponseEntity<>(HttpStatus.BAD_REQUEST);
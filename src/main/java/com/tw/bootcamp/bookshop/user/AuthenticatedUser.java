@@ -0,0 +1,35 @@
+package com.tw.bootcamp.bookshop.user;
+
+import lombok.Getter;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+@Getter
+public class AuthenticatedUser extends org.springframework.security.core.userdetails.User {
+    private final Long id;
+    private final Role role;
+    private final long tokenVersion;
+
+    public AuthenticatedUser(Long id, String email, String password, Role role) {
+        this(id, email, password, role, 0);
+    }
+
+    public AuthenticatedUser(Long id, String email, String password, Role role, long tokenVersion) {
+        super(email, password, AuthorityUtils.createAuthorityList(role.authority()));
+        this.id = id;
+        this.role = role;
+        this.tokenVersion = tokenVersion;
+    }
+
+    public static AuthenticatedUser from(User user) {
+        return new AuthenticatedUser(user.getId(), user.getEmail(), user.getPassword(), user.getRole(),
+                user.getTokenVersion());
+    }
+
+    public User toUser() {
+        return User.builder()
+                .id(id)
+                .email(getUsername())
+                .role(role)
+                .build();
+    }
+}
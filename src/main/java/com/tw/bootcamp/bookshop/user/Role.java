@@ -4,7 +4,7 @@ public enum Role {
     USER,
     ADMIN;
 
-    String authority() {
+    public String authority() {
         return "ROLE_" + this.name();
     }
 }
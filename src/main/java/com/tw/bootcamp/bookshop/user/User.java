@@ -38,6 +38,8 @@ public class User {
     @Schema(example = "USER", description = "Role assigned to user")
     @Enumerated(EnumType.STRING)
     private Role role;
+    @JsonIgnore
+    private long tokenVersion;
 
     // NOTE: 25/01/22 : Nandhini + Devesh - Do not uncomment this unless you have better solution, it creates infinite chain of nested objects
     // TODO: 28/01/22 : Fix this using @JsonIgnore
@@ -59,6 +61,10 @@ public class User {
         this.role = role;
     }
 
+    public void revokeTokens() {
+        tokenVersion++;
+    }
+
     public static User create(CreateUserRequest userRequest) {
         String password = "";
         if (!userRequest.getPassword().isEmpty()) {
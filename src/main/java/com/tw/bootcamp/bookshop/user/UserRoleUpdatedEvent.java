@@ -0,0 +1,10 @@
+package com.tw.bootcamp.bookshop.user;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+@Getter
+@AllArgsConstructor
+public class UserRoleUpdatedEvent {
+    private final String email;
+}
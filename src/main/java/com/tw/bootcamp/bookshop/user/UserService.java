@@ -2,7 +2,7 @@ package com.tw.bootcamp.bookshop.user;
 
 import com.tw.bootcamp.bookshop.error.EmailDoesNotExistException;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
@@ -25,6 +25,9 @@ public class UserService implements UserDetailsService {
     @Autowired
     private Validator validator;
 
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     public UserService() {
     }
 
@@ -58,11 +61,11 @@ public class UserService implements UserDetailsService {
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
         User user = userRepository.findByEmail(email).orElseThrow(() -> new UsernameNotFoundException("User not found"));
 
-        return new org.springframework.security.core.userdetails.User(
-                user.getEmail(),
-                user.getPassword(),
-                AuthorityUtils.createAuthorityList(user.getRole().authority())
-        );
+        return AuthenticatedUser.from(user);
+    }
+
+    public Optional<Long> findTokenVersion(Long userId) {
+        return userRepository.findTokenVersionById(userId);
     }
 
     public User updateRole(User user) {
@@ -71,7 +74,9 @@ public class UserService implements UserDetailsService {
             throw new EmailDoesNotExistException();
         }
         existingUser.get().setRole(user.getRole());
+        existingUser.get().revokeTokens();
         userRepository.save(existingUser.get());
+        eventPublisher.publishEvent(new UserRoleUpdatedEvent(existingUser.get().getEmail()));
         return existingUser.get();
     }
 }
@@ -1,9 +1,9 @@
 package com.tw.bootcamp.bookshop.user.address;
 
-import com.tw.bootcamp.bookshop.error.EmailDoesNotExistException;
+import com.tw.bootcamp.bookshop.user.CurrentUser;
 import com.tw.bootcamp.bookshop.user.User;
-import com.tw.bootcamp.bookshop.user.UserService;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -11,10 +11,8 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
-import java.security.Principal;
 import java.util.List;
 
 @RestController
@@ -22,8 +20,6 @@ import java.util.List;
 public class AddressController {
     @Autowired
     private AddressService addressService;
-    @Autowired
-    private UserService userService;
 
     @PostMapping
     @Operation(summary = "Create address", description = "Creates address for user", tags = {"Address Service"})
@@ -31,8 +27,7 @@ public class AddressController {
             description = "Address created", content = {@Content(mediaType = "application/json",
             schema = @Schema(implementation = AddressResponse.class))})}
     )
-    public ResponseEntity<AddressResponse> create(@RequestBody CreateAddressRequest createRequest, Principal principal) {
-        User user = userService.findByEmail(principal.getName()).orElseThrow(() -> new UsernameNotFoundException("User not found"));
+    public ResponseEntity<AddressResponse> create(@RequestBody CreateAddressRequest createRequest, @Parameter(hidden = true) @CurrentUser User user) {
         Address address = addressService.create(createRequest, user);
         AddressResponse addressResponse = address.toResponse();
         return new ResponseEntity<>(addressResponse, HttpStatus.CREATED);
@@ -45,8 +40,7 @@ public class AddressController {
             description = "Addresses returned", content = {@Content(mediaType = "application/json",
             schema = @Schema(implementation = Address.class))})}
     )
-    public ResponseEntity<List<Address>> fetchAddressForLoggedInUser(Principal principal) {
-        User user = userService.findByEmail(principal.getName()).orElseThrow(EmailDoesNotExistException::new);
+    public ResponseEntity<List<Address>> fetchAddressForLoggedInUser(@Parameter(hidden = true) @CurrentUser User user) {
         List<Address> addresses = addressService.loadAddressForUser(user);
         return new ResponseEntity<>(addresses, HttpStatus.OK);
     }
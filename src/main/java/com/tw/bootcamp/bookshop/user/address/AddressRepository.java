@@ -11,4 +11,6 @@ public interface AddressRepository extends JpaRepository<Address, Long> {
     List<Address> findAllByUser(User user);
 
     List<Address> findAddressesByUserId(Long id);
+
+    boolean existsByIdAndUserId(Long id, Long userId);
 }
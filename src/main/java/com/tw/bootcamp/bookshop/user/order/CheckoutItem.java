@@ -0,0 +1,21 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotNull;
+
+@AllArgsConstructor
+@Builder
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+public class CheckoutItem {
+    @NotNull
+    @Schema(example = "1", description = "Unique Identifier of the Book")
+    private Long bookId;
+    @Min(1)
+    @Schema(example = "2", description = "Order Quantity")
+    private int quantity;
+}
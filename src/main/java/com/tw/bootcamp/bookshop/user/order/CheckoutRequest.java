@@ -0,0 +1,27 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import javax.validation.Valid;
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+@AllArgsConstructor
+@Builder
+@Getter
+@EqualsAndHashCode
+@NoArgsConstructor
+public class CheckoutRequest {
+    @NotNull
+    @Schema(example = "CREDIT_CARD", description = "Mode of Payment")
+    private PaymentMode paymentMode;
+    @NotNull
+    @Schema(example = "1", description = "Unique Identifier of the Address")
+    private Long addressId;
+    @NotEmpty
+    @Valid
+    @Schema(description = "Books in the cart with their quantities")
+    private List<@NotNull CheckoutItem> items;
+}
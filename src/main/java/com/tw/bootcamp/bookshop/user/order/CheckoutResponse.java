@@ -0,0 +1,33 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+public class CheckoutResponse {
+    @Schema(example = "3f1c2a9e-4b7d-4c55-9a8e-2f0d6c1b7e42", description = "Unique Identifier of the Checkout")
+    private String checkoutId;
+    @Schema(example = "2022-01-27T05:04:23.776+00:00", description = "Confirmed Order Date")
+    private Date orderDate;
+    @Schema(description = "Books ordered with their quantities")
+    private List<CheckoutItem> items;
+
+    public static CheckoutResponse of(List<Order> orders) {
+        Order first = orders.get(0);
+        return CheckoutResponse.builder()
+                .checkoutId(first.getCheckoutId())
+                .orderDate(first.getOrderDate())
+                .items(orders.stream()
+                        .map(order -> new CheckoutItem(order.getBookToPurchase().getId(), order.getQuantity()))
+                        .collect(Collectors.toList()))
+                .build();
+    }
+}
@@ -1,6 +1,7 @@
 package com.tw.bootcamp.bookshop.user.order;
 
 import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.inventory.StockReservation;
 import com.tw.bootcamp.bookshop.user.User;
 import com.tw.bootcamp.bookshop.user.address.Address;
 import lombok.AllArgsConstructor;
@@ -48,6 +49,10 @@ public class Order {
     @JoinColumn(name = "book_id", nullable = false)
     private Book bookToPurchase;
 
+    private Long stockLeaseId;
+
+    private String checkoutId;
+
     public Order(int quantity, String paymentMode, User user, Address shippingAddress, Book bookToPurchase){
         this.quantity = quantity;
         this.paymentMode = paymentMode;
@@ -64,6 +69,10 @@ public class Order {
                 book);
     }
 
+    void reservedFrom(StockReservation reservation) {
+        this.stockLeaseId = reservation.getLeaseId();
+    }
+
     public OrderResponse toResponse() {
         return OrderResponse.builder()
                 .id(id)
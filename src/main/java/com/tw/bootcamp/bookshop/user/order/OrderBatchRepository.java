@@ -0,0 +1,36 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@Repository
+public class OrderBatchRepository {
+    private static final String INSERT_ORDER_SQL = "insert into orders (quantity, order_date, payment_mode, user_id, "
+            + "address_id, book_id, stock_lease_id, checkout_id) values (?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    public OrderBatchRepository(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    public void insertAll(List<Order> orders) {
+        jdbcTemplate.batchUpdate(INSERT_ORDER_SQL, orders.stream()
+                .map(order -> new Object[]{
+                        order.getQuantity(),
+                        new Timestamp(order.getOrderDate().getTime()),
+                        order.getPaymentMode(),
+                        order.getUser().getId(),
+                        order.getShippingAddress().getId(),
+                        order.getBookToPurchase().getId(),
+                        order.getStockLeaseId(),
+                        order.getCheckoutId()})
+                .collect(Collectors.toList()));
+    }
+}
@@ -1,18 +1,15 @@
 package com.tw.bootcamp.bookshop.user.order;
 
-import com.tw.bootcamp.bookshop.book.Book;
-import com.tw.bootcamp.bookshop.book.BookService;
 import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
 import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
+import com.tw.bootcamp.bookshop.user.CurrentUser;
 import com.tw.bootcamp.bookshop.user.User;
-import com.tw.bootcamp.bookshop.user.UserService;
-import com.tw.bootcamp.bookshop.user.address.Address;
-import com.tw.bootcamp.bookshop.user.address.AddressService;
 import com.tw.bootcamp.bookshop.user.order.error.AddressNotFoundForCustomerException;
 import com.tw.bootcamp.bookshop.user.order.error.InvalidDateFormatException;
 import com.tw.bootcamp.bookshop.user.order.error.InvalidPaymentModeException;
 import com.tw.bootcamp.bookshop.user.order.error.OrderQuantityCannotBeLessThanOneException;
 import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.media.Content;
 import io.swagger.v3.oas.annotations.media.Schema;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
@@ -20,11 +17,9 @@ import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.web.bind.annotation.*;
 
 import javax.validation.Valid;
-import java.security.Principal;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Date;
@@ -37,12 +32,6 @@ public class OrderController {
     private final SimpleDateFormat dateFormat = new SimpleDateFormat("yyyy-MM-dd");
     @Autowired
     private OrderService orderService;
-    @Autowired
-    private UserService userService;
-    @Autowired
-    private AddressService addressService;
-    @Autowired
-    private BookService bookService;
 
     @PostMapping("/orders")
     @Operation(summary = "Create a new order for the logged in user",
@@ -52,16 +41,25 @@ public class OrderController {
             description = "Order created", content = {@Content(mediaType = "application/json",
             schema = @Schema(implementation = OrderResponse.class))})}
     )
-    public ResponseEntity<OrderResponse> create(@Valid @RequestBody CreateOrderRequest createRequest, Principal principal) throws BookNotFoundException, RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException, InvalidPaymentModeException {
-        User user = userService.findByEmail(principal.getName()).orElseThrow(() -> new UsernameNotFoundException("User not found"));
-        Address address = addressService.loadAddressById(createRequest.getAddressId()).orElseThrow(() -> new AddressNotFoundForCustomerException());
-        Book book = bookService.fetchByBookId(createRequest.getBookId());
-        Order orderToCreate = Order.create(createRequest, user, address, book);
-        Order order = orderService.create(orderToCreate);
+    public ResponseEntity<OrderResponse> create(@Valid @RequestBody CreateOrderRequest createRequest, @Parameter(hidden = true) @CurrentUser User user) throws BookNotFoundException, RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException, InvalidPaymentModeException {
+        Order order = orderService.create(createRequest, user);
         OrderResponse orderResponse = order.toResponse();
         return new ResponseEntity<>(orderResponse, HttpStatus.CREATED);
     }
 
+    @PostMapping("/orders/checkout")
+    @Operation(summary = "Check out a cart of books for the logged in user",
+            description = "Creates one order per book in the cart, reserving stock for all of them or none",
+            tags = {"Order Service"})
+    @ApiResponses(value = {@ApiResponse(responseCode = "201",
+            description = "Cart checked out", content = {@Content(mediaType = "application/json",
+            schema = @Schema(implementation = CheckoutResponse.class))})}
+    )
+    public ResponseEntity<CheckoutResponse> checkout(@Valid @RequestBody CheckoutRequest checkoutRequest, @Parameter(hidden = true) @CurrentUser User user) throws BookNotFoundException, RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException {
+        List<Order> orders = orderService.checkout(checkoutRequest, user);
+        return new ResponseEntity<>(CheckoutResponse.of(orders), HttpStatus.CREATED);
+    }
+
     @GetMapping("/admin/orders")
     @Operation(summary = "Gets list of all placed orders for Admin only",
             description = "List all orders in the system, restricted to admin role only",
@@ -1,6 +1,13 @@
 package com.tw.bootcamp.bookshop.user.order;
 
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BookStockChangedEvent;
+import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
 import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
+import com.tw.bootcamp.bookshop.book.inventory.StockReservation;
+import com.tw.bootcamp.bookshop.book.inventory.StockReserver;
+import com.tw.bootcamp.bookshop.user.User;
 import com.tw.bootcamp.bookshop.user.address.Address;
 import com.tw.bootcamp.bookshop.user.address.AddressRepository;
 import com.tw.bootcamp.bookshop.user.order.error.AddressNotFoundForCustomerException;
@@ -8,14 +15,15 @@ import com.tw.bootcamp.bookshop.user.order.error.InvalidPaymentModeException;
 import com.tw.bootcamp.bookshop.user.order.error.OrderQuantityCannotBeLessThanOneException;
 import org.apache.commons.lang3.EnumUtils;
 import org.apache.commons.lang3.time.DateUtils;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.util.Calendar;
-import java.util.Date;
-import java.util.List;
-import java.util.Optional;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.util.*;
 
 @Service
 public class OrderService {
@@ -23,12 +31,105 @@ public class OrderService {
     private OrderRepository orderRepository;
     @Autowired
     private AddressRepository addressRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private StockReserver stockReserver;
+    @Autowired
+    private OrderBatchRepository orderBatchRepository;
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Transactional
+    public Order create(CreateOrderRequest createRequest, User user) throws BookNotFoundException, RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException, InvalidPaymentModeException {
+        Order order = Order.create(createRequest,
+                entityManager.getReference(User.class, user.getId()),
+                entityManager.getReference(Address.class, createRequest.getAddressId()),
+                entityManager.getReference(Book.class, createRequest.getBookId()));
+        try {
+            return create(order);
+        } catch (RequiredBookQuantityNotAvailableException e) {
+            if (!bookRepository.existsById(createRequest.getBookId())) {
+                throw new BookNotFoundException();
+            }
+            throw e;
+        }
+    }
 
     @Transactional
     public Order create(Order order) throws RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException, InvalidPaymentModeException {
         validateOrder(order);
-        order.getBookToPurchase().decreaseBookCountByQuantity(order.getQuantity());
-        return orderRepository.save(order);
+        reserveStock(order);
+        Order createdOrder = orderRepository.save(order);
+        publishStockChanged(order);
+        return createdOrder;
+    }
+
+    @Transactional(rollbackFor = {BookNotFoundException.class, RequiredBookQuantityNotAvailableException.class})
+    public List<Order> checkout(CheckoutRequest checkoutRequest, User user) throws BookNotFoundException, RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException {
+        SortedMap<Long, Integer> quantities = quantitiesByBook(checkoutRequest.getItems());
+        if (!addressRepository.existsByIdAndUserId(checkoutRequest.getAddressId(), user.getId())) {
+            throw new AddressNotFoundForCustomerException();
+        }
+        Optional<Map<Long, StockReservation>> reservations = stockReserver.reserveAll(quantities);
+        if (!reservations.isPresent()) {
+            if (bookRepository.findAllById(quantities.keySet()).size() < quantities.size()) {
+                throw new BookNotFoundException();
+            }
+            throw new RequiredBookQuantityNotAvailableException();
+        }
+
+        String checkoutId = UUID.randomUUID().toString();
+        Date orderDate = new Date();
+        User customer = entityManager.getReference(User.class, user.getId());
+        Address address = entityManager.getReference(Address.class, checkoutRequest.getAddressId());
+        List<Order> orders = new ArrayList<>();
+        quantities.forEach((bookId, quantity) -> {
+            Order order = Order.builder()
+                    .quantity(quantity)
+                    .orderDate(orderDate)
+                    .paymentMode(checkoutRequest.getPaymentMode().toString())
+                    .user(customer)
+                    .shippingAddress(address)
+                    .bookToPurchase(entityManager.getReference(Book.class, bookId))
+                    .checkoutId(checkoutId)
+                    .build();
+            order.reservedFrom(reservations.get().get(bookId));
+            orders.add(order);
+        });
+        orderBatchRepository.insertAll(orders);
+        orders.forEach(this::publishStockChanged);
+        return orders;
+    }
+
+    private SortedMap<Long, Integer> quantitiesByBook(List<CheckoutItem> items) throws OrderQuantityCannotBeLessThanOneException {
+        SortedMap<Long, Integer> quantities = new TreeMap<>();
+        for (CheckoutItem item : items) {
+            if (item.getQuantity() < 1) {
+                throw new OrderQuantityCannotBeLessThanOneException();
+            }
+            quantities.merge(item.getBookId(), item.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    private void reserveStock(Order order) throws RequiredBookQuantityNotAvailableException {
+        Book book = order.getBookToPurchase();
+        StockReservation reservation = stockReserver.reserve(book.getId(), order.getQuantity())
+                .orElseThrow(RequiredBookQuantityNotAvailableException::new);
+        order.reservedFrom(reservation);
+        if (!reservation.isLeased() && Hibernate.isInitialized(book)) {
+            book.decreaseBookCountByQuantity(order.getQuantity());
+        }
+    }
+
+    private void publishStockChanged(Order order) {
+        // leased units left books_count when the lease was taken, not when they are sold
+        if (order.getStockLeaseId() == null) {
+            eventPublisher.publishEvent(new BookStockChangedEvent(order.getBookToPurchase(), order.getQuantity()));
+        }
     }
 
     private void validateOrder(Order order) throws InvalidPaymentModeException, OrderQuantityCannotBeLessThanOneException, RequiredBookQuantityNotAvailableException, AddressNotFoundForCustomerException {
@@ -47,17 +148,16 @@ public class OrderService {
         if (order.getQuantity() < 1) {
             throw new OrderQuantityCannotBeLessThanOneException();
         }
-        if (order.getQuantity() > order.getBookToPurchase().getBooksCount()) {
+        Book book = order.getBookToPurchase();
+        if (Hibernate.isInitialized(book) && order.getQuantity() > book.getBooksCount()) {
             throw new RequiredBookQuantityNotAvailableException();
         }
     }
 
     private void validateAddress(Order order) throws AddressNotFoundForCustomerException {
-        List<Address> addresses = addressRepository.findAllByUser(order.getUser());
-        addresses.stream()
-                .filter(p -> p.getId() == order.getShippingAddress().getId())
-                .findFirst()
-                .orElseThrow(AddressNotFoundForCustomerException::new);
+        if (!addressRepository.existsByIdAndUserId(order.getShippingAddress().getId(), order.getUser().getId())) {
+            throw new AddressNotFoundForCustomerException();
+        }
     }
 
     public List<Order> findAllOrdersForAdmin(Optional<Date> maybeStartDate, Optional<Date> maybeEndDate) {
@@ -0,0 +1 @@
+create index idx_books_name_id on books (name, id);
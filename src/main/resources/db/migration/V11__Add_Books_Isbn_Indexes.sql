@@ -0,0 +1,2 @@
+create index idx_books_isbn13 on books (isbn13);
+create index idx_books_isbn on books (isbn);
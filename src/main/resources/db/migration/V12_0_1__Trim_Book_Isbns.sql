@@ -0,0 +1,9 @@
+update books set isbn13 = trim(isbn13)
+where isbn13 <> trim(isbn13)
+  and not exists (select 1 from books other where other.isbn13 = trim(books.isbn13))
+  and id = (select min(same.id) from books same where trim(same.isbn13) = trim(books.isbn13));
+
+update books set isbn = trim(isbn)
+where isbn <> trim(isbn)
+  and not exists (select 1 from books other where other.isbn = trim(books.isbn))
+  and id = (select min(same.id) from books same where trim(same.isbn) = trim(books.isbn));
@@ -0,0 +1,24 @@
+create table book_load_jobs
+(id varchar(36) not null,
+ file_name varchar,
+ status varchar(20) not null,
+ estimated_rows bigint not null,
+ rows_read bigint not null,
+ rows_inserted bigint not null,
+ rows_updated bigint not null,
+ rows_failed bigint not null,
+ rows_at_start bigint not null,
+ created_at timestamp not null,
+ started_at timestamp,
+ finished_at timestamp,
+ error_message varchar,
+ primary key (id));
+
+create table book_load_job_failures
+(id bigint generated by default as identity,
+ job_id varchar(36) not null,
+ row_index bigint not null,
+ book varchar not null,
+ primary key (id));
+
+create index idx_book_load_job_failures_job_id on book_load_job_failures (job_id, row_index);
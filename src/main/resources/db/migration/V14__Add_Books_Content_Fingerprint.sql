@@ -0,0 +1,2 @@
+alter table books add column content_fingerprint varchar(64);
+alter table book_load_jobs add column rows_unchanged bigint not null default 0;
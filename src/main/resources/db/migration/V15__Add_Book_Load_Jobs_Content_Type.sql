@@ -0,0 +1 @@
+alter table book_load_jobs add column content_type varchar(100);
@@ -0,0 +1 @@
+alter table book_load_jobs add column csv_profile varchar(30);
@@ -0,0 +1,4 @@
+create table inventory_checkpoints
+(journal varchar(255) not null,
+ last_sequence bigint not null,
+ primary key (journal));
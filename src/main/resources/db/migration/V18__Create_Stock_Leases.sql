@@ -0,0 +1,14 @@
+create table stock_leases
+(id bigint generated by default as identity,
+ book_id bigint not null,
+ node_id varchar(100) not null,
+ units bigint not null,
+ expires_at timestamp not null,
+ primary key (id));
+
+create index idx_stock_leases_expires_at on stock_leases (expires_at);
+create index idx_stock_leases_book_id on stock_leases (book_id);
+
+alter table orders add column stock_lease_id bigint;
+
+create index idx_orders_stock_lease_id on orders (stock_lease_id);
@@ -0,0 +1,3 @@
+alter table orders add column checkout_id varchar(36);
+
+create index idx_orders_checkout_id on orders (checkout_id);
@@ -0,0 +1,161 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.tw.bootcamp.bookshop.user.UserRoleUpdatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class CachingAuthenticationProviderTest {
+    private static final String EMAIL = "testemail@test.com";
+
+    private UserDetailsService userDetailsService;
+    private PasswordEncoder passwordEncoder;
+    private MutableClock clock;
+    private VerifiedCredentialCache credentialCache;
+    private CachingAuthenticationProvider provider;
+
+    @BeforeEach
+    void setUp() {
+        userDetailsService = mock(UserDetailsService.class);
+        passwordEncoder = mock(PasswordEncoder.class);
+        clock = new MutableClock(Instant.parse("2022-01-01T00:00:00Z"));
+        credentialCache = new VerifiedCredentialCache(Duration.ofMinutes(5), 2, clock);
+        provider = new CachingAuthenticationProvider(userDetailsService, passwordEncoder, credentialCache);
+
+        when(userDetailsService.loadUserByUsername(anyString())).thenAnswer(invocation -> new User(
+                invocation.getArgument(0), "hash", AuthorityUtils.createAuthorityList("ROLE_USER")));
+        when(passwordEncoder.matches("foobar", "hash")).thenReturn(true);
+    }
+
+    @Test
+    void shouldSkipPasswordCheckWhenCredentialsWereVerifiedBefore() {
+        provider.authenticate(token(EMAIL, "foobar"));
+        Authentication authentication = provider.authenticate(token(EMAIL, "foobar"));
+
+        assertTrue(authentication.isAuthenticated());
+        assertEquals(EMAIL, authentication.getName());
+        verify(passwordEncoder, times(1)).matches("foobar", "hash");
+        verify(userDetailsService, times(1)).loadUserByUsername(EMAIL);
+        assertEquals(1, credentialCache.hitCount());
+        assertEquals(1, credentialCache.missCount());
+    }
+
+    @Test
+    void shouldVerifyPasswordWhenCredentialsDoNotMatchCachedOnes() {
+        provider.authenticate(token(EMAIL, "foobar"));
+
+        assertThrows(BadCredentialsException.class, () -> provider.authenticate(token(EMAIL, "wrong")));
+        assertEquals(0, credentialCache.hitCount());
+        verify(passwordEncoder, times(1)).matches("wrong", "hash");
+    }
+
+    @Test
+    void shouldVerifyPasswordAgainWhenCachedCredentialsExpire() {
+        provider.authenticate(token(EMAIL, "foobar"));
+        clock.advance(Duration.ofMinutes(5));
+
+        provider.authenticate(token(EMAIL, "foobar"));
+
+        verify(passwordEncoder, times(2)).matches("foobar", "hash");
+        assertEquals(0, credentialCache.hitCount());
+    }
+
+    @Test
+    void shouldVerifyPasswordAgainWhenRoleOfUserIsUpdated() {
+        provider.authenticate(token(EMAIL, "foobar"));
+
+        credentialCache.onRoleUpdated(new UserRoleUpdatedEvent(EMAIL));
+        provider.authenticate(token(EMAIL, "foobar"));
+
+        verify(userDetailsService, times(2)).loadUserByUsername(EMAIL);
+        verify(passwordEncoder, times(2)).matches("foobar", "hash");
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedCredentialsWhenCacheIsFull() {
+        provider.authenticate(token("first@test.com", "foobar"));
+        provider.authenticate(token("second@test.com", "foobar"));
+        provider.authenticate(token("third@test.com", "foobar"));
+
+        provider.authenticate(token("first@test.com", "foobar"));
+
+        assertEquals(2, credentialCache.size());
+        verify(userDetailsService, times(2)).loadUserByUsername("first@test.com");
+    }
+
+    @Test
+    void shouldAuthenticateCachedCredentialsAtLeastHundredTimesFasterThanBCrypt() {
+        PasswordEncoder bcrypt = new BCryptPasswordEncoder();
+        String hash = bcrypt.encode("foobar");
+        UserDetailsService users = email -> new User(email, hash, AuthorityUtils.createAuthorityList("ROLE_USER"));
+        DaoAuthenticationProvider uncached = new DaoAuthenticationProvider();
+        uncached.setUserDetailsService(users);
+        uncached.setPasswordEncoder(bcrypt);
+        CachingAuthenticationProvider cached = new CachingAuthenticationProvider(users, bcrypt, credentialCache);
+        cached.authenticate(token(EMAIL, "foobar"));
+
+        long uncachedNanos = nanosPerCall(5, () -> uncached.authenticate(token(EMAIL, "foobar")));
+        long cachedNanos = nanosPerCall(1000, () -> cached.authenticate(token(EMAIL, "foobar")));
+
+        assertTrue(cachedNanos * 100 < uncachedNanos,
+                "cached " + cachedNanos + " ns per call, BCrypt " + uncachedNanos + " ns per call");
+    }
+
+    private long nanosPerCall(int calls, Runnable call) {
+        long start = System.nanoTime();
+        for (int i = 0; i < calls; i++) {
+            call.run();
+        }
+        return (System.nanoTime() - start) / calls;
+    }
+
+    private UsernamePasswordAuthenticationToken token(String email, String password) {
+        return new UsernamePasswordAuthenticationToken(email, password);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.user.AuthenticatedUser;
+import com.tw.bootcamp.bookshop.user.Role;
+import com.tw.bootcamp.bookshop.user.User;
+import com.tw.bootcamp.bookshop.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(LoginController.class)
+class LoginControllerTest {
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    UserService userService;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldIssueTokenWhenCredentialsAreValid() throws Exception {
+        givenUser("admin@bookshopify.com", "Admin@123", Role.ADMIN);
+
+        mockMvc.perform(post("/login")
+                        .content(objectMapper.writeValueAsString(new LoginRequest("admin@bookshopify.com", "Admin@123")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.tokenType").value("Bearer"))
+                .andExpect(jsonPath("$.expiresIn").value(3600));
+    }
+
+    @Test
+    void shouldRespondUnauthorizedWhenPasswordIsWrong() throws Exception {
+        givenUser("admin@bookshopify.com", "Admin@123", Role.ADMIN);
+
+        mockMvc.perform(post("/login")
+                        .content(objectMapper.writeValueAsString(new LoginRequest("admin@bookshopify.com", "wrong")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldRespondUnauthorizedWhenUserDoesNotExist() throws Exception {
+        when(userService.loadUserByUsername(anyString())).thenThrow(new UsernameNotFoundException("User not found"));
+
+        mockMvc.perform(post("/login")
+                        .content(objectMapper.writeValueAsString(new LoginRequest("nobody@bookshopify.com", "Admin@123")))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldAuthenticateRequestsWithIssuedTokenWithoutLoadingUser() throws Exception {
+        givenUser("reader@bookshopify.com", "Reader@123", Role.USER);
+        String token = login("reader@bookshopify.com", "Reader@123");
+
+        mockMvc.perform(get("/unmapped").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isNotFound());
+        verify(userService, times(1)).loadUserByUsername("reader@bookshopify.com");
+    }
+
+    @Test
+    void shouldRespondUnauthorizedForInvalidToken() throws Exception {
+        mockMvc.perform(get("/unmapped").header(HttpHeaders.AUTHORIZATION, "Bearer forged.token"))
+                .andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void shouldNotAllowAdminEndpointsWithUserToken() throws Exception {
+        givenUser("user@bookshopify.com", "User@1234", Role.USER);
+        String token = login("user@bookshopify.com", "User@1234");
+
+        mockMvc.perform(get("/admin/orders").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldRespondUnauthorizedForTokenIssuedBeforeRoleWasUpdated() throws Exception {
+        givenUser("promoted@bookshopify.com", "User@1234", Role.USER);
+        String token = login("promoted@bookshopify.com", "User@1234");
+
+        when(userService.findTokenVersion(1L)).thenReturn(Optional.of(1L));
+
+        mockMvc.perform(get("/unmapped").header(HttpHeaders.AUTHORIZATION, "Bearer " + token))
+                .andExpect(status().isUnauthorized());
+    }
+
+    private void givenUser(String email, String password, Role role) {
+        when(userService.loadUserByUsername(email)).thenAnswer(invocation -> new AuthenticatedUser(1L, email,
+                User.PASSWORD_ENCODER.encode(password), role));
+        when(userService.findTokenVersion(anyLong())).thenReturn(Optional.of(0L));
+    }
+
+    private String login(String email, String password) throws Exception {
+        MvcResult result = mockMvc.perform(post("/login")
+                        .content(objectMapper.writeValueAsString(new LoginRequest(email, password)))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andReturn();
+        JsonNode response = objectMapper.readTree(result.getResponse().getContentAsString());
+        return response.get("token").asText();
+    }
+}
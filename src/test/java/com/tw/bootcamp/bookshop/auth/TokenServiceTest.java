@@ -0,0 +1,115 @@
+package com.tw.bootcamp.bookshop.auth;
+
+import com.tw.bootcamp.bookshop.user.AuthenticatedUser;
+import com.tw.bootcamp.bookshop.user.Role;
+import com.tw.bootcamp.bookshop.user.UserService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenServiceTest {
+    private static final Instant NOW = Instant.parse("2022-01-01T00:00:00Z");
+
+    private final UserService userService = mock(UserService.class);
+    private final TokenService tokenService = tokenService("secret", NOW);
+
+    @BeforeEach
+    void setUp() {
+        when(userService.findTokenVersion(anyLong())).thenReturn(Optional.of(0L));
+    }
+
+    @Test
+    void shouldReturnClaimsOfIssuedToken() {
+        String token = tokenService.issue(user(1L, "admin@bookshopify.com", Role.ADMIN));
+
+        TokenClaims claims = tokenService.verify(token);
+
+        assertEquals(1L, claims.getUserId());
+        assertEquals("admin@bookshopify.com", claims.getEmail());
+        assertEquals(Role.ADMIN, claims.getRole());
+        assertEquals(NOW.plus(Duration.ofHours(1)), claims.getExpiresAt());
+    }
+
+    @Test
+    void shouldRejectTokenSignedWithAnotherSecret() {
+        String token = tokenService("other", NOW).issue(user(2L, "user@bookshopify.com", Role.USER));
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(token));
+    }
+
+    @Test
+    void shouldRejectTokenWithTamperedPayload() {
+        String token = tokenService.issue(user(2L, "user@bookshopify.com", Role.USER));
+        String forgedPayload = tokenService.issue(user(2L, "user@bookshopify.com", Role.ADMIN)).split("\\.")[0];
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(forgedPayload + "." + token.split("\\.")[1]));
+    }
+
+    @Test
+    void shouldRejectExpiredToken() {
+        String token = tokenService.issue(user(2L, "user@bookshopify.com", Role.USER));
+        TokenService laterService = tokenService("secret", NOW.plus(Duration.ofHours(2)));
+
+        assertThrows(InvalidTokenException.class, () -> laterService.verify(token));
+    }
+
+    @Test
+    void shouldRejectTokenIssuedBeforeTokensOfUserWereRevoked() {
+        String token = tokenService.issue(user(2L, "user@bookshopify.com", Role.USER));
+        String otherUsersToken = tokenService.issue(user(3L, "other@bookshopify.com", Role.USER));
+
+        when(userService.findTokenVersion(2L)).thenReturn(Optional.of(1L));
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(token));
+        assertEquals(3L, tokenService.verify(otherUsersToken).getUserId());
+    }
+
+    @Test
+    void shouldAcceptTokenIssuedAfterTokensOfUserWereRevoked() {
+        when(userService.findTokenVersion(2L)).thenReturn(Optional.of(1L));
+
+        String token = tokenService.issue(new AuthenticatedUser(2L, "user@bookshopify.com", "", Role.ADMIN, 1L));
+
+        assertEquals(Role.ADMIN, tokenService.verify(token).getRole());
+    }
+
+    @Test
+    void shouldRejectTokenOfDeletedUser() {
+        String token = tokenService.issue(user(2L, "user@bookshopify.com", Role.USER));
+
+        when(userService.findTokenVersion(2L)).thenReturn(Optional.empty());
+
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify(token));
+    }
+
+    @Test
+    void shouldRejectMalformedToken() {
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify("not-a-token"));
+        assertThrows(InvalidTokenException.class, () -> tokenService.verify("!!.??"));
+    }
+
+    @Test
+    void shouldNotStartWithoutSecret() {
+        assertThrows(IllegalArgumentException.class, () -> tokenService("", NOW));
+        assertThrows(IllegalArgumentException.class, () -> tokenService(null, NOW));
+    }
+
+    private TokenService tokenService(String secret, Instant now) {
+        return new TokenService(userService, secret, Duration.ofHours(1), Clock.fixed(now, ZoneOffset.UTC));
+    }
+
+    private AuthenticatedUser user(Long id, String email, Role role) {
+        return new AuthenticatedUser(id, email, "", role);
+    }
+}
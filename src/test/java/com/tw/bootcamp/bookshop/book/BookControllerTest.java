@@ -1,9 +1,11 @@
 package com.tw.bootcamp.bookshop.book;
 
-import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
-import com.tw.bootcamp.bookshop.user.Role;
+import com.tw.bootcamp.bookshop.book.search.BookFilter;
+import com.tw.bootcamp.bookshop.book.search.FacetCounts;
+import com.tw.bootcamp.bookshop.book.search.SearchSort;
+import com.tw.bootcamp.bookshop.book.search.Suggestion;
+import com.tw.bootcamp.bookshop.book.search.SuggestionType;
 import com.tw.bootcamp.bookshop.user.UserService;
 import org.junit.jupiter.api.Test;
 import org.mockito.ArgumentCaptor;
@@ -11,23 +13,21 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
-import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.MvcResult;
 
-import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
-import static org.mockito.BDDMockito.then;
 import static org.mockito.Mockito.*;
-import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
-import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(BookController.class)
@@ -67,6 +67,52 @@ class BookControllerTest {
         verify(bookService, times(1)).fetchAll();
     }
 
+    @Test
+    void shouldListPageOfBooksWithNextCursor() throws Exception {
+        Book book = new BookTestBuilder().withId(12L).build();
+        when(bookService.fetchPage(null, 1)).thenReturn(new BookPage(Collections.singletonList(book), BookCursor.after(book)));
+
+        mockMvc.perform(get("/books")
+                        .param("pageSize", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books.length()").value(1))
+                .andExpect(jsonPath("$.nextCursor").value(BookCursor.after(book).encode()));
+        verify(bookService, never()).fetchAll();
+    }
+
+    @Test
+    void shouldRespondBadRequestWhenCursorIsInvalid() throws Exception {
+        mockMvc.perform(get("/books")
+                        .param("pageSize", "1")
+                        .param("cursor", "bm90LWEtY3Vyc29y")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Cursor is invalid"));
+    }
+
+    @Test
+    void shouldStreamAllBooksAsJsonArray() throws Exception {
+        Book harryPotter = new BookTestBuilder().withId(1L).build();
+        Book animalFarm = new BookTestBuilder().withId(2L).withName("Animal Farm").build();
+        doAnswer(invocation -> {
+            Consumer<Book> consumer = invocation.getArgument(0);
+            consumer.accept(animalFarm);
+            consumer.accept(harryPotter);
+            return null;
+        }).when(bookService).exportAll(any());
+
+        MvcResult result = mockMvc.perform(get("/books/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].name").value("Animal Farm"))
+                .andExpect(jsonPath("$[1].id").value(1));
+    }
+
     @Test
     void shouldFetchMatchingBooksOnTitleSearch() throws Exception {
         List<Book> books = new ArrayList<>();
@@ -96,98 +142,103 @@ class BookControllerTest {
     }
 
     @Test
-    void shouldReturnStatusOkWhenCSVFileIsUploaded() throws Exception {
-        InputStream uploadStream = BookControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
-        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
+    void shouldSearchBooksByRelevanceByDefault() throws Exception {
+        Book book = new BookTestBuilder().build();
+        when(bookService.search("harry", SearchSort.RELEVANCE, false, 20)).thenReturn(Collections.singletonList(book));
 
-        this.mockMvc.perform(multipart("/admin/books/load")
-                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
-                .andExpect(status().isOk());
-        if (uploadStream != null) {
-            uploadStream.close();
-        }
+        mockMvc.perform(get("/books/search")
+                        .param("q", "harry")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].name").value("Harry Potter"));
+        verify(bookService, never()).fetchBooksByTitle(anyString());
     }
 
     @Test
-    void shouldReturnStatusBadRequestWhenTextFileIsUploaded() throws Exception {
-        InputStream uploadStream = BookControllerTest.class.getClassLoader().getResourceAsStream("Book List.txt");
-        MockMultipartFile file = new MockMultipartFile("file", "Book List.txt", "text/plain", uploadStream);
+    void shouldSearchBooksSortedByNameWhenRequested() throws Exception {
+        when(bookService.search("rowling", SearchSort.NAME, false, 5)).thenReturn(new ArrayList<>());
 
-        this.mockMvc.perform(multipart("/admin/books/load")
-                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
-                .andExpect(status().isBadRequest());
-        if (uploadStream != null) {
-            uploadStream.close();
-        }
+        mockMvc.perform(get("/books/search")
+                        .param("q", "rowling")
+                        .param("sort", "NAME")
+                        .param("limit", "5")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+        verify(bookService, times(1)).search("rowling", SearchSort.NAME, false, 5);
     }
 
     @Test
-    void shouldNotUploadWhenNonAdminTriedToUploadTheBooks() throws Exception {
-        InputStream uploadStream = BookControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
-        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
-
-        this.mockMvc.perform(multipart("/admin/books/load")
-                        .file(file).with(user("user@bookshopify.com").password("user").roles(Role.USER.name())))
-                .andExpect(status().isForbidden());
-        if (uploadStream != null) {
-            uploadStream.close();
-        }
+    void shouldSearchBooksFuzzilyWhenRequested() throws Exception {
+        when(bookService.search("stephanie meyer", SearchSort.RELEVANCE, true, 20)).thenReturn(new ArrayList<>());
+
+        mockMvc.perform(get("/books/search")
+                        .param("q", "stephanie meyer")
+                        .param("fuzzy", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk());
+        verify(bookService, times(1)).search("stephanie meyer", SearchSort.RELEVANCE, true, 20);
     }
 
     @Test
-    void shouldReturnBadRequestWhenFileIsMissing() throws Exception {
-        this.mockMvc.perform(multipart("/admin/books/load").with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+    void shouldRespondBadRequestWhenSearchSortIsUnknown() throws Exception {
+        mockMvc.perform(get("/books/search")
+                        .param("q", "harry")
+                        .param("sort", "price")
+                        .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isBadRequest());
     }
 
     @Test
-    void shouldCallLoadBooksMethodWhenValidCSVFileIsUploaded() throws Exception {
-        InputStream uploadStream = BookControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
-        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
-
-        Book firstBook = Book.builder()
-                .name("City of Jones (The Mortal Instruments, #1)")
-                .authorName("Cassandra Clare")
-                .amount(1461D)
-                .booksCount(178)
-                .averageRating(4.12)
-                .currency("INR")
-                .imageUrl("https://images.gr-assets.com/books/1432730315m/256683.jpg")
-                .smallImageUrl("https://images.gr-assets.com/books/1432730315s/256683.jpg")
-                .isbn("1416914285")
-                .isbn13("9781416914280")
-                .originalPublicationYear("2007")
-                .originalTitle("City of Bones")
-                .languageCode("eng")
-                .build();
-
-        this.mockMvc.perform(multipart("/admin/books/load")
-                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
-                .andExpect(status().isOk());
+    void shouldSuggestCompletionsOfPrefix() throws Exception {
+        when(bookService.suggest("harry po", 10)).thenReturn(Collections.singletonList(
+                new Suggestion("Harry Potter", SuggestionType.TITLE, 4.5)));
 
-        ArgumentCaptor<List<BookInformation>> argumentCaptor = ArgumentCaptor.forClass(List.class);
-
-        then(bookService).should().loadBooks(argumentCaptor.capture());
-        List<BookInformation> capturedBooks = argumentCaptor.getValue();
-        BookInformation firstCapturedBook = capturedBooks.get(0);
-
-        assertEquals(firstBook.getName(), firstCapturedBook.getName());
-        assertEquals(firstBook.getAuthorName(), firstCapturedBook.getAuthorName());
-        assertEquals(firstBook.getBooksCount(), firstCapturedBook.getBooksCount());
-        assertEquals(firstBook.getAmount(), firstCapturedBook.getAmount());
-        assertEquals(firstBook.getImageUrl(), firstCapturedBook.getImageUrl());
-        assertEquals(firstBook.getSmallImageUrl(), firstCapturedBook.getSmallImageUrl());
-        assertEquals(firstBook.getAverageRating(), firstCapturedBook.getAverageRating());
-        assertEquals(firstBook.getOriginalPublicationYear(), firstCapturedBook.getOriginalPublicationYear());
-        assertEquals(firstBook.getOriginalTitle(), firstCapturedBook.getOriginalTitle());
-        assertEquals(firstBook.getLanguageCode(), firstCapturedBook.getLanguageCode());
-        assertEquals(firstBook.getIsbn(), firstCapturedBook.getIsbn());
-        assertEquals(firstBook.getIsbn13(), firstCapturedBook.getIsbn13());
-
-        verify(bookService, times(1)).loadBooks(any());
-        if (uploadStream != null) {
-            uploadStream.close();
-        }
+        mockMvc.perform(get("/books/suggest")
+                        .param("prefix", "harry po")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$[0].text").value("Harry Potter"))
+                .andExpect(jsonPath("$[0].type").value("TITLE"));
+    }
+
+    @Test
+    void shouldFilterBooksAndReturnFacetCounts() throws Exception {
+        Book book = new BookTestBuilder().withId(3L).build();
+        when(bookService.filter(any(BookFilter.class), eq(20))).thenReturn(
+                new FilteredBooks(Collections.singletonList(book), 1, new FacetCounts()));
+
+        mockMvc.perform(get("/books/filter")
+                        .param("languageCode", "eng")
+                        .param("yearFrom", "1990")
+                        .param("maxPrice", "500")
+                        .param("available", "true")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.books[0].id").value(3))
+                .andExpect(jsonPath("$.total").value(1))
+                .andExpect(jsonPath("$.facets.languageCode").isMap());
+
+        ArgumentCaptor<BookFilter> filterCaptor = ArgumentCaptor.forClass(BookFilter.class);
+        verify(bookService).filter(filterCaptor.capture(), eq(20));
+        assertEquals("eng", filterCaptor.getValue().getLanguageCode());
+        assertEquals(1990, filterCaptor.getValue().getYearFrom());
+        assertEquals(500D, filterCaptor.getValue().getMaxPrice());
+        assertEquals(true, filterCaptor.getValue().getAvailable());
+    }
+
+    @Test
+    void shouldRejectFilterWithInvertedRange() throws Exception {
+        mockMvc.perform(get("/books/filter")
+                        .param("yearFrom", "2010")
+                        .param("yearTo", "1990")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Lower bound of year is greater than its upper bound"));
+
+        verify(bookService, never()).filter(any(BookFilter.class), anyInt());
     }
 
     @Test
@@ -216,67 +267,4 @@ class BookControllerTest {
                         value("Book details not found for the book id"));
         verify(bookService, times(1)).fetchByBookId(INVALID_BOOK_ID);
     }
-
-    @Test
-    void shouldReturnFailedBooksWhenUploadedCSVHasInvalidBooks() throws Exception {
-        InputStream uploadStream = BookControllerTest.class.getClassLoader().getResourceAsStream("Invalid Book List.csv");
-        MockMultipartFile file = new MockMultipartFile("file", "Invalid Book List.csv", "text/csv", uploadStream);
-
-        List<BookInformation> failedBooks = new ArrayList<>();
-        BookInformation book = BookInformation.builder()
-                .id(52L)
-                .name("")
-                .authorName("Stephenie Meyer")
-                .amount(2335D)
-                .booksCount(185)
-                .averageRating(3.69)
-                .imageUrl("https://images.gr-assets.com/books/1361038355m/428263.jpg")
-                .smallImageUrl("https://images.gr-assets.com/books/1361038355s/428263.jpg")
-                .isbn("316160202")
-                .isbn13("harry")
-                .originalPublicationYear("2007")
-                .originalTitle("Eclipse")
-                .languageCode("en-US")
-                .build();
-        failedBooks.add(book);
-        when(bookService.loadBooks(any())).thenReturn(failedBooks);
-
-        MvcResult result = this.mockMvc.perform(multipart("/admin/books/load")
-                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
-                .andExpect(status().isOk())
-                .andReturn();
-
-        ObjectMapper mapper = new ObjectMapper();
-
-        List<BookInformation> actual = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BookInformation>>() {});
-
-        assertEquals(book.getId(), actual.get(0).getId());
-
-        if (uploadStream != null) {
-            uploadStream.close();
-        }
-    }
-
-    @Test
-    void shouldNotReturnBooksWhenUploadedCSVHasValidBooks() throws Exception {
-        InputStream uploadStream = BookControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
-        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
-
-        when(bookService.loadBooks(any())).thenReturn(Collections.emptyList());
-
-        MvcResult result = this.mockMvc.perform(multipart("/admin/books/load")
-                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
-                .andExpect(status().isOk())
-                .andReturn();
-
-        ObjectMapper mapper = new ObjectMapper();
-
-        List<BookInformation> actual = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BookInformation>>() {});
-
-        assertEquals(0, actual.size());
-
-        if (uploadStream != null) {
-            uploadStream.close();
-        }
-    }
-}
\ No newline at end of file
+}
@@ -1,13 +1,26 @@
 package com.tw.bootcamp.bookshop.book;
 
 import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
+import com.tw.bootcamp.bookshop.book.error.InvalidCursorException;
+import com.tw.bootcamp.bookshop.book.load.BookCopyImporter;
+import com.tw.bootcamp.bookshop.book.search.BookFilter;
+import com.tw.bootcamp.bookshop.book.search.SearchSort;
+import com.tw.bootcamp.bookshop.book.search.Suggestion;
+import com.tw.bootcamp.bookshop.book.search.SuggestionType;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -19,6 +32,12 @@ class BookServiceTest {
     @Autowired
     private BookService bookService;
 
+    @Autowired
+    private BookCopyImporter bookCopyImporter;
+
+    @Autowired
+    private DataSource dataSource;
+
     @AfterEach
     void tearDown() {
         bookRepository.deleteAll();
@@ -48,6 +67,58 @@ class BookServiceTest {
         assertEquals("Animal Farm", books.get(0).getName());
     }
 
+    @Test
+    void shouldFetchBooksPageByPageSortedByNameAndId() {
+        Book wingsOfFire = bookRepository.save(new BookTestBuilder().withName("Wings of Fire").build());
+        Book animalFarm = bookRepository.save(new BookTestBuilder().withName("Animal Farm").build());
+        Book secondAnimalFarm = bookRepository.save(new BookTestBuilder().withName("Animal Farm").build());
+        Book emma = bookRepository.save(new BookTestBuilder().withName("Emma").build());
+
+        BookPage firstPage = bookService.fetchPage(null, 2);
+        BookPage secondPage = bookService.fetchPage(firstPage.getNextCursor(), 2);
+
+        assertEquals(asList(animalFarm.getId(), secondAnimalFarm.getId()), idsOf(firstPage));
+        assertEquals(asList(emma.getId(), wingsOfFire.getId()), idsOf(secondPage));
+        assertNull(secondPage.getNextCursor());
+    }
+
+    @Test
+    void shouldContinueWithinBooksOfSameNameAcrossPages() {
+        Book animalFarm = bookRepository.save(new BookTestBuilder().withName("Animal Farm").build());
+        Book secondAnimalFarm = bookRepository.save(new BookTestBuilder().withName("Animal Farm").build());
+        Book emma = bookRepository.save(new BookTestBuilder().withName("Emma").build());
+
+        BookPage firstPage = bookService.fetchPage(null, 1);
+        BookPage secondPage = bookService.fetchPage(firstPage.getNextCursor(), 1);
+        BookPage thirdPage = bookService.fetchPage(secondPage.getNextCursor(), 1);
+
+        assertEquals(asList(animalFarm.getId()), idsOf(firstPage));
+        assertEquals(asList(secondAnimalFarm.getId()), idsOf(secondPage));
+        assertEquals(asList(emma.getId()), idsOf(thirdPage));
+    }
+
+    @Test
+    void shouldResumeFromDecodedCursor() throws InvalidCursorException {
+        bookRepository.save(new BookTestBuilder().withName("Animal Farm").build());
+        Book emma = bookRepository.save(new BookTestBuilder().withName("Emma").build());
+
+        BookPage firstPage = bookService.fetchPage(null, 1);
+        BookPage secondPage = bookService.fetchPage(BookCursor.decode(firstPage.getNextCursor().encode()), 1);
+
+        assertEquals(asList(emma.getId()), idsOf(secondPage));
+    }
+
+    @Test
+    void shouldExportAllBooksSortedByName() {
+        bookRepository.save(new BookTestBuilder().withName("Wings of Fire").build());
+        bookRepository.save(new BookTestBuilder().withName("Animal Farm").build());
+        List<String> exportedNames = new ArrayList<>();
+
+        bookService.exportAll(book -> exportedNames.add(book.getName()));
+
+        assertEquals(asList("Animal Farm", "Wings of Fire"), exportedNames);
+    }
+
     @Test
     void shouldFetchMatchingBooksOnTitleSearch() {
         Book wingsOfFire = new BookTestBuilder().withName("Wings of Fire").build();
@@ -109,6 +180,58 @@ class BookServiceTest {
         assertEquals("Animal Farms", books.get(2).getName());
     }
 
+    @Test
+    void shouldSearchLoadedBooksOnTitleAuthorAndOriginalTitle() {
+        bookService.loadBooks(asList(
+                bookInformation("Les Misérables", "Victor Hugo", "les-miserables", "Les Misérables"),
+                bookInformation("Wings of Fire", "A P J Abdul Kalam", "wings-of-fire", "Agni Ki Udaan")));
+
+        assertEquals(asList("Les Misérables"), namesOf(bookService.search("MISERABLES", SearchSort.RELEVANCE, false, 10)));
+        assertEquals(asList("Les Misérables"), namesOf(bookService.search("hugo", SearchSort.RELEVANCE, false, 10)));
+        assertEquals(asList("Wings of Fire"), namesOf(bookService.search("agni udaan", SearchSort.NAME, false, 10)));
+        assertTrue(bookService.search("victor kalam", SearchSort.RELEVANCE, false, 10).isEmpty());
+    }
+
+    @Test
+    void shouldSearchUpdatedBookByItsNewTitle() {
+        bookService.loadBooks(asList(bookInformation("Animal Farm", "George Orwell", "orwell", null)));
+        bookService.loadBooks(asList(bookInformation("Nineteen Eighty-Four", "George Orwell", "orwell", null)));
+
+        assertTrue(bookService.search("animal", SearchSort.RELEVANCE, false, 10).isEmpty());
+        assertEquals(asList("Nineteen Eighty-Four"), namesOf(bookService.search("eighty four", SearchSort.RELEVANCE, false, 10)));
+    }
+
+    @Test
+    void shouldFindBooksOfMisspeltAuthorWithFuzzySearch() {
+        bookService.loadBooks(asList(bookInformation("Twilight", "Stephenie Meyer", "twilight", null)));
+
+        assertTrue(bookService.search("Stephanie Meyer", SearchSort.RELEVANCE, false, 10).isEmpty());
+        assertEquals(asList("Twilight"), namesOf(bookService.search("Stephanie Meyer", SearchSort.RELEVANCE, true, 10)));
+    }
+
+    @Test
+    void shouldFilterLoadedBooksOnLanguageOfCsv() {
+        BookInformation emma = BookInformation.builder().name("Emma").authorName("Jane Austen")
+                .amount(500D).booksCount(5).isbn("").isbn13("emma").languageCode("eng").build();
+        BookInformation lesMiserables = BookInformation.builder().name("Les Misérables").authorName("Victor Hugo")
+                .amount(500D).booksCount(5).isbn("").isbn13("les-miserables").languageCode("fre").build();
+        bookService.loadBooks(asList(emma, lesMiserables));
+
+        FilteredBooks filteredBooks = bookService.filter(BookFilter.builder().languageCode("fre").build(), 10);
+
+        assertEquals(asList("Les Misérables"), namesOf(filteredBooks.getBooks()));
+        assertEquals(1, filteredBooks.getTotal());
+        assertEquals("fre", bookRepository.findByIsbn13("les-miserables").getLanguageCode());
+    }
+
+    @Test
+    void shouldSuggestLoadedTitlesAndAuthors() throws InterruptedException {
+        bookService.loadBooks(asList(bookInformation("Twilight", "Stephenie Meyer", "twilight", null)));
+
+        assertEquals(asList(new Suggestion("Twilight", SuggestionType.TITLE, 0)), awaitSuggestions("twi"));
+        assertEquals(asList(new Suggestion("Stephenie Meyer", SuggestionType.AUTHOR, 0)), awaitSuggestions("meyer"));
+    }
+
     @Test
     void shouldReturnBookDetailsWhenBookIdIsValid() throws BookNotFoundException {
         String bookName = "Eclipse (Twilight, #3)";
@@ -229,6 +352,21 @@ class BookServiceTest {
         assertEquals(20, bookRepository.findByIsbn13("harrypotter1").getBooksCount());
     }
 
+    @Test
+    void shouldUpdateBookCountOfBookLoadedWithUntrimmedIsbn13OnceItsIsbnsAreTrimmed() {
+        Book untrimmed = bookRepository.save(Book.from(bookInformation("Emma", "Jane Austen", " emma1 ", "Emma")));
+        Book taken = bookRepository.save(Book.from(bookInformation("Persuasion", "Jane Austen", "persuasion1 ", "Persuasion")));
+        bookRepository.save(Book.from(bookInformation("Persuasion", "Jane Austen", "persuasion1", "Persuasion")));
+
+        new ResourceDatabasePopulator(new ClassPathResource("db/migration/V12_0_1__Trim_Book_Isbns.sql")).execute(dataSource);
+        bookService.loadBooks(asList(bookInformation("Emma", "Jane Austen", "emma1", "Emma")));
+
+        assertEquals(3, bookRepository.count());
+        assertEquals(untrimmed.getId(), bookRepository.findByIsbn13("emma1").getId());
+        assertEquals(10, bookRepository.findByIsbn13("emma1").getBooksCount());
+        assertEquals(taken.getId(), bookRepository.findByIsbn13("persuasion1 ").getId());
+    }
+
     @Test
     void shouldUpdateBookCountWhenUploadingBooksAndIsbn13isMissingAndHasSameIsbn() {
         List<BookInformation> initialBooks = new ArrayList<>();
@@ -369,6 +507,37 @@ class BookServiceTest {
         assertEquals(updatedBook.getLanguageCode(), persistedBook.getLanguageCode());
     }
 
+    @Test
+    void shouldAddUpBooksCountOfRowsWithSameIsbn13InOneUpload() {
+        BookInformation first = bookInformation("Harry Potter", "J K Rowling", "harrypotter1", null);
+        BookInformation second = bookInformation("Harry Potter!", "J K Rowling", "harrypotter1", null);
+
+        List<BookInformation> failedBooks = bookService.loadBooks(asList(first, second));
+
+        assertTrue(failedBooks.isEmpty());
+        assertEquals(1, bookRepository.count());
+        assertEquals(10, bookRepository.findByIsbn13("harrypotter1").getBooksCount());
+        assertEquals("Harry Potter!", bookRepository.findByIsbn13("harrypotter1").getName());
+    }
+
+    @Test
+    void shouldNotSupportCopyImportOnH2() {
+        assertFalse(bookCopyImporter.isSupported());
+    }
+
+    @Test
+    void shouldReportRowsRejectedByDatabaseAndPersistTheRest() {
+        String longName = new String(new char[300]).replace('\0', 'a');
+        BookInformation tooLong = bookInformation(longName, "J K Rowling", "too-long", null);
+        BookInformation valid = bookInformation("Emma", "Jane Austen", "emma", null);
+
+        List<BookInformation> failedBooks = bookService.loadBooks(asList(tooLong, valid));
+
+        assertEquals(asList(tooLong), failedBooks);
+        assertNull(bookRepository.findByIsbn13("too-long"));
+        assertNotNull(bookRepository.findByIsbn13("emma"));
+    }
+
     @Test
     void shouldNotPersistWhenNameIsBlank() {
         List<BookInformation> books = new ArrayList<>();
@@ -489,4 +658,33 @@ class BookServiceTest {
         assertNull(bookRepository.findByIsbn13AndIsbn("",""));
     }
 
-}
\ No newline at end of file
+    private BookInformation bookInformation(String name, String authorName, String isbn13, String originalTitle) {
+        return BookInformation.builder()
+                .name(name)
+                .authorName(authorName)
+                .amount(500D)
+                .booksCount(5)
+                .isbn("")
+                .isbn13(isbn13)
+                .originalTitle(originalTitle)
+                .build();
+    }
+
+    private List<String> namesOf(List<Book> books) {
+        return books.stream().map(Book::getName).collect(Collectors.toList());
+    }
+
+    private List<Long> idsOf(BookPage page) {
+        return page.getBooks().stream().map(Book::getId).collect(Collectors.toList());
+    }
+
+    private List<Suggestion> awaitSuggestions(String prefix) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        List<Suggestion> suggestions = bookService.suggest(prefix, 10);
+        while (suggestions.isEmpty() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            suggestions = bookService.suggest(prefix, 10);
+        }
+        return suggestions;
+    }
+}
@@ -43,4 +43,19 @@ public class BookTestBuilder {
         bookBuilder.smallImageUrl(smallImageUrl);
         return this;
     }
+
+    public BookTestBuilder withAuthorName(String authorName) {
+        bookBuilder.authorName(authorName);
+        return this;
+    }
+
+    public BookTestBuilder withOriginalTitle(String originalTitle) {
+        bookBuilder.originalTitle(originalTitle);
+        return this;
+    }
+
+    public BookTestBuilder withAverageRating(Double averageRating) {
+        bookBuilder.averageRating(averageRating);
+        return this;
+    }
 }
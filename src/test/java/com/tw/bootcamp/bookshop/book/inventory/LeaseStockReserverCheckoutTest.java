@@ -0,0 +1,92 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
+import com.tw.bootcamp.bookshop.user.UserRepository;
+import com.tw.bootcamp.bookshop.user.address.AddressRepository;
+import com.tw.bootcamp.bookshop.user.order.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.annotation.DirtiesContext;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "books.inventory.mode=lease",
+        "books.inventory.lease.size=10",
+        "books.inventory.lease.low-watermark=0"})
+@DirtiesContext
+class LeaseStockReserverCheckoutTest {
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private LeaseStockReserver leases;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    private OrderTestFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new OrderTestFixture(userRepository, addressRepository, bookRepository, orderRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        orderRepository.deleteAll(fixture.orders());
+        jdbcTemplate.update("delete from stock_leases");
+        fixture.cleanUp();
+    }
+
+    @Test
+    void shouldSellEveryBookInCartFromLeases() throws Exception {
+        Long first = fixture.bookWithStock(100);
+        Long second = fixture.bookWithStock(100);
+
+        List<Order> orders = orderService.checkout(checkout(new CheckoutItem(first, 2), new CheckoutItem(second, 3)),
+                fixture.buyer());
+
+        assertEquals(2, orders.size());
+        assertTrue(fixture.orders().stream().allMatch(order -> order.getStockLeaseId() != null));
+        assertEquals(90, fixture.booksCountOf(first));
+        assertEquals(90, fixture.booksCountOf(second));
+        assertEquals(8, leases.leasedUnits(first));
+        assertEquals(7, leases.leasedUnits(second));
+    }
+
+    @Test
+    void shouldReturnUnitsToLeaseWhenCheckoutRollsBack() throws Exception {
+        Long first = fixture.bookWithStock(100);
+        Long second = fixture.bookWithStock(1);
+
+        assertThrows(RequiredBookQuantityNotAvailableException.class, () -> orderService.checkout(checkout(
+                new CheckoutItem(first, 4), new CheckoutItem(second, 2)), fixture.buyer()));
+
+        assertEquals(10, leases.leasedUnits(first));
+        assertEquals(90, fixture.booksCountOf(first));
+        assertEquals(1, fixture.booksCountOf(second));
+        assertEquals(0, fixture.orders().size());
+    }
+
+    private CheckoutRequest checkout(CheckoutItem... items) {
+        return CheckoutRequest.builder()
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(fixture.address().getId())
+                .items(asList(items))
+                .build();
+    }
+}
@@ -0,0 +1,279 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.load.BookLoader;
+import com.tw.bootcamp.bookshop.user.UserRepository;
+import com.tw.bootcamp.bookshop.user.address.AddressRepository;
+import com.tw.bootcamp.bookshop.user.order.Order;
+import com.tw.bootcamp.bookshop.user.order.OrderRepository;
+import com.tw.bootcamp.bookshop.user.order.OrderTestFixture;
+import com.tw.bootcamp.bookshop.user.order.PaymentMode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@SpringBootTest
+class LeaseStockReserverTest {
+    private static final Instant NOW = Instant.parse("2026-10-18T10:00:00Z");
+
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private BookLoader bookLoader;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private final List<LeaseStockReserver> nodes = new ArrayList<>();
+    private OrderTestFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new OrderTestFixture(userRepository, addressRepository, bookRepository, orderRepository);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (LeaseStockReserver node : nodes) {
+            node.shutdown();
+        }
+        orderRepository.deleteAll(fixture.orders());
+        jdbcTemplate.update("delete from stock_leases");
+        fixture.cleanUp();
+    }
+
+    @Test
+    void shouldSellFromLocalLeaseWithoutTouchingStock() {
+        Long bookId = bookWithStock(100);
+        LeaseStockReserver node = node("node-1", 50, 10, NOW);
+
+        assertTrue(node.reserve(bookId, 1).isPresent());
+        assertEquals(50, booksCountOf(bookId));
+
+        assertTrue(node.reserve(bookId, 5).isPresent());
+        assertEquals(50, booksCountOf(bookId));
+        assertEquals(44, node.leasedUnits(bookId));
+    }
+
+    @Test
+    void shouldLeaseMoreUnitsWhenLeaseRunsOut() {
+        Long bookId = bookWithStock(25);
+        LeaseStockReserver node = node("node-1", 10, 0, NOW);
+
+        assertTrue(node.reserve(bookId, 10).isPresent());
+        assertTrue(node.reserve(bookId, 12).isPresent());
+        assertEquals(3, booksCountOf(bookId));
+
+        assertTrue(node.reserve(bookId, 3).isPresent());
+        assertEquals(0, booksCountOf(bookId));
+        assertFalse(node.reserve(bookId, 1).isPresent());
+    }
+
+    @Test
+    void shouldReturnUnsoldUnitsOnShutdown() throws Exception {
+        Long bookId = bookWithStock(100);
+        LeaseStockReserver node = node("node-1", 10, 0, NOW);
+        assertTrue(node.reserve(bookId, 3).isPresent());
+
+        node.shutdown();
+
+        assertEquals(97, booksCountOf(bookId));
+        assertEquals(0, leaseCount());
+    }
+
+    @Test
+    void shouldRetireSoldOutLeaseWhenRenewing() {
+        Long bookId = bookWithStock(100);
+        LeaseStockReserver node = node("node-1", 10, 0, NOW);
+        assertTrue(node.reserve(bookId, 10).isPresent());
+
+        node.renewLeases();
+
+        assertEquals(0, leaseCount());
+        assertEquals(90, booksCountOf(bookId));
+        assertTrue(node.reserve(bookId, 1).isPresent());
+        assertEquals(80, booksCountOf(bookId));
+    }
+
+    @Test
+    void shouldKeepLeaseWhenUploadAddsStockOfLeasedBook() throws Exception {
+        Book book = fixture.book(Book.builder()
+                .name("Harry Potter")
+                .authorName("J K Rowling")
+                .amount(300D)
+                .booksCount(100)
+                .isbn13("9780747532699")
+                .build());
+        LeaseStockReserver node = node("node-1", 10, 0, NOW);
+        assertTrue(node.reserve(book.getId(), 1).isPresent());
+
+        assertTrue(bookLoader.load(Collections.singletonList(BookInformation.builder()
+                .name(book.getName())
+                .authorName(book.getAuthorName())
+                .amount(book.getAmount())
+                .booksCount(5)
+                .isbn13(book.getIsbn13())
+                .build())).isEmpty());
+
+        assertEquals(95, booksCountOf(book.getId()));
+        assertEquals(9, node.leasedUnits(book.getId()));
+        assertEquals(1, leaseCount());
+        assertTrue(node.reserve(book.getId(), 9).isPresent());
+        assertEquals(95, booksCountOf(book.getId()));
+
+        node.shutdown();
+        assertEquals(95, booksCountOf(book.getId()));
+        assertEquals(0, leaseCount());
+    }
+
+    @Test
+    void shouldNeverOversellWhenNodesSellFromTheirLeasesConcurrently() throws Exception {
+        Long bookId = bookWithStock(100);
+        List<LeaseStockReserver> cluster = new ArrayList<>();
+        for (int i = 1; i <= 3; i++) {
+            cluster.add(node("node-" + i, 10, 3, Instant.now()));
+        }
+        AtomicInteger sold = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(48);
+        List<Future<?>> purchases = new ArrayList<>();
+
+        for (int i = 0; i < 48; i++) {
+            LeaseStockReserver node = cluster.get(i % cluster.size());
+            purchases.add(buyers.submit(() -> {
+                start.await();
+                while (node.reserve(bookId, 1).isPresent()) {
+                    sold.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> purchase : purchases) {
+            purchase.get(30, TimeUnit.SECONDS);
+        }
+        buyers.shutdown();
+        for (LeaseStockReserver node : cluster) {
+            node.shutdown();
+        }
+
+        assertTrue(sold.get() <= 100);
+        assertEquals(100, sold.get() + booksCountOf(bookId));
+        assertEquals(0, leaseCount());
+    }
+
+    @Test
+    void shouldReturnUnsoldUnitsOfExpiredLeaseOfCrashedNode() {
+        Book book = bookRepository.findById(bookWithStock(100)).orElseThrow(IllegalStateException::new);
+        LeaseStockReserver crashed = node("node-1", 10, 0, NOW);
+        StockReservation first = crashed.reserve(book.getId(), 1).orElseThrow(IllegalStateException::new);
+        StockReservation second = crashed.reserve(book.getId(), 1).orElseThrow(IllegalStateException::new);
+        assertTrue(crashed.reserve(book.getId(), 1).isPresent());
+        placeOrder(book, first);
+        placeOrder(book, second);
+
+        node("node-2", 10, 0, NOW.plus(Duration.ofSeconds(59))).reclaimExpiredLeases();
+        assertEquals(90, booksCountOf(book.getId()));
+
+        node("node-2", 10, 0, NOW.plus(Duration.ofMinutes(2))).reclaimExpiredLeases();
+        assertEquals(98, booksCountOf(book.getId()));
+        assertEquals(0, leaseCount());
+    }
+
+    @Test
+    void shouldNotSellFromLeaseReclaimedByAnotherNode() {
+        Long bookId = bookWithStock(100);
+        LeaseStockReserver lagging = node("node-1", 10, 0, NOW);
+        StockReservation first = lagging.reserve(bookId, 1).orElseThrow(IllegalStateException::new);
+        node("node-2", 10, 0, NOW.plus(Duration.ofMinutes(2))).reclaimExpiredLeases();
+        assertEquals(100, booksCountOf(bookId));
+
+        StockReservation next = new TransactionTemplate(transactionManager)
+                .execute(status -> lagging.reserve(bookId, 1).orElseThrow(IllegalStateException::new));
+
+        assertNotEquals(first.getLeaseId(), next.getLeaseId());
+        assertEquals(90, booksCountOf(bookId));
+        assertEquals(9, lagging.leasedUnits(bookId));
+    }
+
+    @Test
+    void shouldCountKeeperRunsThatFail() {
+        JdbcTemplate unreachable = mock(JdbcTemplate.class, invocation -> {
+            throw new DataAccessResourceFailureException("Database is down");
+        });
+        LeaseStockReserver node = node(unreachable, "node-1", 10, 0, NOW);
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        node.bindTo(registry);
+
+        node.keepLeasesQuietly();
+
+        assertEquals(1, registry.get("books.inventory.lease.keeper.failures").functionCounter().count());
+        assertEquals(0, registry.get("books.inventory.lease.refill.failures").functionCounter().count());
+    }
+
+    private LeaseStockReserver node(String nodeId, long leaseSize, long lowWatermark, Instant now) {
+        return node(jdbcTemplate, nodeId, leaseSize, lowWatermark, now);
+    }
+
+    private LeaseStockReserver node(JdbcTemplate jdbcTemplate, String nodeId, long leaseSize, long lowWatermark,
+                                    Instant now) {
+        LeaseStockReserver node = new LeaseStockReserver(jdbcTemplate, transactionManager, nodeId, leaseSize,
+                lowWatermark, Duration.ofMinutes(1), Clock.fixed(now, ZoneOffset.UTC));
+        nodes.add(node);
+        return node;
+    }
+
+    private void placeOrder(Book book, StockReservation reservation) {
+        orderRepository.save(Order.builder()
+                .quantity(1)
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY.toString())
+                .user(fixture.buyer())
+                .shippingAddress(fixture.address())
+                .bookToPurchase(book)
+                .stockLeaseId(reservation.getLeaseId())
+                .build());
+    }
+
+    private Long bookWithStock(int booksCount) {
+        return fixture.bookWithStock(booksCount);
+    }
+
+    private int booksCountOf(Long bookId) {
+        return fixture.booksCountOf(bookId);
+    }
+
+    private int leaseCount() {
+        return jdbcTemplate.queryForObject("select count(*) from stock_leases", Integer.class);
+    }
+}
@@ -0,0 +1,96 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
+import com.tw.bootcamp.bookshop.user.UserRepository;
+import com.tw.bootcamp.bookshop.user.address.AddressRepository;
+import com.tw.bootcamp.bookshop.user.order.*;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.nio.file.Files;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "books.inventory.mode=ledger")
+@DirtiesContext
+class LedgerStockReserverCheckoutTest {
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private LedgerStockReserver ledger;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private OrderTestFixture fixture;
+
+    @DynamicPropertySource
+    static void journalDirectory(DynamicPropertyRegistry registry) throws Exception {
+        String directory = Files.createTempDirectory("inventory-journal").toString();
+        registry.add("books.inventory.ledger.journal-directory", () -> directory);
+    }
+
+    @BeforeEach
+    void setUp() {
+        fixture = new OrderTestFixture(userRepository, addressRepository, bookRepository, orderRepository);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        ledger.flush();
+        fixture.cleanUp();
+    }
+
+    @Test
+    void shouldReserveStockOfEveryBookInCartFromLedger() throws Exception {
+        Long first = fixture.bookWithStock(10);
+        Long second = fixture.bookWithStock(5);
+
+        List<Order> orders = orderService.checkout(checkout(new CheckoutItem(first, 3), new CheckoutItem(second, 5)),
+                fixture.buyer());
+        ledger.flush();
+
+        assertEquals(2, orders.size());
+        assertEquals(7, fixture.booksCountOf(first));
+        assertEquals(0, fixture.booksCountOf(second));
+        assertTrue(fixture.orders().stream().noneMatch(order -> order.getStockLeaseId() != null));
+    }
+
+    @Test
+    void shouldReleaseLedgerReservationsWhenCheckoutRollsBack() throws Exception {
+        Long first = fixture.bookWithStock(10);
+        Long second = fixture.bookWithStock(1);
+
+        assertThrows(RequiredBookQuantityNotAvailableException.class, () -> orderService.checkout(checkout(
+                new CheckoutItem(first, 4), new CheckoutItem(second, 2)), fixture.buyer()));
+        ledger.flush();
+
+        assertEquals(10, fixture.booksCountOf(first));
+        assertEquals(1, fixture.booksCountOf(second));
+        assertEquals(0, fixture.orders().size());
+        assertEquals(1, orderService.checkout(checkout(new CheckoutItem(first, 10)), fixture.buyer()).size());
+        ledger.flush();
+        assertEquals(0, fixture.booksCountOf(first));
+    }
+
+    private CheckoutRequest checkout(CheckoutItem... items) {
+        return CheckoutRequest.builder()
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(fixture.address().getId())
+                .items(asList(items))
+                .build();
+    }
+}
@@ -0,0 +1,256 @@
+package com.tw.bootcamp.bookshop.book.inventory;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BookTestBuilder;
+import com.tw.bootcamp.bookshop.book.BooksUpdatedEvent;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class LedgerStockReserverTest {
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+    private Path journalDirectory;
+    private final List<LedgerStockReserver> ledgers = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        journalDirectory = Files.createTempDirectory("inventory-journal");
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        for (LedgerStockReserver ledger : ledgers) {
+            ledger.shutdown();
+        }
+        jdbcTemplate.update("delete from inventory_checkpoints");
+        bookRepository.deleteAll();
+        InventoryJournal.deleteAll(journalDirectory);
+        Files.deleteIfExists(journalDirectory);
+    }
+
+    @Test
+    void shouldNeverOversellWhenBuyersReserveFromLedgerConcurrently() throws Exception {
+        Long bookId = bookWithStock(10);
+        LedgerStockReserver ledger = ledger();
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(64);
+        List<Future<?>> reservations = new ArrayList<>();
+
+        for (int i = 0; i < 64; i++) {
+            reservations.add(buyers.submit(() -> {
+                start.await();
+                if (ledger.reserve(bookId, 1).isPresent()) {
+                    reserved.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> reservation : reservations) {
+            reservation.get(30, TimeUnit.SECONDS);
+        }
+        buyers.shutdown();
+        ledger.flush();
+
+        assertEquals(10, reserved.get());
+        assertEquals(0, booksCountOf(bookId));
+    }
+
+    @Test
+    void shouldNeverOversellWhenStockIsReseededWhileFlushing() throws Exception {
+        Book book = bookRepository.save(new BookTestBuilder().withBooksCount(200).build());
+        LedgerStockReserver ledger = ledger();
+        AtomicBoolean selling = new AtomicBoolean(true);
+        ExecutorService background = Executors.newFixedThreadPool(2);
+        Future<?> flushing = background.submit(() -> {
+            while (selling.get()) {
+                ledger.flush();
+            }
+            return null;
+        });
+        Future<?> reseeding = background.submit(() -> {
+            while (selling.get()) {
+                ledger.onBooksUpdated(new BooksUpdatedEvent(Collections.singletonList(book)));
+            }
+            return null;
+        });
+
+        int sold = 0;
+        while (ledger.reserve(book.getId(), 1).isPresent()) {
+            sold++;
+        }
+        selling.set(false);
+        flushing.get(30, TimeUnit.SECONDS);
+        reseeding.get(30, TimeUnit.SECONDS);
+        background.shutdown();
+        ledger.flush();
+
+        assertEquals(200, sold);
+        assertEquals(0, booksCountOf(book.getId()));
+    }
+
+    @Test
+    void shouldNotWriteReservationsUntilFlushed() throws Exception {
+        Long bookId = bookWithStock(10);
+        LedgerStockReserver ledger = ledger();
+
+        assertTrue(ledger.reserve(bookId, 4).isPresent());
+        assertEquals(10, booksCountOf(bookId));
+
+        ledger.flush();
+        assertEquals(6, booksCountOf(bookId));
+    }
+
+    @Test
+    void shouldReportUnflushedUnitsUntilFlushed() throws Exception {
+        Long bookId = bookWithStock(10);
+        LedgerStockReserver ledger = ledger();
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        ledger.bindTo(registry);
+
+        assertTrue(ledger.reserve(bookId, 4).isPresent());
+        assertEquals(4, registry.get("books.inventory.ledger.unflushed").gauge().value());
+
+        ledger.flush();
+        assertEquals(0, registry.get("books.inventory.ledger.unflushed").gauge().value());
+        assertEquals(0, registry.get("books.inventory.ledger.flush.failures").functionCounter().count());
+    }
+
+    @Test
+    void shouldNotCacheCounterOfMissingBook() {
+        LedgerStockReserver ledger = ledger();
+
+        assertFalse(ledger.reserve(Long.MAX_VALUE, 1).isPresent());
+
+        assertEquals(0, ledger.cachedBooks());
+        assertEquals(0, ledger.unflushedUnits());
+    }
+
+    @Test
+    void shouldEvictCounterOfBookOnceItsReservationsAreFlushed() throws Exception {
+        Long bookId = bookWithStock(10);
+        LedgerStockReserver ledger = ledger();
+        assertTrue(ledger.reserve(bookId, 4).isPresent());
+        assertEquals(1, ledger.cachedBooks());
+
+        ledger.flush();
+
+        assertEquals(0, ledger.cachedBooks());
+        assertTrue(ledger.reserve(bookId, 6).isPresent());
+        assertFalse(ledger.reserve(bookId, 1).isPresent());
+    }
+
+    @Test
+    void shouldReplayJournalOnceAfterCrash() throws Exception {
+        Long bookId = bookWithStock(10);
+        LedgerStockReserver crashed = new LedgerStockReserver(jdbcTemplate, transactionManager,
+                journalDirectory.toString(), Duration.ofHours(1));
+        assertTrue(crashed.reserve(bookId, 3).isPresent());
+        assertTrue(crashed.reserve(bookId, 2).isPresent());
+
+        ledger().recoverJournal();
+        assertEquals(5, booksCountOf(bookId));
+
+        ledger().recoverJournal();
+        assertEquals(5, booksCountOf(bookId));
+    }
+
+    @Test
+    void shouldReleaseReservationWhenTransactionRollsBack() throws Exception {
+        Long bookId = bookWithStock(2);
+        LedgerStockReserver ledger = ledger();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            assertTrue(ledger.reserve(bookId, 2).isPresent());
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertTrue(ledger.reserve(bookId, 2).isPresent());
+        assertFalse(ledger.reserve(bookId, 1).isPresent());
+        ledger.flush();
+        assertEquals(0, booksCountOf(bookId));
+    }
+
+    @Test
+    void shouldJournalReservationOnlyOnceTransactionCommits() {
+        Long bookId = bookWithStock(10);
+        LedgerStockReserver ledger = ledger();
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            assertTrue(ledger.reserve(bookId, 3).isPresent());
+            assertEquals(0, journalEntries().size());
+            return null;
+        });
+
+        assertEquals(1, journalEntries().size());
+        assertEquals(3, journalEntries().get(0).getQuantity());
+    }
+
+    @Test
+    void shouldNotReplayReservationWhoseTransactionNeverCommitted() {
+        Long bookId = bookWithStock(10);
+        LedgerStockReserver crashed = new LedgerStockReserver(jdbcTemplate, transactionManager,
+                journalDirectory.toString(), Duration.ofHours(1));
+
+        new TransactionTemplate(transactionManager).execute(status -> {
+            assertTrue(crashed.reserve(bookId, 3).isPresent());
+            ledger().recoverJournal();
+            status.setRollbackOnly();
+            return null;
+        });
+
+        assertEquals(10, booksCountOf(bookId));
+    }
+
+    private LedgerStockReserver ledger() {
+        LedgerStockReserver ledger = new LedgerStockReserver(jdbcTemplate, transactionManager,
+                journalDirectory.toString(), Duration.ofHours(1));
+        ledgers.add(ledger);
+        return ledger;
+    }
+
+    private Long bookWithStock(int booksCount) {
+        return bookRepository.save(new BookTestBuilder().withBooksCount(booksCount).build()).getId();
+    }
+
+    private List<InventoryJournal.Entry> journalEntries() {
+        try {
+            return InventoryJournal.read(journalDirectory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int booksCountOf(Long bookId) {
+        return bookRepository.findById(bookId).orElseThrow(IllegalStateException::new).getBooksCount();
+    }
+}
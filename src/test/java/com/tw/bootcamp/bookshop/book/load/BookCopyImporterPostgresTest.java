@@ -0,0 +1,110 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.util.StreamUtils;
+
+import java.io.BufferedReader;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = {
+        "spring.datasource.url=${BOOKSHOP_TEST_POSTGRES_URL}",
+        "spring.datasource.driverClassName=org.postgresql.Driver",
+        "spring.datasource.username=${BOOKSHOP_TEST_POSTGRES_USERNAME:postgres}",
+        "spring.datasource.password=${BOOKSHOP_TEST_POSTGRES_PASSWORD:postgres}",
+        "spring.jpa.database-platform=org.hibernate.dialect.PostgreSQLDialect",
+        "spring.jpa.hibernate.ddl-auto=validate"})
+@EnabledIfEnvironmentVariable(named = "BOOKSHOP_TEST_POSTGRES_URL", matches = ".+")
+class BookCopyImporterPostgresTest {
+    private static final String ISBN = "0747532699";
+
+    @Autowired
+    private BookCopyImporter bookCopyImporter;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @AfterEach
+    void tearDown() {
+        bookRepository.deleteAll(bookRepository.findByIsbnIn(Collections.singleton(ISBN)));
+    }
+
+    @Test
+    void shouldImportRowWithIsbnButNoIsbn13() throws Exception {
+        String csv = "title,author,price,books_count,isbn13,isbn\n" +
+                "Harry Potter,J K Rowling,500,3,," + ISBN + "\n";
+
+        try (FailedBooksFile failedBooks = new FailedBooksFile(objectMapper)) {
+            bookCopyImporter.importCsv(new BufferedReader(new StringReader(csv)), null, failedBooks);
+
+            try (InputStream failed = failedBooks.toResource().getInputStream()) {
+                assertEquals("[]", StreamUtils.copyToString(failed, StandardCharsets.UTF_8).trim());
+            }
+        }
+        Book book = bookRepository.findByIsbn(ISBN);
+        assertNotNull(book);
+        assertEquals("", book.getIsbn13());
+        assertEquals(3, book.getBooksCount());
+    }
+
+    @Test
+    void shouldUpdateBookWithIsbn13ForRowWithOnlyItsIsbn() throws Exception {
+        Book existing = bookRepository.save(book("9780747532699"));
+        String csv = "title,author,price,books_count,isbn13,isbn\n" +
+                "Harry Potter,J K Rowling,500,3,," + ISBN + "\n";
+
+        assertEquals("[]", importCsv(csv));
+
+        List<Book> books = bookRepository.findByIsbnIn(Collections.singleton(ISBN));
+        assertEquals(1, books.size());
+        assertEquals(existing.getId(), books.get(0).getId());
+        assertEquals("9780747532699", books.get(0).getIsbn13());
+        assertEquals(5, books.get(0).getBooksCount());
+    }
+
+    @Test
+    void shouldFailRowWhoseIsbnMatchesSeveralBooks() throws Exception {
+        bookRepository.save(book("9780747532699"));
+        bookRepository.save(book("9780747532700"));
+        String csv = "title,author,price,books_count,isbn13,isbn\n" +
+                "Harry Potter,J K Rowling,500,3,," + ISBN + "\n";
+
+        assertTrue(importCsv(csv).contains(ISBN));
+
+        assertEquals(2, bookRepository.findByIsbnIn(Collections.singleton(ISBN)).size());
+    }
+
+    private String importCsv(String csv) throws Exception {
+        try (FailedBooksFile failedBooks = new FailedBooksFile(objectMapper)) {
+            bookCopyImporter.importCsv(new BufferedReader(new StringReader(csv)), null, failedBooks);
+            try (InputStream failed = failedBooks.toResource().getInputStream()) {
+                return StreamUtils.copyToString(failed, StandardCharsets.UTF_8).trim();
+            }
+        }
+    }
+
+    private Book book(String isbn13) {
+        return Book.builder()
+                .name("Harry Potter")
+                .authorName("J K Rowling")
+                .amount(500D)
+                .currency("INR")
+                .booksCount(2)
+                .isbn(ISBN)
+                .isbn13(isbn13)
+                .build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookCopyImporterTest {
+    @Test
+    void shouldMapCsvHeaderToStagingColumnsOfBookInformation() {
+        List<String> columns = BookCopyImporter.copyColumns(
+                new String[]{"id", " Author ", "title", "price", "books_count", "isbn13", "average_rating"}, null);
+
+        assertEquals(asList("id", "author_name", "name", "amount", "books_count", "isbn13", "average_rating"), columns);
+    }
+
+    @Test
+    void shouldCopyUnknownAndRepeatedHeaderColumnsIntoIgnoredColumns() {
+        List<String> columns = BookCopyImporter.copyColumns(new String[]{"title", "publisher", "title"}, null);
+
+        assertEquals(asList("name", "ignored_1", "ignored_2"), columns);
+    }
+
+    @Test
+    void shouldMapCsvHeaderWithGivenProfile() {
+        List<String> columns = BookCopyImporter.copyColumns(new String[]{"name", "author_name", "small_image"},
+                BookCsvProfile.SUPPLIER);
+
+        assertEquals(asList("name", "author_name", "small_image_url"), columns);
+    }
+}
@@ -0,0 +1,134 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.opencsv.bean.CsvBindByName;
+import com.opencsv.bean.CsvToBeanBuilder;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BookCsvTest {
+    @Test
+    void shouldDetectProfileMatchingMostHeaderColumns() {
+        assertEquals(BookCsvProfile.STANDARD, BookCsvProfile.detect(new String[]{"id", "author", "title", "small_image_url"}));
+        assertEquals(BookCsvProfile.SUPPLIER, BookCsvProfile.detect(new String[]{"id", "author_name", "name", "small_image"}));
+    }
+
+    @Test
+    void shouldBindColumnsOfGivenProfileInAnyOrder() {
+        String csv = "\uFEFFisbn13,Name,author_name,price,books_count,average_rating\n" +
+                "9780000000001,Emma,Jane Austen,100,2,4.5\n";
+
+        BookInformation book = rowsOf(csv, BookCsvProfile.SUPPLIER).get(0);
+
+        assertEquals("Emma", book.getName());
+        assertEquals("Jane Austen", book.getAuthorName());
+        assertEquals("9780000000001", book.getIsbn13());
+        assertEquals(100D, book.getAmount());
+        assertEquals(2, book.getBooksCount());
+        assertEquals(4.5, book.getAverageRating());
+        assertNull(book.getIsbn());
+    }
+
+    @Test
+    void shouldLeaveUnparseableNumbersEmptySoTheRowFailsValidation() {
+        String csv = "title,author,price,books_count,isbn,isbn13\n" +
+                "Emma,Jane Austen,free,,isbn1,\n" +
+                "\n" +
+                "Dune,Frank Herbert,200,4,isbn2,\n";
+
+        List<BookInformation> books = rowsOf(csv, null);
+
+        assertEquals(2, books.size());
+        assertNull(books.get(0).getAmount());
+        assertNull(books.get(0).getBooksCount());
+        assertEquals("", books.get(0).getIsbn13());
+        assertTrue(books.get(0).isMalformed());
+        assertEquals(200D, books.get(1).getAmount());
+        assertFalse(books.get(1).isMalformed());
+    }
+
+    @Test
+    void shouldFailRowWithUnparseableOptionalNumberInsteadOfDroppingIt() {
+        String csv = "title,author,price,books_count,isbn13,isbn,average_rating\n" +
+                "Emma,Jane Austen,100,2,9780000000001,,great\n" +
+                "Dune,Frank Herbert,200,4,9780000000002,,\n";
+        BookRowValidator validator = new BookRowValidator(Validation.buildDefaultValidatorFactory().getValidator());
+
+        List<BookInformation> books = rowsOf(csv, null);
+
+        assertNull(books.get(0).getAverageRating());
+        assertFalse(validator.isValid(validator.normalise(books.get(0))));
+        assertTrue(validator.isValid(validator.normalise(books.get(1))));
+    }
+
+    @Test
+    void shouldBindRowsAtLeastFiveTimesAsFastAsBindingAnnotatedBeanByName() {
+        String csv = "id,title,author,price,image_url,small_image_url,books_count,isbn13,isbn," +
+                "original_publication_year,original_title,language_code,average_rating\n" +
+                IntStream.range(0, 5000)
+                        .mapToObj(i -> i + ",Title " + i + ",Author " + i + ",100.5,https://img/" + i + ".jpg," +
+                                "https://img/s" + i + ".jpg,3,978000000" + i + ",isbn" + i + ",1999,Original " + i +
+                                ",eng,4.25")
+                        .collect(Collectors.joining("\n"));
+        nanosToBind(() -> rowsOf(csv, BookCsvProfile.STANDARD));
+        nanosToBind(() -> new CsvToBeanBuilder<AnnotatedRow>(new StringReader(csv)).withType(AnnotatedRow.class).build().parse());
+
+        long byIndexNanos = nanosToBind(() -> assertEquals(5000, rowsOf(csv, BookCsvProfile.STANDARD).size()));
+        long byNameNanos = nanosToBind(() -> assertEquals(5000, new CsvToBeanBuilder<AnnotatedRow>(new StringReader(csv))
+                .withType(AnnotatedRow.class).build().parse().size()));
+
+        assertTrue(byIndexNanos * 5 <= byNameNanos,
+                "by index " + byIndexNanos / 1_000_000 + " ms, @CsvBindByName " + byNameNanos / 1_000_000 + " ms");
+    }
+
+    private long nanosToBind(Runnable bind) {
+        long start = System.nanoTime();
+        bind.run();
+        return System.nanoTime() - start;
+    }
+
+    private List<BookInformation> rowsOf(String csv, BookCsvProfile profile) {
+        List<BookInformation> books = new ArrayList<>();
+        Iterator<BookInformation> rows = BookCsv.rows(new StringReader(csv), profile);
+        rows.forEachRemaining(books::add);
+        return books;
+    }
+
+    public static class AnnotatedRow {
+        @CsvBindByName(column = "id")
+        private Long id;
+        @CsvBindByName(column = "title")
+        private String name;
+        @CsvBindByName(column = "author")
+        private String authorName;
+        @CsvBindByName(column = "price")
+        private Double amount;
+        @CsvBindByName(column = "image_url")
+        private String imageUrl;
+        @CsvBindByName(column = "small_image_url")
+        private String smallImageUrl;
+        @CsvBindByName(column = "books_count")
+        private Integer booksCount;
+        @CsvBindByName(column = "isbn13")
+        private String isbn13;
+        @CsvBindByName(column = "isbn")
+        private String isbn;
+        @CsvBindByName(column = "original_publication_year")
+        private String originalPublicationYear;
+        @CsvBindByName(column = "original_title")
+        private String originalTitle;
+        @CsvBindByName(column = "language_code")
+        private String languageCode;
+        @CsvBindByName(column = "average_rating")
+        private Double averageRating;
+    }
+}
@@ -0,0 +1,459 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobRejectedException;
+import com.tw.bootcamp.bookshop.user.Role;
+import com.tw.bootcamp.bookshop.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.util.StreamUtils;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = BookLoadController.class, properties = "books.load.jobs.sync-max-size=1KB")
+@Import({BookLoadService.class, BookLoadThrottle.class})
+@WithMockUser
+class BookLoadControllerTest {
+    private static final String JOB_ID = "5f0c6c1e-8d3a-4b7e-9f43-2f1b7d1e9a10";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookLoader bookLoader;
+
+    @MockBean
+    private BookCopyImporter bookCopyImporter;
+
+    @MockBean
+    private BookLoadJobService bookLoadJobService;
+
+    @MockBean
+    UserService userService;
+
+    @Captor
+    private ArgumentCaptor<List<BookInformation>> booksCaptor;
+
+    @Test
+    void shouldReturnStatusOkWhenCSVFileIsUploaded() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
+
+        this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldReturnStatusBadRequestWhenTextFileIsUploaded() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.txt");
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.txt", "text/plain", uploadStream);
+
+        this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isBadRequest());
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldNotUploadWhenNonAdminTriedToUploadTheBooks() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
+
+        this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("user@bookshopify.com").password("user").roles(Role.USER.name())))
+                .andExpect(status().isForbidden());
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldReturnBadRequestWhenFileIsMissing() throws Exception {
+        this.mockMvc.perform(multipart("/admin/books/load").with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void shouldCallLoadBooksMethodWhenValidCSVFileIsUploaded() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
+
+        Book firstBook = Book.builder()
+                .name("City of Jones (The Mortal Instruments, #1)")
+                .authorName("Cassandra Clare")
+                .amount(1461D)
+                .booksCount(178)
+                .averageRating(4.12)
+                .currency("INR")
+                .imageUrl("https://images.gr-assets.com/books/1432730315m/256683.jpg")
+                .smallImageUrl("https://images.gr-assets.com/books/1432730315s/256683.jpg")
+                .isbn("1416914285")
+                .isbn13("9781416914280")
+                .originalPublicationYear("2007")
+                .originalTitle("City of Bones")
+                .languageCode("eng")
+                .build();
+
+        this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        then(bookLoader).should().load(booksCaptor.capture());
+        List<BookInformation> capturedBooks = booksCaptor.getValue();
+        BookInformation firstCapturedBook = capturedBooks.get(0);
+
+        assertEquals(firstBook.getName(), firstCapturedBook.getName());
+        assertEquals(firstBook.getAuthorName(), firstCapturedBook.getAuthorName());
+        assertEquals(firstBook.getBooksCount(), firstCapturedBook.getBooksCount());
+        assertEquals(firstBook.getAmount(), firstCapturedBook.getAmount());
+        assertEquals(firstBook.getImageUrl(), firstCapturedBook.getImageUrl());
+        assertEquals(firstBook.getSmallImageUrl(), firstCapturedBook.getSmallImageUrl());
+        assertEquals(firstBook.getAverageRating(), firstCapturedBook.getAverageRating());
+        assertEquals(firstBook.getOriginalPublicationYear(), firstCapturedBook.getOriginalPublicationYear());
+        assertEquals(firstBook.getOriginalTitle(), firstCapturedBook.getOriginalTitle());
+        assertEquals(firstBook.getLanguageCode(), firstCapturedBook.getLanguageCode());
+        assertEquals(firstBook.getIsbn(), firstCapturedBook.getIsbn());
+        assertEquals(firstBook.getIsbn13(), firstCapturedBook.getIsbn13());
+
+        verify(bookLoader, times(1)).load(anyList());
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldLoadBooksFromGzipCompressedCsv() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
+             GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            StreamUtils.copy(uploadStream, gzip);
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv.gz", "application/gzip", compressed.toByteArray());
+
+        this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        then(bookLoader).should().load(booksCaptor.capture());
+        assertEquals("9781416914280", booksCaptor.getValue().get(0).getIsbn13());
+    }
+
+    @Test
+    void shouldLoadBooksStreamedAsRequestBody() throws Exception {
+        byte[] csv;
+        try (InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv")) {
+            csv = StreamUtils.copyToByteArray(uploadStream);
+        }
+
+        this.mockMvc.perform(post("/admin/books/load").contentType("text/csv").content(csv)
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$").isArray());
+
+        then(bookLoader).should().load(booksCaptor.capture());
+        assertEquals("9781416914280", booksCaptor.getValue().get(0).getIsbn13());
+    }
+
+    @Test
+    void shouldLoadGzipCompressedBooksStreamedAsRequestBody() throws Exception {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
+             GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            StreamUtils.copy(uploadStream, gzip);
+        }
+
+        this.mockMvc.perform(post("/admin/books/load").contentType("application/gzip").content(compressed.toByteArray())
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        then(bookLoader).should().load(booksCaptor.capture());
+        assertEquals("9781416914280", booksCaptor.getValue().get(0).getIsbn13());
+    }
+
+    @Test
+    void shouldRejectRequestBodyOfUnsupportedType() throws Exception {
+        this.mockMvc.perform(post("/admin/books/load").contentType("text/plain").content("title\nEmma\n")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isUnsupportedMediaType());
+
+        verify(bookLoader, never()).load(anyList());
+    }
+
+    @Test
+    void shouldNotStreamBooksWhenNonAdminTriedToLoadThem() throws Exception {
+        this.mockMvc.perform(post("/admin/books/load").contentType("text/csv").content("title\nEmma\n")
+                        .with(user("user@bookshopify.com").password("user").roles(Role.USER.name())))
+                .andExpect(status().isForbidden());
+    }
+
+    @Test
+    void shouldReturnDiffWithoutLoadingBooksOnDryRun() throws Exception {
+        BookLoadThrottle loadThrottle = new BookLoadThrottle(1, 1, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                Duration.ZERO, Duration.ZERO, new String[0]);
+        when(bookLoader.preview()).thenReturn(new BookLoadPreview(mock(BookRepository.class), loadThrottle));
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                ("title,author,price,books_count,isbn,isbn13\n" +
+                        "Emma,Jane Austen,100,2,isbn1,9780000000001\n" +
+                        "Dune,,200,4,isbn2,9780000000002\n").getBytes());
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("dryRun", "true")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition", "attachment; filename=\"book-load-diff.json\""))
+                .andExpect(jsonPath("$.changes[0].action").value("INSERT"))
+                .andExpect(jsonPath("$.changes[1].action").value("FAILED"))
+                .andExpect(jsonPath("$.summary.inserted").value(1))
+                .andExpect(jsonPath("$.summary.stockDelta").value(2))
+                .andExpect(jsonPath("$.summary.failed").value(1));
+        verify(bookLoader, never()).load(anyList());
+        loadThrottle.shutdown();
+    }
+
+    @Test
+    void shouldDiffRowsOfCsvWithoutIsbnColumnOnDryRun() throws Exception {
+        BookLoadThrottle loadThrottle = new BookLoadThrottle(1, 1, Duration.ofSeconds(1), Duration.ofSeconds(1),
+                Duration.ZERO, Duration.ZERO, new String[0]);
+        when(bookLoader.preview()).thenReturn(new BookLoadPreview(mock(BookRepository.class), loadThrottle));
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv",
+                ("title,author,price,books_count,isbn13\n" +
+                        "Emma,Jane Austen,100,2,9780000000001\n" +
+                        "Dune,Frank Herbert,200,4,\n").getBytes());
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("dryRun", "true")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.changes[0].action").value("INSERT"))
+                .andExpect(jsonPath("$.changes[0].isbn").value(""))
+                .andExpect(jsonPath("$.changes[1].action").value("FAILED"))
+                .andExpect(jsonPath("$.summary.inserted").value(1))
+                .andExpect(jsonPath("$.summary.failed").value(1));
+        loadThrottle.shutdown();
+    }
+
+    @Test
+    void shouldLoadBooksOfSupplierShapedCsvWithDetectedProfile() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.txt");
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
+
+        this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        then(bookLoader).should().load(booksCaptor.capture());
+        BookInformation firstCapturedBook = booksCaptor.getValue().get(0);
+        assertEquals("City of Jones (The Mortal Instruments, #1)", firstCapturedBook.getName());
+        assertEquals("Cassandra Clare", firstCapturedBook.getAuthorName());
+        assertEquals("https://images.gr-assets.com/books/1432730315s/256683.jpg", firstCapturedBook.getSmallImageUrl());
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldImportWithCopyWhenCopyModeIsRequestedAndSupported() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", "id,title\n".getBytes());
+        when(bookCopyImporter.isSupported()).thenReturn(true);
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("mode", "COPY")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        verify(bookCopyImporter, times(1)).importCsv(any(), any(), any());
+        verify(bookLoader, never()).load(anyList());
+    }
+
+    @Test
+    void shouldLoadBooksStandardWayWhenCopyModeIsNotSupported() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
+        when(bookCopyImporter.isSupported()).thenReturn(false);
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("mode", "COPY")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+
+        verify(bookCopyImporter, never()).importCsv(any(), any(), any());
+        verify(bookLoader, times(1)).load(anyList());
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldReturnFailedBooksWhenUploadedCSVHasInvalidBooks() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Invalid Book List.csv");
+        MockMultipartFile file = new MockMultipartFile("file", "Invalid Book List.csv", "text/csv", uploadStream);
+
+        List<BookInformation> failedBooks = new ArrayList<>();
+        BookInformation book = BookInformation.builder()
+                .id(52L)
+                .name("")
+                .authorName("Stephenie Meyer")
+                .amount(2335D)
+                .booksCount(185)
+                .averageRating(3.69)
+                .imageUrl("https://images.gr-assets.com/books/1361038355m/428263.jpg")
+                .smallImageUrl("https://images.gr-assets.com/books/1361038355s/428263.jpg")
+                .isbn("316160202")
+                .isbn13("harry")
+                .originalPublicationYear("2007")
+                .originalTitle("Eclipse")
+                .languageCode("en-US")
+                .build();
+        failedBooks.add(book);
+        when(bookLoader.load(anyList())).thenReturn(failedBooks);
+
+        MvcResult result = this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ObjectMapper mapper = new ObjectMapper();
+
+        List<BookInformation> actual = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BookInformation>>() {});
+
+        assertEquals(book.getId(), actual.get(0).getId());
+
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldNotReturnBooksWhenUploadedCSVHasValidBooks() throws Exception {
+        InputStream uploadStream = BookLoadControllerTest.class.getClassLoader().getResourceAsStream("Book List.csv");
+        MockMultipartFile file = new MockMultipartFile("file", "Book List.csv", "text/csv", uploadStream);
+
+        when(bookLoader.load(anyList())).thenReturn(Collections.emptyList());
+
+        MvcResult result = this.mockMvc.perform(multipart("/admin/books/load")
+                        .file(file).with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk())
+                .andReturn();
+
+        ObjectMapper mapper = new ObjectMapper();
+
+        List<BookInformation> actual = mapper.readValue(result.getResponse().getContentAsString(), new TypeReference<List<BookInformation>>() {});
+
+        assertEquals(0, actual.size());
+
+        if (uploadStream != null) {
+            uploadStream.close();
+        }
+    }
+
+    @Test
+    void shouldQueueLoadJobWhenAsyncUploadIsRequested() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", "id,title\n".getBytes());
+        when(bookLoadJobService.submit(any(MultipartFile.class), any())).thenReturn(BookLoadJob.queued(JOB_ID, "books.csv", "text/csv", null, new Date()));
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("async", "true")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/admin/books/load/" + JOB_ID))
+                .andExpect(jsonPath("$.id").value(JOB_ID))
+                .andExpect(jsonPath("$.status").value("QUEUED"));
+        verify(bookLoader, never()).load(anyList());
+    }
+
+    @Test
+    void shouldQueueLoadJobForLargeUploadByDefault() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", largeCsv());
+        when(bookLoadJobService.submit(any(MultipartFile.class), any())).thenReturn(BookLoadJob.queued(JOB_ID, "books.csv", "text/csv", null, new Date()));
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file)
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.id").value(JOB_ID));
+        verify(bookLoader, never()).load(anyList());
+    }
+
+    @Test
+    void shouldLoadLargeUploadInRequestWhenAsyncIsDisabled() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", largeCsv());
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("async", "false")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk());
+        verify(bookLoadJobService, never()).submit(any(MultipartFile.class), any());
+        verify(bookLoader, times(1)).load(anyList());
+    }
+
+    @Test
+    void shouldQueueLoadJobForLargeRequestBodyByDefault() throws Exception {
+        when(bookLoadJobService.submit(any(InputStream.class), any(), any(), any()))
+                .thenReturn(BookLoadJob.queued(JOB_ID, null, "text/csv", null, new Date()));
+
+        this.mockMvc.perform(post("/admin/books/load").contentType("text/csv").content(largeCsv())
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string("Location", "http://localhost/admin/books/load/" + JOB_ID));
+        verify(bookLoadJobService).submit(any(InputStream.class), isNull(), eq("text/csv"), isNull());
+        verify(bookLoader, never()).load(anyList());
+    }
+
+    @Test
+    void shouldRejectAsyncUploadWhenTooManyJobsAreQueued() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", "id,title\n".getBytes());
+        when(bookLoadJobService.submit(any(MultipartFile.class), any())).thenThrow(new BookLoadJobRejectedException());
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("async", "true")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isServiceUnavailable());
+    }
+
+    @Test
+    void shouldNotQueueLoadJobWhenNonAdminUploads() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", "id,title\n".getBytes());
+
+        this.mockMvc.perform(multipart("/admin/books/load").file(file).param("async", "true")
+                        .with(user("user@bookshopify.com").password("user").roles(Role.USER.name())))
+                .andExpect(status().isForbidden());
+        verify(bookLoadJobService, never()).submit(any(MultipartFile.class), any());
+    }
+
+    private byte[] largeCsv() {
+        StringBuilder csv = new StringBuilder("title,author,price,books_count,isbn,isbn13\n");
+        for (int row = 1; csv.length() <= 2048; row++) {
+            csv.append("Emma,Jane Austen,100,2,isbn").append(row).append(",978000000").append(row).append('\n');
+        }
+        return csv.toString().getBytes();
+    }
+}
@@ -0,0 +1,89 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.error.BookLoadJobNotFoundException;
+import com.tw.bootcamp.bookshop.user.Role;
+import com.tw.bootcamp.bookshop.user.UserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.function.Consumer;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(BookLoadJobController.class)
+@WithMockUser
+class BookLoadJobControllerTest {
+    private static final String JOB_ID = "5f0c6c1e-8d3a-4b7e-9f43-2f1b7d1e9a10";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @MockBean
+    private BookLoadJobService bookLoadJobService;
+
+    @MockBean
+    UserService userService;
+
+    @Test
+    void shouldReturnProgressOfLoadJob() throws Exception {
+        when(bookLoadJobService.fetch(JOB_ID)).thenReturn(BookLoadJobResponse.builder()
+                .id(JOB_ID)
+                .status(BookLoadJobStatus.RUNNING)
+                .estimatedRows(100)
+                .rowsRead(40)
+                .inserted(30)
+                .updated(5)
+                .failed(5)
+                .rowsPerSecond(20.0)
+                .etaSeconds(3L)
+                .build());
+
+        mockMvc.perform(get("/admin/books/load/" + JOB_ID)
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.rowsRead").value(40))
+                .andExpect(jsonPath("$.failed").value(5))
+                .andExpect(jsonPath("$.etaSeconds").value(3));
+    }
+
+    @Test
+    void shouldReturnNotFoundWhenLoadJobIsUnknown() throws Exception {
+        when(bookLoadJobService.fetch(JOB_ID)).thenThrow(new BookLoadJobNotFoundException());
+
+        mockMvc.perform(get("/admin/books/load/" + JOB_ID)
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldStreamFailedBooksOfLoadJob() throws Exception {
+        doAnswer(invocation -> {
+            Consumer<String> consumer = invocation.getArgument(1);
+            consumer.accept("{\"name\":\"\"}");
+            consumer.accept("{\"name\":\"Emma\"}");
+            return null;
+        }).when(bookLoadJobService).exportFailedBooks(eq(JOB_ID), any(Consumer.class));
+
+        MvcResult result = mockMvc.perform(get("/admin/books/load/" + JOB_ID + "/failed-books")
+                        .with(user("admin@bookshopify.com").password("admin").roles(Role.ADMIN.name())))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[1].name").value("Emma"));
+    }
+}
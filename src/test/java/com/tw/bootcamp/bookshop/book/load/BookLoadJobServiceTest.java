@@ -0,0 +1,189 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class BookLoadJobServiceTest {
+    private static final String HEADER = "id,author,title,price,books_count,isbn,isbn13\n";
+
+    @Autowired
+    private BookLoadJobService bookLoadJobService;
+
+    @Autowired
+    private BookLoadJobRepository jobRepository;
+
+    @Autowired
+    private BookLoadJobFailureRepository failureRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Value("${books.load.jobs.directory}")
+    private String jobDirectory;
+
+    @AfterEach
+    void tearDown() {
+        failureRepository.deleteAll();
+        jobRepository.deleteAll();
+        bookRepository.deleteAll();
+    }
+
+    @Test
+    void shouldLoadUploadInBackgroundAndRecordProgressAndFailedRows() throws Exception {
+        String csv = HEADER +
+                "1,Jane Austen,Emma,100,2,isbn1,9780000000001\n" +
+                "2,Unknown,,100,2,isbn2,9780000000002\n" +
+                "3,Frank Herbert,Dune,200,4,isbn3,9780000000003\n";
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8));
+
+        BookLoadJob job = bookLoadJobService.submit(file, null);
+        assertEquals(0, job.getEstimatedRows());
+        BookLoadJobResponse progress = awaitFinished(job.getId());
+
+        assertEquals(BookLoadJobStatus.COMPLETED, progress.getStatus());
+        assertEquals(3, progress.getEstimatedRows());
+        assertEquals(3, progress.getRowsRead());
+        assertEquals(2, progress.getInserted());
+        assertEquals(0, progress.getUpdated());
+        assertEquals(1, progress.getFailed());
+        assertEquals(2, bookRepository.count());
+        assertEquals(1, failedBooksOf(job.getId()).size());
+        assertTrue(failedBooksOf(job.getId()).get(0).contains("9780000000002"));
+        assertFalse(Files.exists(uploadOf(job.getId())));
+    }
+
+    @Test
+    void shouldLoadGzipCompressedUploadInBackground() throws Exception {
+        String csv = HEADER +
+                "1,Jane Austen,Emma,100,2,isbn1,9780000000001\n" +
+                "2,Frank Herbert,Dune,200,4,isbn2,9780000000002\n";
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(csv.getBytes(StandardCharsets.UTF_8));
+        }
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv.gz", "application/gzip", compressed.toByteArray());
+
+        BookLoadJob job = bookLoadJobService.submit(file, null);
+        BookLoadJobResponse progress = awaitFinished(job.getId());
+
+        assertEquals(BookLoadJobStatus.COMPLETED, progress.getStatus());
+        assertEquals(2, progress.getEstimatedRows());
+        assertEquals(2, progress.getInserted());
+        assertEquals(2, bookRepository.count());
+    }
+
+    @Test
+    void shouldResumeInterruptedJobAfterLastCommittedRow() throws Exception {
+        String id = UUID.randomUUID().toString();
+        Path upload = uploadOf(id);
+        Files.createDirectories(upload.getParent());
+        Files.write(upload, (HEADER +
+                "1,Jane Austen,Emma,100,2,isbn1,9780000000001\n" +
+                "2,Frank Herbert,Dune,200,4,isbn2,9780000000002\n" +
+                "3,George Orwell,Animal Farm,150,1,isbn3,9780000000003\n").getBytes(StandardCharsets.UTF_8));
+        jobRepository.save(BookLoadJob.builder()
+                .id(id)
+                .fileName("books.csv")
+                .status(BookLoadJobStatus.RUNNING)
+                .estimatedRows(3)
+                .rowsRead(1)
+                .rowsInserted(1)
+                .createdAt(new Date())
+                .build());
+
+        bookLoadJobService.run(id);
+
+        BookLoadJobResponse progress = bookLoadJobService.fetch(id);
+        assertEquals(BookLoadJobStatus.COMPLETED, progress.getStatus());
+        assertEquals(3, progress.getRowsRead());
+        assertEquals(3, progress.getInserted());
+        List<String> names = bookRepository.findAll().stream().map(Book::getName).sorted().collect(Collectors.toList());
+        assertEquals(asList("Animal Farm", "Dune"), names);
+    }
+
+    @Test
+    void shouldLoadStreamedUploadInBackground() throws Exception {
+        String csv = HEADER +
+                "1,Jane Austen,Emma,100,2,isbn1,9780000000001\n" +
+                "2,Frank Herbert,Dune,200,4,isbn2,9780000000002\n";
+
+        BookLoadJob job = bookLoadJobService.submit(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                null, "text/csv", null);
+        BookLoadJobResponse progress = awaitFinished(job.getId());
+
+        assertEquals(BookLoadJobStatus.COMPLETED, progress.getStatus());
+        assertEquals(2, progress.getInserted());
+        assertFalse(Files.exists(uploadOf(job.getId())));
+    }
+
+    @Test
+    void shouldDeleteUploadOfFailedJob() throws Exception {
+        MockMultipartFile file = new MockMultipartFile("file", "books.csv.gz", "application/gzip",
+                (HEADER + "1,Jane Austen,Emma,100,2,isbn1,9780000000001\n").getBytes(StandardCharsets.UTF_8));
+
+        BookLoadJob job = bookLoadJobService.submit(file, null);
+        BookLoadJobResponse progress = awaitFinished(job.getId());
+
+        assertEquals(BookLoadJobStatus.FAILED, progress.getStatus());
+        assertFalse(Files.exists(uploadOf(job.getId())));
+    }
+
+    @Test
+    void shouldDeleteAbandonedUploadsOnStart() throws Exception {
+        Path abandoned = uploadOf(UUID.randomUUID().toString());
+        Files.createDirectories(abandoned.getParent());
+        Files.write(abandoned, HEADER.getBytes(StandardCharsets.UTF_8));
+        Files.setLastModifiedTime(abandoned, FileTime.from(Instant.now().minus(Duration.ofDays(1))));
+
+        bookLoadJobService.resumeUnfinishedJobs();
+
+        assertFalse(Files.exists(abandoned));
+    }
+
+    private BookLoadJobResponse awaitFinished(String id) throws Exception {
+        long deadline = System.currentTimeMillis() + 10_000;
+        BookLoadJobResponse progress = bookLoadJobService.fetch(id);
+        while (progress.getStatus() != BookLoadJobStatus.COMPLETED && progress.getStatus() != BookLoadJobStatus.FAILED
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(50);
+            progress = bookLoadJobService.fetch(id);
+        }
+        return progress;
+    }
+
+    private Path uploadOf(String id) {
+        return Paths.get(jobDirectory).toAbsolutePath().resolve(id + ".upload");
+    }
+
+    private List<String> failedBooksOf(String id) throws Exception {
+        List<String> failedBooks = new ArrayList<>();
+        bookLoadJobService.exportFailedBooks(id, failedBooks::add);
+        return failedBooks;
+    }
+}
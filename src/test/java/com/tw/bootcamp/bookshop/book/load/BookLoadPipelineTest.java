@@ -0,0 +1,132 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.validation.Validation;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookLoadPipelineTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final BookRowValidator validator = new BookRowValidator(Validation.buildDefaultValidatorFactory().getValidator());
+    private ExecutorService executor;
+    private BookLoadPipeline pipeline;
+
+    @BeforeEach
+    void setUp() {
+        executor = Executors.newFixedThreadPool(3);
+        pipeline = new BookLoadPipeline(executor, validator, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void shouldWriteChunksInFileOrderWithNormalisedValidRowsOnly() throws Exception {
+        List<BookInformation> rows = IntStream.range(0, 10)
+                .mapToObj(i -> row((long) i, i == 4 ? "" : " Book " + i))
+                .collect(Collectors.toList());
+        List<List<Long>> written = Collections.synchronizedList(new ArrayList<>());
+
+        List<BookInformation> failedBooks = run(rows, chunk -> {
+            written.add(idsOf(chunk));
+            return Collections.emptyList();
+        });
+
+        assertEquals(asList(asList(0L, 1L, 2L), asList(3L, 5L), asList(6L, 7L, 8L), asList(9L)), written);
+        assertEquals(asList(4L), idsOf(failedBooks));
+    }
+
+    @Test
+    void shouldKeepFileOrderOfRowsFailedByValidationAndByWriter() throws Exception {
+        List<BookInformation> rows = asList(row(1L, "Emma"), row(2L, ""), row(3L, "Dune"), row(4L, ""));
+
+        List<BookInformation> failedBooks = run(rows, chunk -> chunk.stream()
+                .filter(row -> row.getId() == 1L)
+                .collect(Collectors.toList()));
+
+        assertEquals(asList(1L, 2L, 4L), idsOf(failedBooks));
+    }
+
+    @Test
+    void shouldPrepareChunksOnFourWorkersAtLeastTwiceAsFastAsOnOne() throws Exception {
+        List<BookInformation> rows = IntStream.range(0, 48)
+                .mapToObj(i -> row((long) i, "Book " + i))
+                .collect(Collectors.toList());
+        nanosToPrepare(rows, 4);
+
+        long oneWorkerNanos = nanosToPrepare(rows, 1);
+        long fourWorkersNanos = nanosToPrepare(rows, 4);
+
+        assertTrue(fourWorkersNanos * 2 <= oneWorkerNanos,
+                "4 workers " + fourWorkersNanos / 1_000_000 + " ms, 1 worker " + oneWorkerNanos / 1_000_000 + " ms");
+    }
+
+    private long nanosToPrepare(List<BookInformation> rows, int workers) throws Exception {
+        ExecutorService workerPool = Executors.newFixedThreadPool(workers);
+        try {
+            BookLoadPipeline pipeline = new BookLoadPipeline(workerPool, validator, workers);
+            long start = System.nanoTime();
+            pipeline.runPrepared(new ChunkedIterator<>(rows.iterator(), 4), chunk -> {
+                // stands in for the chunk lookup a dry run makes on the workers
+                sleep(20);
+                return chunk;
+            }, chunk -> {});
+            return System.nanoTime() - start;
+        } finally {
+            workerPool.shutdownNow();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private List<BookInformation> run(List<BookInformation> rows,
+                                      Function<List<BookInformation>, List<BookInformation>> writer) throws Exception {
+        FailedBooksFile failedBooks = new FailedBooksFile(objectMapper);
+        pipeline.run(new ChunkedIterator<>(rows.iterator(), 3), writer, failedBooks);
+        try (InputStream content = failedBooks.toResource().getInputStream()) {
+            return objectMapper.readValue(content, new TypeReference<List<BookInformation>>() {});
+        }
+    }
+
+    private BookInformation row(Long id, String name) {
+        return BookInformation.builder()
+                .id(id)
+                .name(name)
+                .authorName("Author")
+                .amount(100D)
+                .booksCount(1)
+                .isbn("isbn" + id)
+                .isbn13("")
+                .build();
+    }
+
+    private List<Long> idsOf(List<BookInformation> books) {
+        return books.stream().map(BookInformation::getId).collect(Collectors.toList());
+    }
+}
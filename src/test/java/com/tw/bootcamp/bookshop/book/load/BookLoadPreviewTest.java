@@ -0,0 +1,114 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookFingerprint;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class BookLoadPreviewTest {
+    private BookRepository bookRepository;
+    private BookLoadThrottle loadThrottle;
+    private BookLoadPreview preview;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        loadThrottle = new BookLoadThrottle(1, 1, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ZERO, Duration.ZERO, new String[0]);
+        preview = new BookLoadPreview(bookRepository, loadThrottle);
+    }
+
+    @AfterEach
+    void tearDown() {
+        loadThrottle.shutdown();
+    }
+
+    @Test
+    void shouldDescribeWhatEachRowWouldDoInFileOrder() {
+        BookInformation unchanged = row("same", 400D, 0);
+        when(bookRepository.findByIsbn13In(any())).thenReturn(asList(
+                existing(1L, "priced", row("priced", 400D, 0)),
+                existing(2L, "same", unchanged)));
+
+        List<BookLoadChange> changes = preview.diff(preview.lookUp(chunk(
+                row("new", 500D, 5), row("priced", 450D, 2), row("", 500D, 1), unchanged, row("same", 400D, 3))));
+
+        assertEquals(asList(BookLoadAction.INSERT, BookLoadAction.UPDATE, BookLoadAction.FAILED,
+                BookLoadAction.UNCHANGED, BookLoadAction.STOCK), actionsOf(changes));
+        assertEquals(Long.valueOf(1L), changes.get(1).getBookId());
+        assertEquals(400D, changes.get(1).getPreviousAmount());
+        verify(bookRepository, never()).save(any());
+    }
+
+    @Test
+    void shouldCountRepeatedNewBooksAcrossChunksAsInserts() {
+        when(bookRepository.findByIsbn13In(any())).thenReturn(Collections.emptyList());
+
+        preview.diff(preview.lookUp(chunk(row("new", 500D, 5))));
+        List<BookLoadChange> changes = preview.diff(preview.lookUp(chunk(row("new", 500D, 2))));
+
+        assertEquals(Collections.singletonList(BookLoadAction.INSERT), actionsOf(changes));
+    }
+
+    @Test
+    void shouldSummariseChanges() {
+        when(bookRepository.findByIsbn13In(any())).thenReturn(Collections.singletonList(
+                existing(1L, "priced", row("priced", 400D, 0))));
+        BookLoadDiffSummary summary = new BookLoadDiffSummary();
+
+        preview.diff(preview.lookUp(chunk(row("new", 500D, 5), row("priced", 450D, 2), row("", 500D, 1))))
+                .forEach(summary::record);
+
+        assertEquals(3, summary.getRows());
+        assertEquals(1, summary.getInserted());
+        assertEquals(1, summary.getUpdated());
+        assertEquals(1, summary.getPriceChanges());
+        assertEquals(7, summary.getStockDelta());
+        assertEquals(1, summary.getFailed());
+    }
+
+    private ValidatedChunk chunk(BookInformation... rows) {
+        ValidatedChunk chunk = new ValidatedChunk();
+        for (BookInformation row : rows) {
+            chunk.add(row, !row.getIsbn13().isEmpty());
+        }
+        return chunk;
+    }
+
+    private Book existing(Long id, String isbn13, BookInformation content) {
+        return Book.builder()
+                .id(id)
+                .isbn13(isbn13)
+                .isbn("")
+                .amount(content.getAmount())
+                .contentFingerprint(BookFingerprint.of(content))
+                .build();
+    }
+
+    private List<BookLoadAction> actionsOf(List<BookLoadChange> changes) {
+        return changes.stream().map(BookLoadChange::getAction).collect(Collectors.toList());
+    }
+
+    private BookInformation row(String isbn13, Double amount, int booksCount) {
+        return BookInformation.builder()
+                .name("Harry Potter")
+                .authorName("J K Rowling")
+                .amount(amount)
+                .booksCount(booksCount)
+                .isbn13(isbn13)
+                .isbn("")
+                .build();
+    }
+}
@@ -0,0 +1,137 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookLoadThrottleTest {
+    private MeterRegistry registry;
+    private BookLoadThrottle throttle;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        throttle = new BookLoadThrottle(1, 1, Duration.ofMillis(500), Duration.ofMillis(50),
+                Duration.ofMillis(100), Duration.ofMillis(300), new String[]{"/books", "/orders"});
+        throttle.bindTo(registry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        throttle.shutdown();
+    }
+
+    @Test
+    void shouldNotPauseWhileStorefrontIsFast() {
+        storefrontRequest("/books", Duration.ofMillis(20));
+
+        assertEquals(Duration.ZERO, throttle.nextPause());
+    }
+
+    @Test
+    void shouldBackOffWhileStorefrontLatencyIsAboveThreshold() {
+        storefrontRequest("/books/{id}", Duration.ofSeconds(1));
+        assertEquals(Duration.ofMillis(100), throttle.nextPause());
+
+        storefrontRequest("/orders", Duration.ofSeconds(1));
+        assertEquals(Duration.ofMillis(200), throttle.nextPause());
+
+        storefrontRequest("/orders", Duration.ofSeconds(1));
+        assertEquals(Duration.ofMillis(300), throttle.nextPause());
+        assertEquals(300.0, registry.get("books.load.throttle.pause").gauge().value());
+    }
+
+    @Test
+    void shouldRecoverOnceStorefrontIsFastAgain() {
+        storefrontRequest("/books", Duration.ofSeconds(1));
+        throttle.nextPause();
+        storefrontRequest("/books", Duration.ofSeconds(1));
+        throttle.nextPause();
+
+        assertEquals(Duration.ofMillis(100), throttle.nextPause());
+        assertEquals(Duration.ZERO, throttle.nextPause());
+    }
+
+    @Test
+    void shouldIgnoreLatencyOfRequestsOutsideWatchedPaths() {
+        storefrontRequest("/admin/books/load", Duration.ofSeconds(10));
+
+        assertEquals(Duration.ZERO, throttle.nextPause());
+    }
+
+    @Test
+    void shouldBackOffWhenConnectionPoolWaitIsAboveThreshold() {
+        registry.timer("hikaricp.connections.acquire", Tags.of("pool", "HikariPool-1")).record(Duration.ofMillis(200));
+
+        assertEquals(Duration.ofMillis(100), throttle.nextPause());
+    }
+
+    @Test
+    void shouldExposeConnectionsHeldByLoader() {
+        AtomicReference<Double> held = new AtomicReference<>();
+
+        throttle.write(() -> {
+            held.set(registry.get("books.load.throttle.connections").gauge().value());
+            return null;
+        });
+
+        assertEquals(1.0, held.get());
+        assertEquals(0.0, registry.get("books.load.throttle.connections").gauge().value());
+    }
+
+    @Test
+    void shouldHoldBackChunkWriteWhileStorefrontIsSlow() {
+        storefrontRequest("/books", Duration.ofSeconds(1));
+        long throttledMillis = millisToWrite();
+        long recoveredMillis = millisToWrite();
+
+        assertTrue(throttledMillis >= 100, "throttled write took " + throttledMillis + " ms");
+        assertTrue(recoveredMillis < 100, "write after recovery took " + recoveredMillis + " ms");
+    }
+
+    @Test
+    void shouldMakeChunkWriteWaitForConnectionHeldByAnotherWrite() throws Exception {
+        CountDownLatch holding = new CountDownLatch(1);
+        CompletableFuture<Void> other = CompletableFuture.runAsync(() -> throttle.write(() -> {
+            holding.countDown();
+            sleep(200);
+            return null;
+        }));
+        assertTrue(holding.await(5, TimeUnit.SECONDS));
+
+        long waitedMillis = millisToWrite();
+
+        other.get(5, TimeUnit.SECONDS);
+        assertTrue(waitedMillis >= 100, "write waited " + waitedMillis + " ms for the connection");
+    }
+
+    private long millisToWrite() {
+        long start = System.nanoTime();
+        throttle.write(() -> null);
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            TimeUnit.MILLISECONDS.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void storefrontRequest(String uri, Duration latency) {
+        registry.timer("http.server.requests", Tags.of("uri", uri, "method", "GET")).record(latency);
+    }
+}
@@ -0,0 +1,160 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookFingerprint;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import javax.validation.Validation;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BookLoaderTest {
+    private BookRepository bookRepository;
+    private BookBatchWriter bookBatchWriter;
+    private BookLoader bookLoader;
+    @Captor
+    private ArgumentCaptor<List<BookUpdate>> updates;
+    @Captor
+    private ArgumentCaptor<List<BookUpdate>> countUpdates;
+    @Captor
+    private ArgumentCaptor<List<Book>> inserts;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        bookBatchWriter = mock(BookBatchWriter.class);
+        bookLoader = new BookLoader(bookRepository, bookBatchWriter, mock(PlatformTransactionManager.class),
+                Validation.buildDefaultValidatorFactory().getValidator(), mock(ApplicationEventPublisher.class),
+                new BookLoadThrottle(1, 1, Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ZERO, Duration.ZERO, new String[0]));
+    }
+
+    @Test
+    void shouldLookUpExistingBooksOfChunkWithOneQueryPerIsbnKind() {
+        when(bookRepository.findByIsbn13In(any())).thenReturn(Collections.singletonList(
+                Book.builder().id(7L).isbn13("existing").isbn("").build()));
+        when(bookRepository.findByIsbnIn(any())).thenReturn(Collections.singletonList(
+                Book.builder().id(8L).isbn13("").isbn("isbn-only").build()));
+
+        bookLoader.load(asList(row("existing", ""), row("new", ""), row("", "isbn-only")));
+
+        verify(bookRepository, times(1)).findByIsbn13In(new HashSet<>(asList("existing", "new")));
+        verify(bookRepository, times(1)).findByIsbnIn(new HashSet<>(asList("isbn-only")));
+        verify(bookRepository, never()).findByIsbn13(anyString());
+        verify(bookRepository, never()).findByIsbn(anyString());
+        verify(bookBatchWriter).update(updates.capture());
+        assertEquals(asList(7L, 8L), updates.getValue().stream().map(BookUpdate::getBookId).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldMergeRowsRepeatingAnIsbn13InChunkIntoFirstInsert() {
+        BookInformation first = row("same", "");
+        BookInformation second = row("same", "");
+
+        List<BookInformation> failedBooks = bookLoader.load(asList(first, second));
+
+        assertTrue(failedBooks.isEmpty());
+        verify(bookBatchWriter).insert(inserts.capture());
+        assertEquals(1, inserts.getValue().size());
+        assertEquals(10, inserts.getValue().get(0).getBooksCount());
+    }
+
+    @Test
+    void shouldFailRowWithoutIsbnsInsteadOfMergingItIntoInsertWithoutIsbn() {
+        BookInformation withoutIsbns = row("", "");
+
+        List<BookInformation> failedBooks = bookLoader.load(asList(row("new", ""), withoutIsbns));
+
+        assertEquals(asList(withoutIsbns), failedBooks);
+        verify(bookRepository, never()).findByIsbnIn(anyCollection());
+    }
+
+    @Test
+    void shouldFailRowsMatchingSeveralExistingBooks() {
+        when(bookRepository.findByIsbnIn(any())).thenReturn(asList(
+                Book.builder().id(1L).isbn("shared").build(),
+                Book.builder().id(2L).isbn("shared").build()));
+        BookInformation ambiguous = row("", "shared");
+
+        List<BookInformation> failedBooks = bookLoader.load(asList(ambiguous));
+
+        assertEquals(asList(ambiguous), failedBooks);
+        verify(bookBatchWriter, never()).update(any());
+    }
+
+    @Test
+    void shouldFailRowsWithoutIsbn13WithoutQueryingForThem() {
+        BookInformation withoutIsbn13 = row(null, "isbn");
+
+        List<BookInformation> failedBooks = bookLoader.load(asList(withoutIsbn13));
+
+        assertEquals(asList(withoutIsbn13), failedBooks);
+        verify(bookRepository, never()).findByIsbn13In(anyCollection());
+        verify(bookRepository, never()).findByIsbnIn(anyCollection());
+    }
+
+    @Test
+    void shouldOnlyAddCountForRowsWhoseContentIsUnchanged() {
+        BookInformation sameContent = row("same", "");
+        BookInformation sameContentNoStock = row("idle", "").toBuilder().booksCount(0).build();
+        BookInformation changedContent = row("changed", "").toBuilder().amount(650D).build();
+        when(bookRepository.findByIsbn13In(any())).thenReturn(asList(
+                Book.builder().id(1L).isbn13("same").isbn("").contentFingerprint(BookFingerprint.of(sameContent)).build(),
+                Book.builder().id(2L).isbn13("idle").isbn("").contentFingerprint(BookFingerprint.of(sameContentNoStock)).build(),
+                Book.builder().id(3L).isbn13("changed").isbn("").contentFingerprint(BookFingerprint.of(row("changed", ""))).build()));
+
+        BookLoadResult result = bookLoader.load(asList(sameContent, sameContentNoStock, changedContent), loaded -> {});
+
+        verify(bookBatchWriter).update(updates.capture());
+        verify(bookBatchWriter).incrementCounts(countUpdates.capture());
+        assertEquals(asList(3L), updates.getValue().stream().map(BookUpdate::getBookId).collect(Collectors.toList()));
+        assertEquals(asList(1L), countUpdates.getValue().stream().map(BookUpdate::getBookId).collect(Collectors.toList()));
+        assertEquals(0, result.getInserted());
+        assertEquals(1, result.getUpdated());
+        assertEquals(2, result.getUnchanged());
+    }
+
+    @Test
+    void shouldSkipWritingWhenNoRowOfChunkChangesAnything() {
+        BookInformation sameContentNoStock = row("idle", "").toBuilder().booksCount(0).build();
+        when(bookRepository.findByIsbn13In(any())).thenReturn(Collections.singletonList(
+                Book.builder().id(2L).isbn13("idle").isbn("").contentFingerprint(BookFingerprint.of(sameContentNoStock)).build()));
+
+        BookLoadResult result = bookLoader.load(asList(sameContentNoStock), loaded -> {});
+
+        verifyNoInteractions(bookBatchWriter);
+        assertEquals(1, result.getUnchanged());
+        assertTrue(result.getFailedBooks().isEmpty());
+    }
+
+    private BookInformation row(String isbn13, String isbn) {
+        return BookInformation.builder()
+                .name("Harry Potter")
+                .authorName("J K Rowling")
+                .amount(500D)
+                .booksCount(5)
+                .isbn13(isbn13)
+                .isbn(isbn)
+                .build();
+    }
+}
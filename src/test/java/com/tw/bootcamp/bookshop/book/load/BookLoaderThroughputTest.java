@@ -0,0 +1,132 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+class BookLoaderThroughputTest {
+    private static final int ROWS = 2000;
+    private static final int CHUNK_SIZE = 1000;
+
+    @Autowired
+    private BookLoader bookLoader;
+    @Autowired
+    private BookLoadService bookLoadService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void setUp() {
+        // the test schema is created by Hibernate, without the isbn indexes of the migrations
+        jdbcTemplate.execute("create index if not exists idx_books_isbn13 on books (isbn13)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.update("delete from books where isbn13 like 'THR-%'");
+        jdbcTemplate.execute("drop index if exists idx_books_isbn13");
+    }
+
+    @Test
+    void shouldLoadRowsAtLeastTwiceAsFastAsLookingUpAndSavingEachRow() {
+        saveOneByOne(rows("warm-save", 200));
+        loadInChunks(rows("warm-load", 200));
+
+        long savedRowsPerSecond = rowsPerSecond(() -> saveOneByOne(rows("save", ROWS)));
+        long loadedRowsPerSecond = rowsPerSecond(() -> loadInChunks(rows("load", ROWS)));
+
+        assertEquals(2 * (ROWS + 200), jdbcTemplate.queryForObject(
+                "select count(*) from books where isbn13 like 'THR-%'", Integer.class));
+        assertTrue(loadedRowsPerSecond >= 2 * savedRowsPerSecond,
+                "loader " + loadedRowsPerSecond + " rows/s, save() per row " + savedRowsPerSecond + " rows/s");
+    }
+
+    @Test
+    void shouldPreviewUploadInUnderTwoThirdsOfTheTimeOfLoadingIt() throws IOException {
+        bookLoadService.preview(csv("warm-preview", 200), "text/csv", null);
+        bookLoadService.load(csv("warm-load", 200), "text/csv", BookLoadMode.STANDARD, null);
+
+        long previewNanos = Math.min(
+                nanosToRun(() -> bookLoadService.preview(csv("first", ROWS), "text/csv", null)),
+                nanosToRun(() -> bookLoadService.preview(csv("second", ROWS), "text/csv", null)));
+        long loadNanos = Math.min(
+                nanosToRun(() -> bookLoadService.load(csv("first", ROWS), "text/csv", BookLoadMode.STANDARD, null)),
+                nanosToRun(() -> bookLoadService.load(csv("second", ROWS), "text/csv", BookLoadMode.STANDARD, null)));
+
+        assertEquals(2 * ROWS + 200, jdbcTemplate.queryForObject(
+                "select count(*) from books where isbn13 like 'THR-%'", Integer.class));
+        assertTrue(previewNanos * 3 <= loadNanos * 2,
+                "dry run " + previewNanos / 1_000_000 + " ms, load " + loadNanos / 1_000_000 + " ms");
+    }
+
+    private void saveOneByOne(List<BookInformation> rows) {
+        rows.forEach(row -> {
+            if (bookRepository.findByIsbn13(row.getIsbn13()) == null) {
+                bookRepository.save(Book.from(row));
+            }
+        });
+    }
+
+    private void loadInChunks(List<BookInformation> rows) {
+        for (int from = 0; from < rows.size(); from += CHUNK_SIZE) {
+            assertTrue(bookLoader.load(rows.subList(from, Math.min(from + CHUNK_SIZE, rows.size()))).isEmpty());
+        }
+    }
+
+    private long rowsPerSecond(Runnable load) {
+        long start = System.nanoTime();
+        load.run();
+        return ROWS * 1_000_000_000L / Math.max(1, System.nanoTime() - start);
+    }
+
+    private long nanosToRun(Upload upload) throws IOException {
+        long start = System.nanoTime();
+        upload.run();
+        return System.nanoTime() - start;
+    }
+
+    private ByteArrayInputStream csv(String prefix, int count) {
+        String csv = "title,author,price,books_count,isbn13,isbn\n" + rows(prefix, count).stream()
+                .map(row -> String.join(",", row.getName(), row.getAuthorName(), row.getAmount().toString(),
+                        row.getBooksCount().toString(), row.getIsbn13(), row.getIsbn()))
+                .collect(Collectors.joining("\n"));
+        return new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private List<BookInformation> rows(String prefix, int count) {
+        return IntStream.range(0, count)
+                .mapToObj(i -> BookInformation.builder()
+                        .name("Throughput " + i)
+                        .authorName("Author " + i)
+                        .amount(100D + i)
+                        .booksCount(5)
+                        .isbn13("THR-" + prefix + "-" + i)
+                        .isbn("")
+                        .build())
+                .collect(Collectors.toList());
+    }
+
+    @FunctionalInterface
+    private interface Upload {
+        void run() throws IOException;
+    }
+}
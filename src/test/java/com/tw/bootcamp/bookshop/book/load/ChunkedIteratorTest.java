@@ -0,0 +1,37 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkedIteratorTest {
+    @Test
+    void shouldSplitRowsIntoChunksOfGivenSize() {
+        ChunkedIterator<Integer> chunks = new ChunkedIterator<>(asList(1, 2, 3, 4, 5).iterator(), 2);
+
+        List<List<Integer>> result = new ArrayList<>();
+        chunks.forEachRemaining(result::add);
+
+        assertEquals(asList(asList(1, 2), asList(3, 4), asList(5)), result);
+    }
+
+    @Test
+    void shouldHaveNoChunkForNoRows() {
+        ChunkedIterator<Integer> chunks = new ChunkedIterator<>(Collections.<Integer>emptyList().iterator(), 2);
+
+        assertFalse(chunks.hasNext());
+        assertThrows(NoSuchElementException.class, chunks::next);
+    }
+
+    @Test
+    void shouldRejectChunkSizeLessThanOne() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new ChunkedIterator<>(asList(1).iterator(), 0));
+    }
+}
@@ -0,0 +1,76 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CsvUploadTest {
+    private static final String HEADER = "id,author,title,price,books_count,isbn,isbn13\n";
+
+    @Test
+    void shouldAcceptCsvGzipAndZipUploadsOnly() {
+        assertTrue(CsvUpload.isSupported("text/csv"));
+        assertTrue(CsvUpload.isSupported("application/gzip"));
+        assertTrue(CsvUpload.isSupported("application/zip"));
+        assertTrue(CsvUpload.isSupported("text/csv; charset=UTF-8"));
+        assertFalse(CsvUpload.isSupported("text/plain"));
+        assertFalse(CsvUpload.isSupported(null));
+    }
+
+    @Test
+    void shouldReadRowsOfGzipCompressedCsv() throws IOException {
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(csv("Emma", "Dune").getBytes(StandardCharsets.UTF_8));
+        }
+
+        assertEquals(asList("Emma", "Dune"), namesOf(compressed.toByteArray(), "application/gzip"));
+    }
+
+    @Test
+    void shouldReadRowsOfEveryCsvInZipArchiveInOrder() throws IOException {
+        ByteArrayOutputStream archive = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(archive)) {
+            addEntry(zip, "first.csv", csv("Emma", "Dune"));
+            addEntry(zip, "readme.txt", "not books");
+            addEntry(zip, "nested/SECOND.CSV", csv("Animal Farm"));
+        }
+
+        assertEquals(asList("Emma", "Dune", "Animal Farm"), namesOf(archive.toByteArray(), "application/zip"));
+    }
+
+    private List<String> namesOf(byte[] content, String contentType) throws IOException {
+        List<String> names = new ArrayList<>();
+        try (CsvUpload upload = CsvUpload.open(new ByteArrayInputStream(content), contentType)) {
+            upload.rows(null).forEachRemaining(row -> names.add(row.getName()));
+        }
+        return names;
+    }
+
+    private void addEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    private String csv(String... titles) {
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < titles.length; i++) {
+            csv.append(i).append(",Author,").append(titles[i]).append(",100,1,isbn").append(i).append(",97800000000").append(i).append('\n');
+        }
+        return csv.toString();
+    }
+}
@@ -0,0 +1,45 @@
+package com.tw.bootcamp.bookshop.book.load;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.tw.bootcamp.bookshop.book.BookInformation;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.Resource;
+
+import java.io.InputStream;
+import java.util.Collections;
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FailedBooksFileTest {
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void shouldWriteFailedBooksOfAllChunksAsOneJsonArray() throws Exception {
+        BookInformation first = BookInformation.builder().id(1L).name("").build();
+        BookInformation second = BookInformation.builder().id(2L).authorName("").build();
+        Resource resource;
+        try (FailedBooksFile failedBooks = new FailedBooksFile(objectMapper)) {
+            failedBooks.addAll(asList(first));
+            failedBooks.addAll(Collections.emptyList());
+            failedBooks.addAll(asList(second));
+            resource = failedBooks.toResource();
+        }
+
+        try (InputStream content = resource.getInputStream()) {
+            List<BookInformation> books = objectMapper.readValue(content, new TypeReference<List<BookInformation>>() {});
+            assertEquals(asList(first, second), books);
+        }
+    }
+
+    @Test
+    void shouldWriteEmptyArrayWhenNoBookFailed() throws Exception {
+        try (FailedBooksFile failedBooks = new FailedBooksFile(objectMapper);
+             InputStream content = failedBooks.toResource().getInputStream()) {
+            assertTrue(objectMapper.readValue(content, List.class).isEmpty());
+        }
+    }
+}
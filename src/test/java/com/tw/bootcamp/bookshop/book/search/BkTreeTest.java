@@ -0,0 +1,40 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BkTreeTest {
+    @Test
+    void shouldMeasureEditDistance() {
+        assertEquals(0, BkTree.distance("meyer", "meyer"));
+        assertEquals(1, BkTree.distance("stephanie", "stephenie"));
+        assertEquals(2, BkTree.distance("rowlign", "rowling"));
+        assertEquals(3, BkTree.distance("kitten", "sitting"));
+        assertEquals(4, BkTree.distance("", "emma"));
+    }
+
+    @Test
+    void shouldFindTermsWithinMaxDistance() {
+        BkTree tree = new BkTree();
+        tree.add("stephenie");
+        tree.add("stephen");
+        tree.add("meyer");
+        tree.add("mayer");
+        tree.add("twilight");
+        tree.add("meyer");
+
+        Map<String, Integer> expected = new HashMap<>();
+        expected.put("meyer", 0);
+        expected.put("mayer", 1);
+        assertEquals(expected, tree.find("meyer", 1));
+        assertEquals(1, tree.find("stephanie", 2).size());
+        assertEquals(2, tree.find("stephanie", 3).size());
+        assertTrue(tree.find("dune", 2).isEmpty());
+        assertEquals(5, tree.size());
+    }
+}
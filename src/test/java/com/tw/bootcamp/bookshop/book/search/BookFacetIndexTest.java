@@ -0,0 +1,111 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BookStockChangedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+class BookFacetIndexTest {
+    private BookFacetIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookFacetIndex(mock(BookRepository.class));
+        index.add(asList(
+                book(1L, "Wings of Fire", "eng", "1999", 4.3, 300D, 5),
+                book(2L, "Emma", "en-US", "1815", 4.0, 150D, 0),
+                book(3L, "Twilight", "eng", "2005", 3.6, 450D, 2),
+                book(4L, "Les Misérables", "fre", "1862.0", 4.2, 600D, 1)));
+    }
+
+    @Test
+    void shouldReturnAllBooksSortedByNameWithoutFilters() {
+        FacetedIds result = index.filter(new BookFilter(), 10);
+
+        assertEquals(asList(2L, 4L, 3L, 1L), result.getIds());
+        assertEquals(4, result.getTotal());
+    }
+
+    @Test
+    void shouldIntersectAllGivenFilters() {
+        BookFilter filter = BookFilter.builder()
+                .languageCode("ENG")
+                .yearFrom(1990)
+                .minRating(4.0)
+                .maxPrice(500D)
+                .available(true)
+                .build();
+
+        assertEquals(asList(1L), index.filter(filter, 10).getIds());
+    }
+
+    @Test
+    void shouldIncludeBoundsOfRanges() {
+        BookFilter filter = BookFilter.builder().yearFrom(1815).yearTo(1862).minPrice(150D).maxPrice(600D).build();
+
+        assertEquals(asList(2L, 4L), index.filter(filter, 10).getIds());
+    }
+
+    @Test
+    void shouldMatchNothingForInvertedRange() {
+        BookFilter filter = BookFilter.builder().minRating(4.5).maxRating(3.5).build();
+
+        assertEquals(0, index.filter(filter, 10).getTotal());
+    }
+
+    @Test
+    void shouldFilterBooksOutOfStock() {
+        BookFilter filter = BookFilter.builder().available(false).build();
+
+        assertEquals(asList(2L), index.filter(filter, 10).getIds());
+    }
+
+    @Test
+    void shouldCountFacetsOfAllMatchingBooksBeyondLimit() {
+        FacetedIds result = index.filter(BookFilter.builder().minRating(4.0).build(), 1);
+
+        assertEquals(asList(2L), result.getIds());
+        assertEquals(3, result.getTotal());
+        assertEquals(Integer.valueOf(1), result.getFacets().getLanguageCode().get("eng"));
+        assertEquals(Integer.valueOf(1), result.getFacets().getLanguageCode().get("fre"));
+        assertEquals(Integer.valueOf(1), result.getFacets().getPublicationDecade().get(1990));
+        assertEquals(Integer.valueOf(3), result.getFacets().getAverageRating().get(4));
+        assertEquals(Integer.valueOf(2), result.getFacets().getAvailable().get(true));
+        assertEquals(Integer.valueOf(1), result.getFacets().getAvailable().get(false));
+    }
+
+    @Test
+    void shouldReindexBookWhenItIsUpdated() {
+        index.add(Collections.singletonList(book(3L, "Twilight", "fre", "2005", 3.6, 450D, 2)));
+
+        assertEquals(asList(1L), index.filter(BookFilter.builder().languageCode("eng").build(), 10).getIds());
+        assertEquals(asList(4L, 3L), index.filter(BookFilter.builder().languageCode("fre").build(), 10).getIds());
+    }
+
+    @Test
+    void shouldReindexAvailabilityWhenStockChanges() {
+        index.onBookStockChanged(new BookStockChangedEvent(book(4L, "Les Misérables", "fre", "1862.0", 4.2, 600D, 0), 1));
+
+        assertEquals(asList(2L, 4L), index.filter(BookFilter.builder().available(false).build(), 10).getIds());
+    }
+
+    private Book book(Long id, String name, String languageCode, String year, double rating, Double price, int booksCount) {
+        return Book.builder()
+                .id(id)
+                .name(name)
+                .authorName("Author")
+                .languageCode(languageCode)
+                .originalPublicationYear(year)
+                .averageRating(rating)
+                .amount(price)
+                .booksCount(booksCount)
+                .build();
+    }
+}
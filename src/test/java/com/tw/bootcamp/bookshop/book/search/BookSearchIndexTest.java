@@ -0,0 +1,113 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BookTestBuilder;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+
+class BookSearchIndexTest {
+    private BookRepository bookRepository;
+    private BookSearchIndex index;
+
+    @BeforeEach
+    void setUp() {
+        bookRepository = mock(BookRepository.class);
+        index = new BookSearchIndex(bookRepository);
+    }
+
+    @Test
+    void shouldMatchIgnoringCaseAndAccents() {
+        index.add(asList(book(1L, "Les Misérables", "Victor Hugo")));
+
+        assertEquals(asList(1L), index.search("les MISERABLES", SearchSort.RELEVANCE, false, 10));
+        assertEquals(asList(1L), index.search("hugo", SearchSort.RELEVANCE, false, 10));
+    }
+
+    @Test
+    void shouldOnlyReturnBooksMatchingEveryWord() {
+        index.add(asList(book(1L, "Harry Potter and the Chamber of Secrets", "J K Rowling"),
+                book(2L, "The Secret Garden", "Frances Hodgson Burnett")));
+
+        assertEquals(asList(1L), index.search("harry secrets", SearchSort.RELEVANCE, false, 10));
+        assertTrue(index.search("harry garden", SearchSort.RELEVANCE, false, 10).isEmpty());
+        assertTrue(index.search("  ", SearchSort.RELEVANCE, false, 10).isEmpty());
+    }
+
+    @Test
+    void shouldRankTitleMatchesAndShorterTitlesHigher() {
+        index.add(asList(book(1L, "A Biography", "Tolkien"),
+                book(2L, "Tolkien Letters", "Someone Else"),
+                book(3L, "Tolkien", "Someone Else")));
+
+        assertEquals(asList(3L, 2L, 1L), index.search("tolkien", SearchSort.RELEVANCE, false, 10));
+    }
+
+    @Test
+    void shouldSortMatchesByNameAndLimitResults() {
+        index.add(asList(book(1L, "Wings of Fire", "Kalam"),
+                book(2L, "Fire and Blood", "George R R Martin"),
+                book(3L, "Catching Fire", "Suzanne Collins")));
+
+        assertEquals(asList(3L, 2L), index.search("fire", SearchSort.NAME, false, 2));
+    }
+
+    @Test
+    void shouldReplaceIndexedTermsWhenBookIsUpdated() {
+        index.add(asList(book(1L, "Animal Farm", "George Orwell")));
+        index.add(asList(book(1L, "Nineteen Eighty-Four", "George Orwell")));
+
+        assertTrue(index.search("animal", SearchSort.RELEVANCE, false, 10).isEmpty());
+        assertEquals(asList(1L), index.search("eighty", SearchSort.RELEVANCE, false, 10));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void shouldMatchMisspeltWordsOnlyWhenFuzzy() {
+        index.add(asList(book(1L, "Twilight", "Stephenie Meyer"), book(2L, "Dune", "Frank Herbert")));
+
+        assertTrue(index.search("stephanie meyer", SearchSort.RELEVANCE, false, 10).isEmpty());
+        assertEquals(asList(1L), index.search("stephanie meyer", SearchSort.RELEVANCE, true, 10));
+        assertEquals(asList(1L), index.search("twilihgt", SearchSort.RELEVANCE, true, 10));
+        assertEquals(asList(2L), index.search("dine", SearchSort.RELEVANCE, true, 10));
+        assertTrue(index.search("dx", SearchSort.RELEVANCE, true, 10).isEmpty());
+    }
+
+    @Test
+    void shouldRankExactMatchesAboveFuzzyOnes() {
+        index.add(asList(book(1L, "Mayer", "Someone"), book(2L, "Meyer", "Someone")));
+
+        assertEquals(asList(2L, 1L), index.search("meyer", SearchSort.RELEVANCE, true, 10));
+    }
+
+    @Test
+    void shouldReplaceIndexWithBooksFromRepositoryOnRebuild() {
+        Book emma = book(1L, "Emma", "Jane Austen");
+        doAnswer(invocation -> {
+            Consumer<List<Book>> consumer = invocation.getArgument(1);
+            consumer.accept(asList(emma));
+            return null;
+        }).when(bookRepository).forEachPage(anyInt(), any());
+        index.add(asList(book(2L, "Stale", "Nobody")));
+
+        index.rebuild();
+
+        assertEquals(asList(1L), index.search("austen", SearchSort.RELEVANCE, false, 10));
+        assertTrue(index.search("stale", SearchSort.RELEVANCE, false, 10).isEmpty());
+    }
+
+    private Book book(Long id, String name, String authorName) {
+        return new BookTestBuilder().withId(id).withName(name).withAuthorName(authorName).build();
+    }
+}
@@ -0,0 +1,73 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BookTestBuilder;
+import com.tw.bootcamp.bookshop.book.BooksUpdatedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static java.util.Collections.singletonList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+
+class BookSuggesterTest {
+    private final ExecutorService rebuilder = Executors.newSingleThreadExecutor();
+    private final BookSuggester bookSuggester = new BookSuggester(mock(BookRepository.class), 10, rebuilder);
+
+    @AfterEach
+    void tearDown() {
+        bookSuggester.shutdown();
+    }
+
+    @Test
+    void shouldSuggestUpdatedBookOnceRebuilt() throws Exception {
+        bookSuggester.onBooksUpdated(new BooksUpdatedEvent(singletonList(book(1L, "Emma"))));
+        awaitRebuild();
+
+        assertEquals(singletonList("Emma"), textsOf(bookSuggester.suggest("em", 10)));
+    }
+
+    @Test
+    void shouldServePreviousSuggestionsWhileRebuilding() throws Exception {
+        bookSuggester.onBooksUpdated(new BooksUpdatedEvent(singletonList(book(1L, "Emma"))));
+        awaitRebuild();
+        CountDownLatch rebuilding = new CountDownLatch(1);
+        rebuilder.execute(() -> {
+            try {
+                rebuilding.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+
+        bookSuggester.onBooksUpdated(new BooksUpdatedEvent(singletonList(book(2L, "Emily of New Moon"))));
+
+        assertEquals(singletonList("Emma"), textsOf(bookSuggester.suggest("em", 10)));
+        rebuilding.countDown();
+        awaitRebuild();
+        assertEquals(2, bookSuggester.suggest("em", 10).size());
+        assertTrue(textsOf(bookSuggester.suggest("em", 10)).contains("Emily of New Moon"));
+    }
+
+    private void awaitRebuild() throws Exception {
+        rebuilder.submit(() -> {
+        }).get(10, TimeUnit.SECONDS);
+    }
+
+    private Book book(Long id, String name) {
+        return new BookTestBuilder().withId(id).withName(name).withAuthorName("L M Montgomery").build();
+    }
+
+    private List<String> textsOf(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,89 @@
+package com.tw.bootcamp.bookshop.book.search;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookTestBuilder;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTest {
+    @Test
+    void shouldCompletePrefixIgnoringCaseAndAccents() {
+        SuggestionTrie trie = new SuggestionTrie.Builder(10)
+                .add(asList(book("Les Misérables", "Victor Hugo", 4.2)))
+                .build();
+
+        assertEquals(asList("Les Misérables"), textsOf(trie.complete("LES MISE", 10)));
+        assertEquals(asList("Victor Hugo"), textsOf(trie.complete("vic", 10)));
+    }
+
+    @Test
+    void shouldCompleteFromStartOfAnyWord() {
+        SuggestionTrie trie = new SuggestionTrie.Builder(10)
+                .add(asList(book("The Hunger Games", "Suzanne Collins", 4.3)))
+                .build();
+
+        assertEquals(asList("The Hunger Games"), textsOf(trie.complete("hunger ga", 10)));
+        assertEquals(asList("Suzanne Collins"), textsOf(trie.complete("col", 10)));
+        assertTrue(trie.complete("unger", 10).isEmpty());
+    }
+
+    @Test
+    void shouldBranchWithinSharedPrefixOfTexts() {
+        SuggestionTrie trie = new SuggestionTrie.Builder(10)
+                .add(asList(book("Harry Potter", "J K Rowling", 4.5), book("Harriet the Spy", "Louise Fitzhugh", 4.0)))
+                .build();
+
+        assertEquals(asList("Harry Potter", "Harriet the Spy"), textsOf(trie.complete("harr", 10)));
+        assertEquals(asList("Harriet the Spy"), textsOf(trie.complete("harri", 10)));
+        assertEquals(asList("Harry Potter"), textsOf(trie.complete("harry pot", 10)));
+        assertTrue(trie.complete("harrx", 10).isEmpty());
+        assertTrue(trie.complete("harry potters", 10).isEmpty());
+    }
+
+    @Test
+    void shouldRankCompletionsByAverageRating() {
+        SuggestionTrie trie = new SuggestionTrie.Builder(2)
+                .add(asList(book("Harry Potter and the Chamber of Secrets", "J K Rowling", 4.3),
+                        book("Harry Potter and the Prisoner of Azkaban", "J K Rowling", 4.5),
+                        book("Harry Potter and the Sorcerer's Stone", "J K Rowling", 4.4)))
+                .build();
+
+        assertEquals(asList("Harry Potter and the Prisoner of Azkaban", "Harry Potter and the Sorcerer's Stone"),
+                textsOf(trie.complete("harry", 10)));
+        assertEquals(asList("Harry Potter and the Prisoner of Azkaban"), textsOf(trie.complete("harry", 1)));
+    }
+
+    @Test
+    void shouldSuggestAuthorOnceWithRatingOfBestBook() {
+        SuggestionTrie trie = new SuggestionTrie.Builder(10)
+                .add(asList(book("Emma", "Jane Austen", 4.0), book("Persuasion", "Jane Austen", 4.1)))
+                .build();
+
+        assertEquals(asList(new Suggestion("Jane Austen", SuggestionType.AUTHOR, 4.1)), trie.complete("jane", 10));
+    }
+
+    @Test
+    void shouldNotSuggestAnythingForBlankOrUnknownPrefix() {
+        SuggestionTrie trie = new SuggestionTrie.Builder(10)
+                .add(asList(book("Emma", "Jane Austen", 4.0)))
+                .build();
+
+        assertTrue(trie.complete(" ", 10).isEmpty());
+        assertTrue(trie.complete("xyz", 10).isEmpty());
+        assertTrue(SuggestionTrie.empty().complete("emma", 10).isEmpty());
+    }
+
+    private Book book(String name, String authorName, double averageRating) {
+        return new BookTestBuilder().withName(name).withAuthorName(authorName).withAverageRating(averageRating).build();
+    }
+
+    private List<String> textsOf(List<Suggestion> suggestions) {
+        return suggestions.stream().map(Suggestion::getText).collect(Collectors.toList());
+    }
+}
@@ -7,6 +7,7 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 
 import javax.validation.ConstraintViolationException;
@@ -26,6 +27,9 @@ class UserServiceTest {
     @Mock
     private Validator validator;
 
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @InjectMocks
     private UserService userService = new UserService();
 
@@ -146,6 +150,29 @@ class UserServiceTest {
         assertEquals(nonAdminUser.getRole(), userService.updateRole(nonAdminUser).getRole());
         assertEquals(nonAdminUser.getEmail(), userService.updateRole(nonAdminUser).getEmail());
     }
+
+    @Test
+    void shouldPublishRoleUpdatedEventWhenAdminChangesTheRole() {
+        User nonAdminUser = new User("nonadmin@bookshopify.com", Role.USER);
+        when(userRepository.findByEmail(any())).thenReturn(Optional.of(nonAdminUser));
+
+        userService.updateRole(new User("nonadmin@bookshopify.com", Role.ADMIN));
+
+        ArgumentCaptor<UserRoleUpdatedEvent> argCaptor = ArgumentCaptor.forClass(UserRoleUpdatedEvent.class);
+        verify(eventPublisher, times(1)).publishEvent(argCaptor.capture());
+        assertEquals("nonadmin@bookshopify.com", argCaptor.getValue().getEmail());
+    }
+
+    @Test
+    void shouldRevokeTokensOfUserWhenAdminChangesTheRole() {
+        User nonAdminUser = new User("nonadmin@bookshopify.com", Role.USER);
+        when(userRepository.findByEmail(any())).thenReturn(Optional.of(nonAdminUser));
+
+        User updatedUser = userService.updateRole(new User("nonadmin@bookshopify.com", Role.ADMIN));
+
+        assertEquals(1, updatedUser.getTokenVersion());
+    }
+
     @Test
     void shouldThrowEmailNotFoundExceptionWhenUserIsNotPresent(){
         User nonAdminUser = new User("nonadmin@bookshopify.com", Role.USER);
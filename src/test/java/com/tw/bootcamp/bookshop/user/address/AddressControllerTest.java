@@ -3,6 +3,8 @@ package com.tw.bootcamp.bookshop.user.address;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tw.bootcamp.bookshop.error.AddressErrorResponse;
 import com.tw.bootcamp.bookshop.error.AddressNotValidException;
+import com.tw.bootcamp.bookshop.user.AuthenticatedUser;
+import com.tw.bootcamp.bookshop.user.Role;
 import com.tw.bootcamp.bookshop.user.User;
 import com.tw.bootcamp.bookshop.user.UserService;
 import com.tw.bootcamp.bookshop.user.UserTestBuilder;
@@ -23,6 +25,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.mockito.Mockito.*;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -119,6 +122,20 @@ class AddressControllerTest {
                 .andExpect(jsonPath("$.message").value("User email does not exist"));
     }
 
+    @Test
+    void shouldNotLookUpUserAgainWhenAuthenticatedPrincipalCarriesUserDetails() throws Exception {
+        AuthenticatedUser principal = new AuthenticatedUser(7L, "testemail@test.com", "", Role.USER);
+        User user = principal.toUser();
+        Address address = new AddressTestBuilder().withUser(user).build();
+        when(addressService.loadAddressForUser(user)).thenReturn(Collections.singletonList(address));
+
+        mockMvc.perform(get("/addresses/").with(user(principal)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].city").value(address.getCity()));
+
+        verify(userService, never()).findByEmail(anyString());
+    }
+
     @Test
     void shouldNotSaveAddressWhenFieldsAreNotPassingValidation() throws Exception{
         CreateAddressRequest createRequest = createInvalidAddress();
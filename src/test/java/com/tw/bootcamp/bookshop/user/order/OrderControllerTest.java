@@ -2,15 +2,11 @@ package com.tw.bootcamp.bookshop.user.order;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.tw.bootcamp.bookshop.book.Book;
-import com.tw.bootcamp.bookshop.book.BookService;
-import com.tw.bootcamp.bookshop.book.BookTestBuilder;
 import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
 import com.tw.bootcamp.bookshop.user.User;
 import com.tw.bootcamp.bookshop.user.UserService;
 import com.tw.bootcamp.bookshop.user.UserTestBuilder;
 import com.tw.bootcamp.bookshop.user.address.Address;
-import com.tw.bootcamp.bookshop.user.address.AddressService;
-import com.tw.bootcamp.bookshop.user.address.AddressTestBuilder;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
@@ -45,12 +41,6 @@ class OrderControllerTest {
     @MockBean
     UserService userService;
 
-    @MockBean
-    AddressService addressService;
-
-    @MockBean
-    BookService bookService;
-
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -59,14 +49,12 @@ class OrderControllerTest {
         CreateOrderRequest createRequest = createOrderRequest();
 
         when(userService.findByEmail(anyString())).thenReturn(Optional.of(new UserTestBuilder().build()));
-        when(addressService.loadAddressById(anyLong())).thenReturn(Optional.of(new AddressTestBuilder().build()));
-        when(bookService.fetchByBookId(anyLong())).thenReturn(new BookTestBuilder().build());
         Order order = Order.builder()
                 .id(111L)
                 .quantity(1)
                 .paymentMode(PaymentMode.CASH_ON_DELIVERY.toString())
                 .build();
-        when(orderService.create(any(Order.class))).thenReturn(order);
+        when(orderService.create(eq(createRequest), any(User.class))).thenReturn(order);
         mockMvc.perform(post("/orders")
                         .content(objectMapper.writeValueAsString(createRequest))
                         .contentType(MediaType.APPLICATION_JSON))
@@ -78,8 +66,7 @@ class OrderControllerTest {
     void shouldThrowExceptionWhenRequiredBookQuantityNotAvailableInInventory() throws Exception {
         CreateOrderRequest createRequest = createOrderRequest();
         when(userService.findByEmail(anyString())).thenReturn(Optional.of(new UserTestBuilder().build()));
-        when(addressService.loadAddressById(anyLong())).thenReturn(Optional.of(new AddressTestBuilder().build()));
-        when(orderService.create(any(Order.class))).thenThrow(new RequiredBookQuantityNotAvailableException());
+        when(orderService.create(eq(createRequest), any(User.class))).thenThrow(new RequiredBookQuantityNotAvailableException());
 
         mockMvc.perform(post("/orders")
                         .content(objectMapper.writeValueAsString(createRequest))
@@ -88,11 +75,80 @@ class OrderControllerTest {
                 .andExpect(jsonPath("$.message").
                         value("Required book quantity is not available in the system"));
 
-        verify(orderService, times(1)).create(any(Order.class));
+        verify(orderService, times(1)).create(eq(createRequest), any(User.class));
     }
 
     //TODO : OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException
 
+    @Test
+    void shouldCheckOutAllBooksInCart() throws Exception {
+        CheckoutRequest checkoutRequest = CheckoutRequest.builder()
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(3L)
+                .items(asList(new CheckoutItem(1L, 2), new CheckoutItem(2L, 1)))
+                .build();
+        when(userService.findByEmail(anyString())).thenReturn(Optional.of(new UserTestBuilder().build()));
+        when(orderService.checkout(eq(checkoutRequest), any(User.class))).thenReturn(asList(
+                Order.builder().quantity(2).bookToPurchase(Book.builder().id(1L).build()).checkoutId("checkout-1").build(),
+                Order.builder().quantity(1).bookToPurchase(Book.builder().id(2L).build()).checkoutId("checkout-1").build()));
+
+        mockMvc.perform(post("/orders/checkout")
+                        .content(objectMapper.writeValueAsString(checkoutRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.checkoutId").value("checkout-1"))
+                .andExpect(jsonPath("$.items[0].bookId").value(1L))
+                .andExpect(jsonPath("$.items[1].quantity").value(1));
+    }
+
+    @Test
+    void shouldRejectCheckoutOfEmptyCart() throws Exception {
+        CheckoutRequest checkoutRequest = CheckoutRequest.builder()
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(3L)
+                .items(Collections.emptyList())
+                .build();
+
+        mockMvc.perform(post("/orders/checkout")
+                        .content(objectMapper.writeValueAsString(checkoutRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).checkout(any(), any());
+    }
+
+    @Test
+    void shouldRejectCheckoutOfCartWithMissingItem() throws Exception {
+        CheckoutRequest checkoutRequest = CheckoutRequest.builder()
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(3L)
+                .items(asList(new CheckoutItem(1L, 2), null))
+                .build();
+
+        mockMvc.perform(post("/orders/checkout")
+                        .content(objectMapper.writeValueAsString(checkoutRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).checkout(any(), any());
+    }
+
+    @Test
+    void shouldRejectCheckoutOfCartWithItemQuantityLessThanOne() throws Exception {
+        CheckoutRequest checkoutRequest = CheckoutRequest.builder()
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(3L)
+                .items(asList(new CheckoutItem(1L, 2), new CheckoutItem(2L, 0)))
+                .build();
+
+        mockMvc.perform(post("/orders/checkout")
+                        .content(objectMapper.writeValueAsString(checkoutRequest))
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        verify(orderService, never()).checkout(any(), any());
+    }
+
     private CreateOrderRequest createOrderRequest() {
         return CreateOrderRequest.builder()
                 .quantity(1)
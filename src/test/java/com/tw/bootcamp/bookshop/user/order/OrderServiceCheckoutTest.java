@@ -0,0 +1,116 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
+import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
+import com.tw.bootcamp.bookshop.user.User;
+import com.tw.bootcamp.bookshop.user.UserRepository;
+import com.tw.bootcamp.bookshop.user.address.Address;
+import com.tw.bootcamp.bookshop.user.address.AddressRepository;
+import com.tw.bootcamp.bookshop.user.order.error.AddressNotFoundForCustomerException;
+import com.tw.bootcamp.bookshop.user.order.error.OrderQuantityCannotBeLessThanOneException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.List;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderServiceCheckoutTest {
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private OrderTestFixture fixture;
+    private User buyer;
+    private Address address;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new OrderTestFixture(userRepository, addressRepository, bookRepository, orderRepository);
+        buyer = fixture.buyer();
+        address = fixture.address();
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void shouldCreateOneOrderPerBookInCartAndReserveTheirStock() throws Exception {
+        Long first = fixture.bookWithStock(10);
+        Long second = fixture.bookWithStock(5);
+
+        List<Order> orders = orderService.checkout(checkout(
+                new CheckoutItem(second, 2), new CheckoutItem(first, 1), new CheckoutItem(second, 3)), buyer);
+
+        assertEquals(2, orders.size());
+        assertEquals(9, fixture.booksCountOf(first));
+        assertEquals(0, fixture.booksCountOf(second));
+        List<Order> saved = fixture.orders();
+        assertEquals(2, saved.size());
+        assertTrue(saved.stream().allMatch(order -> orders.get(0).getCheckoutId().equals(order.getCheckoutId())));
+        assertEquals(6, saved.stream().mapToInt(Order::getQuantity).sum());
+    }
+
+    @Test
+    void shouldReserveNothingWhenAnyBookInCartIsOutOfStock() throws Exception {
+        Long first = fixture.bookWithStock(10);
+        Long second = fixture.bookWithStock(1);
+
+        assertThrows(RequiredBookQuantityNotAvailableException.class, () -> orderService.checkout(checkout(
+                new CheckoutItem(first, 2), new CheckoutItem(second, 2)), buyer));
+
+        assertEquals(10, fixture.booksCountOf(first));
+        assertEquals(1, fixture.booksCountOf(second));
+        assertEquals(0, fixture.orders().size());
+    }
+
+    @Test
+    void shouldRejectCartWithUnknownBook() throws Exception {
+        Long first = fixture.bookWithStock(10);
+
+        assertThrows(BookNotFoundException.class, () -> orderService.checkout(checkout(
+                new CheckoutItem(first, 2), new CheckoutItem(-1L, 1)), buyer));
+
+        assertEquals(10, fixture.booksCountOf(first));
+    }
+
+    @Test
+    void shouldRejectCartWithItemQuantityLessThanOne() throws Exception {
+        Long first = fixture.bookWithStock(10);
+
+        assertThrows(OrderQuantityCannotBeLessThanOneException.class, () -> orderService.checkout(checkout(
+                new CheckoutItem(first, 0)), buyer));
+    }
+
+    @Test
+    void shouldRejectCartShippedToAddressOfAnotherCustomer() throws Exception {
+        Long first = fixture.bookWithStock(10);
+        User otherCustomer = User.builder().id(buyer.getId() + 1).build();
+
+        assertThrows(AddressNotFoundForCustomerException.class, () -> orderService.checkout(checkout(
+                new CheckoutItem(first, 1)), otherCustomer));
+        assertEquals(10, fixture.booksCountOf(first));
+    }
+
+    private CheckoutRequest checkout(CheckoutItem... items) {
+        return CheckoutRequest.builder()
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(address.getId())
+                .items(asList(items))
+                .build();
+    }
+}
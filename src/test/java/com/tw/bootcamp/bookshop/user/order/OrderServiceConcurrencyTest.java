@@ -0,0 +1,85 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
+import com.tw.bootcamp.bookshop.user.User;
+import com.tw.bootcamp.bookshop.user.UserRepository;
+import com.tw.bootcamp.bookshop.user.address.Address;
+import com.tw.bootcamp.bookshop.user.address.AddressRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest
+class OrderServiceConcurrencyTest {
+    private static final int BUYERS = 64;
+    private static final int STOCK = 10;
+
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private UserRepository userRepository;
+    private OrderTestFixture fixture;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new OrderTestFixture(userRepository, addressRepository, bookRepository, orderRepository);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fixture.cleanUp();
+    }
+
+    @Test
+    void shouldNeverOversellWhenBuyersOrderLastCopiesConcurrently() throws Exception {
+        User buyer = fixture.buyer();
+        Address address = fixture.address();
+        Long bookId = fixture.bookWithStock(STOCK);
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService buyers = Executors.newFixedThreadPool(BUYERS);
+        List<Future<?>> orders = new ArrayList<>();
+
+        for (int i = 0; i < BUYERS; i++) {
+            orders.add(buyers.submit(() -> {
+                Book book = bookRepository.findById(bookId).orElseThrow(IllegalStateException::new);
+                start.await();
+                try {
+                    orderService.create(new Order(1, PaymentMode.CASH_ON_DELIVERY.toString(), buyer, address, book));
+                    placed.incrementAndGet();
+                } catch (RequiredBookQuantityNotAvailableException e) {
+                    rejected.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> order : orders) {
+            order.get(30, TimeUnit.SECONDS);
+        }
+        buyers.shutdown();
+
+        assertEquals(STOCK, placed.get());
+        assertEquals(BUYERS - STOCK, rejected.get());
+        assertEquals(STOCK, fixture.orders().size());
+        assertEquals(0, fixture.booksCountOf(bookId));
+    }
+}
@@ -0,0 +1,99 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.error.BookNotFoundException;
+import com.tw.bootcamp.bookshop.user.User;
+import com.tw.bootcamp.bookshop.user.UserRepository;
+import com.tw.bootcamp.bookshop.user.address.Address;
+import com.tw.bootcamp.bookshop.user.address.AddressRepository;
+import com.tw.bootcamp.bookshop.user.order.error.AddressNotFoundForCustomerException;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.persistence.EntityManagerFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+class OrderServiceStatementCountTest {
+    @Autowired
+    private OrderService orderService;
+    @Autowired
+    private OrderRepository orderRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private AddressRepository addressRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private OrderTestFixture fixture;
+    private User buyer;
+    private Address address;
+
+    @BeforeEach
+    void setUp() {
+        fixture = new OrderTestFixture(userRepository, addressRepository, bookRepository, orderRepository);
+        buyer = fixture.buyer();
+        address = fixture.address();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        statistics.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        statistics.setStatisticsEnabled(false);
+        fixture.cleanUp();
+    }
+
+    @Test
+    void shouldPlaceOrderWithOwnershipCheckStockUpdateAndInsertOnly() throws Exception {
+        Long bookId = fixture.bookWithStock(10);
+        statistics.clear();
+
+        Order order = orderService.create(orderRequest(bookId, address.getId()), currentUser());
+
+        assertEquals(3, statistics.getPrepareStatementCount());
+        assertNotNull(order.getId());
+        assertEquals(9, fixture.booksCountOf(bookId));
+    }
+
+    @Test
+    void shouldRejectOrderForAddressOfAnotherCustomer() {
+        Long bookId = fixture.bookWithStock(10);
+        User otherCustomer = User.builder().id(buyer.getId() + 1).build();
+
+        assertThrows(AddressNotFoundForCustomerException.class,
+                () -> orderService.create(orderRequest(bookId, address.getId()), otherCustomer));
+        assertEquals(0, fixture.orders().size());
+        assertEquals(10, fixture.booksCountOf(bookId));
+    }
+
+    @Test
+    void shouldRejectOrderForUnknownBook() {
+        assertThrows(BookNotFoundException.class,
+                () -> orderService.create(orderRequest(-1L, address.getId()), currentUser()));
+        assertEquals(0, fixture.orders().size());
+    }
+
+    private CreateOrderRequest orderRequest(Long bookId, Long addressId) {
+        return CreateOrderRequest.builder()
+                .quantity(1)
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY)
+                .addressId(addressId)
+                .bookId(bookId)
+                .build();
+    }
+
+    private User currentUser() {
+        return User.builder().id(buyer.getId()).email(buyer.getEmail()).build();
+    }
+}
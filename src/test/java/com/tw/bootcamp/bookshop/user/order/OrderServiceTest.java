@@ -1,7 +1,10 @@
 package com.tw.bootcamp.bookshop.user.order;
 
 import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookStockChangedEvent;
 import com.tw.bootcamp.bookshop.book.error.RequiredBookQuantityNotAvailableException;
+import com.tw.bootcamp.bookshop.book.inventory.StockReservation;
+import com.tw.bootcamp.bookshop.book.inventory.StockReserver;
 import com.tw.bootcamp.bookshop.user.User;
 import com.tw.bootcamp.bookshop.user.address.Address;
 import com.tw.bootcamp.bookshop.user.address.AddressRepository;
@@ -11,9 +14,11 @@ import com.tw.bootcamp.bookshop.user.order.error.OrderQuantityCannotBeLessThanOn
 import org.apache.commons.lang3.time.DateUtils;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
 
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
@@ -21,6 +26,8 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -36,6 +43,12 @@ class OrderServiceTest {
     @Mock
     private AddressRepository addressRepository;
 
+    @Mock
+    private StockReserver stockReserver;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
     @Test
     void createOrderAndVerifyIfInventoryIsReduced() throws RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException, InvalidPaymentModeException {
         Book purchasedBook = Book.builder()
@@ -53,8 +66,8 @@ class OrderServiceTest {
                 .shippingAddress(address)
                 .user(user)
                 .build();
-        List<Address> addresses = Collections.singletonList(address);
-        when(addressRepository.findAllByUser(user)).thenReturn(addresses);
+        when(addressRepository.existsByIdAndUserId(address.getId(), user.getId())).thenReturn(true);
+        when(stockReserver.reserve(2222L, 2)).thenReturn(Optional.of(StockReservation.unleased()));
         when(orderRepository.save(orderToCreate)).thenReturn(orderToCreate);
 
         Order createdOrder = orderService.create(orderToCreate);
@@ -62,6 +75,58 @@ class OrderServiceTest {
         assertEquals(8, createdOrder.getBookToPurchase().getBooksCount());
     }
 
+    @Test
+    void shouldPublishStockChangeOfPurchasedBookWhenOrderIsCreated() throws RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException, InvalidPaymentModeException {
+        Book purchasedBook = Book.builder()
+                .id(2222L)
+                .booksCount(10)
+                .build();
+        User user = User.builder().build();
+        Address address = Address.builder().build();
+        Order orderToCreate = Order.builder()
+                .quantity(10)
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY.toString())
+                .bookToPurchase(purchasedBook)
+                .shippingAddress(address)
+                .user(user)
+                .build();
+        when(addressRepository.existsByIdAndUserId(address.getId(), user.getId())).thenReturn(true);
+        when(stockReserver.reserve(2222L, 10)).thenReturn(Optional.of(StockReservation.unleased()));
+        when(orderRepository.save(orderToCreate)).thenReturn(orderToCreate);
+
+        orderService.create(orderToCreate);
+
+        ArgumentCaptor<BookStockChangedEvent> eventCaptor = ArgumentCaptor.forClass(BookStockChangedEvent.class);
+        verify(eventPublisher).publishEvent(eventCaptor.capture());
+        assertEquals(0, eventCaptor.getValue().getBook().getBooksCount());
+    }
+
+    @Test
+    void shouldNotPublishStockChangeWhenOrderIsSoldFromLease() throws RequiredBookQuantityNotAvailableException, OrderQuantityCannotBeLessThanOneException, AddressNotFoundForCustomerException, InvalidPaymentModeException {
+        Book purchasedBook = Book.builder()
+                .id(2222L)
+                .booksCount(10)
+                .build();
+        User user = User.builder().build();
+        Address address = Address.builder().build();
+        Order orderToCreate = Order.builder()
+                .quantity(2)
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY.toString())
+                .bookToPurchase(purchasedBook)
+                .shippingAddress(address)
+                .user(user)
+                .build();
+        when(addressRepository.existsByIdAndUserId(address.getId(), user.getId())).thenReturn(true);
+        when(stockReserver.reserve(2222L, 2)).thenReturn(Optional.of(StockReservation.leased(7L)));
+        when(orderRepository.save(orderToCreate)).thenReturn(orderToCreate);
+
+        Order createdOrder = orderService.create(orderToCreate);
+
+        assertEquals(7L, createdOrder.getStockLeaseId());
+        assertEquals(10, purchasedBook.getBooksCount());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void shouldThrowErrorWhenCreatingOrderWithQuantityGreaterThanInventoryCount() {
         Book purchasedBook = Book.builder()
@@ -81,6 +146,29 @@ class OrderServiceTest {
         assertEquals("Required book quantity is not available in the system", requiredBookQuantityNotAvailableException.getMessage());
     }
 
+    @Test
+    void shouldNotCreateOrderWhenStockIsTakenByConcurrentOrder() {
+        Book purchasedBook = Book.builder()
+                .id(2222L)
+                .booksCount(10)
+                .build();
+        User user = User.builder().build();
+        Address address = Address.builder().build();
+        Order orderToCreate = Order.builder()
+                .quantity(2)
+                .paymentMode(PaymentMode.CASH_ON_DELIVERY.toString())
+                .bookToPurchase(purchasedBook)
+                .shippingAddress(address)
+                .user(user)
+                .build();
+        when(addressRepository.existsByIdAndUserId(address.getId(), user.getId())).thenReturn(true);
+        when(stockReserver.reserve(2222L, 2)).thenReturn(Optional.empty());
+
+        assertThrows(RequiredBookQuantityNotAvailableException.class, () -> orderService.create(orderToCreate));
+        verify(orderRepository, never()).save(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
     @Test
     void shouldThrowErrorWhenCreatingOrderWithZeroQuantity() {
         Book purchasedBook = Book.builder()
@@ -136,6 +224,7 @@ class OrderServiceTest {
                 .paymentMode(PaymentMode.CASH_ON_DELIVERY.toString())
                 .bookToPurchase(purchasedBook)
                 .shippingAddress(address)
+                .user(User.builder().id(1L).build())
                 .build();
 
         AddressNotFoundForCustomerException addressNotFoundForCustomerException = assertThrows(AddressNotFoundForCustomerException.class,
@@ -0,0 +1,81 @@
+package com.tw.bootcamp.bookshop.user.order;
+
+import com.tw.bootcamp.bookshop.book.Book;
+import com.tw.bootcamp.bookshop.book.BookRepository;
+import com.tw.bootcamp.bookshop.book.BookTestBuilder;
+import com.tw.bootcamp.bookshop.user.User;
+import com.tw.bootcamp.bookshop.user.UserRepository;
+import com.tw.bootcamp.bookshop.user.UserTestBuilder;
+import com.tw.bootcamp.bookshop.user.address.Address;
+import com.tw.bootcamp.bookshop.user.address.AddressRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+public class OrderTestFixture {
+    private final UserRepository userRepository;
+    private final AddressRepository addressRepository;
+    private final BookRepository bookRepository;
+    private final OrderRepository orderRepository;
+    private final List<Long> bookIds = new ArrayList<>();
+    private User buyer;
+    private Address address;
+
+    public OrderTestFixture(UserRepository userRepository, AddressRepository addressRepository,
+                            BookRepository bookRepository, OrderRepository orderRepository) {
+        this.userRepository = userRepository;
+        this.addressRepository = addressRepository;
+        this.bookRepository = bookRepository;
+        this.orderRepository = orderRepository;
+    }
+
+    public User buyer() {
+        if (buyer == null) {
+            buyer = userRepository.save(new UserTestBuilder().withEmail("buyer@test.com").build());
+        }
+        return buyer;
+    }
+
+    public Address address() {
+        if (address == null) {
+            address = addressRepository.save(new Address("4 Privet Drive", null, "Little Whinging", "Surrey",
+                    "411006", "England", buyer(), "Harry Potter", 9876543210L, true));
+        }
+        return address;
+    }
+
+    public Book book(Book book) {
+        Book saved = bookRepository.save(book);
+        bookIds.add(saved.getId());
+        return saved;
+    }
+
+    public Long bookWithStock(int booksCount) {
+        return book(new BookTestBuilder().withBooksCount(booksCount).build()).getId();
+    }
+
+    public int booksCountOf(Long bookId) {
+        return bookRepository.findById(bookId).orElseThrow(IllegalStateException::new).getBooksCount();
+    }
+
+    public List<Order> orders() {
+        if (buyer == null) {
+            return new ArrayList<>();
+        }
+        return orderRepository.findAll().stream()
+                .filter(order -> buyer.getId().equals(order.getUser().getId()))
+                .collect(Collectors.toList());
+    }
+
+    public void cleanUp() {
+        orderRepository.deleteAll(orders());
+        if (address != null) {
+            addressRepository.delete(address);
+        }
+        bookIds.forEach(bookRepository::deleteById);
+        if (buyer != null) {
+            userRepository.delete(buyer);
+        }
+    }
+}